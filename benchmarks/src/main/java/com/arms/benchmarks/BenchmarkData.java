@@ -0,0 +1,132 @@
+package com.arms.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.arms.domain.Assignment;
+import com.arms.domain.Course;
+import com.arms.domain.Enrollment;
+import com.arms.domain.Grade;
+import com.arms.domain.Student;
+import com.arms.domain.User;
+import com.arms.persistence.DataManager;
+import com.arms.util.SyntheticDataGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/*
+ * SyntheticDataGenerator output sized by grade count: one student per 50 grades,
+ * one course per 1000 grades (at least 10), five enrollments per student and a
+ * grade for every enrolled assignment. The same seed always yields the same records.
+ */
+public class BenchmarkData {
+
+    private static final int GRADES_PER_STUDENT = 50;
+
+    private final List<Object> all = new ArrayList<>();
+    public final List<User> users = new ArrayList<>();
+    public final List<Course> courses = new ArrayList<>();
+    public final List<Assignment> assignments = new ArrayList<>();
+    public final List<Grade> grades = new ArrayList<>();
+    public final List<Enrollment> enrollments = new ArrayList<>();
+    public final List<String> studentIds = new ArrayList<>();
+    public final List<String> courseIds = new ArrayList<>();
+
+    public static BenchmarkData generate(int gradeCount, long seed) {
+        BenchmarkData data = new BenchmarkData();
+        int courseCount = Math.max(10, gradeCount / 1000);
+        new SyntheticDataGenerator(seed)
+                .setStudents(Math.max(1, gradeCount / GRADES_PER_STUDENT))
+                .setCourses(courseCount)
+                .setTeachers(Math.max(1, courseCount / 4))
+                .setAssignmentsPerCourse(GRADES_PER_STUDENT / 5)
+                .setCoursesPerStudent(5)
+                .setGradeDensity(1.0)
+                .generate(data::collect);
+        return data;
+    }
+
+    private void collect(List<Object> batch) {
+        for (Object entity : batch) {
+            all.add(entity);
+            if (entity instanceof Student student) {
+                users.add(student);
+                studentIds.add(student.getId());
+            } else if (entity instanceof User user) {
+                users.add(user);
+            } else if (entity instanceof Course course) {
+                courses.add(course);
+                courseIds.add(course.getId());
+            } else if (entity instanceof Assignment assignment) {
+                assignments.add(assignment);
+            } else if (entity instanceof Grade grade) {
+                grades.add(grade);
+            } else if (entity instanceof Enrollment enrollment) {
+                enrollments.add(enrollment);
+            }
+        }
+    }
+
+    // Fills the DataManager maps and indexes without writing entity files
+    public void loadInto(DataManager dataManager) {
+        dataManager.bulkInsert(all, false);
+    }
+
+    // Writes the dataset as a data/ tree in the same layout as FileHandler
+    public void writeTo(Path directory) throws IOException {
+        ObjectMapper objectMapper = objectMapper();
+        write(objectMapper, directory.resolve("users"), users, User::getId);
+        write(objectMapper, directory.resolve("courses"), courses, Course::getId);
+        write(objectMapper, directory.resolve("assignments"), assignments, Assignment::getId);
+        write(objectMapper, directory.resolve("grades"), grades, Grade::getId);
+        write(objectMapper, directory.resolve("enrollments"), enrollments, Enrollment::getId);
+    }
+
+    // Configured like DataManager's mapper
+    public static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(SerializationFeature.INDENT_OUTPUT, true);
+        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return objectMapper;
+    }
+
+    public static Path createTempDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix);
+    }
+
+    public static void deleteRecursively(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Failed to delete " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static <T> void write(ObjectMapper objectMapper, Path directory, List<T> entities,
+            Function<T, String> idOf) throws IOException {
+        Files.createDirectories(directory);
+        for (T entity : entities) {
+            objectMapper.writeValue(directory.resolve(idOf.apply(entity) + ".json").toFile(), entity);
+        }
+    }
+}
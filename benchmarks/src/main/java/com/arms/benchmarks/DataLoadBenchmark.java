@@ -0,0 +1,81 @@
+package com.arms.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arms.domain.Assignment;
+import com.arms.domain.Course;
+import com.arms.domain.Enrollment;
+import com.arms.domain.Grade;
+import com.arms.domain.User;
+import com.arms.persistence.ParallelDataLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Startup load of a synthetic data/ tree through the same loader DataManager uses.
+ * The files stay in the OS page cache between iterations, so this measures parse
+ * and directory-walk cost rather than disk reads.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DataLoadBenchmark {
+
+    @Param({"10000", "100000"})
+    public int grades;
+
+    @Param({"1", "4", "8"})
+    public int threads;
+
+    private Path directory;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = BenchmarkData.createTempDirectory("arms-bench-load-");
+        BenchmarkData.generate(grades, 42).writeTo(directory);
+        objectMapper = BenchmarkData.objectMapper();
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkData.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int coldLoad() {
+        Map<String, User> users = new ConcurrentHashMap<>();
+        Map<String, Course> courses = new ConcurrentHashMap<>();
+        Map<String, Assignment> assignments = new ConcurrentHashMap<>();
+        Map<String, Grade> gradeMap = new ConcurrentHashMap<>();
+        Map<String, Enrollment> enrollments = new ConcurrentHashMap<>();
+
+        ParallelDataLoader loader = new ParallelDataLoader(directory, objectMapper, threads);
+        loader.register("users", User.class, User::getId, users);
+        loader.register("courses", Course.class, Course::getId, courses);
+        loader.register("assignments", Assignment.class, Assignment::getId, assignments);
+        loader.register("grades", Grade.class, Grade::getId, gradeMap);
+        loader.register("enrollments", Enrollment.class, Enrollment::getId, enrollments);
+        loader.load(null);
+        return users.size() + courses.size() + assignments.size() + gradeMap.size() + enrollments.size();
+    }
+}
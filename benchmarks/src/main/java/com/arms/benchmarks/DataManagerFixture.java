@@ -0,0 +1,33 @@
+package com.arms.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.arms.persistence.DataManager;
+
+/*
+ * Points the DataManager singleton at a scratch data directory before its first
+ * use. Every benchmark class runs in its own fork, so each gets a fresh instance;
+ * the directory is returned so the benchmark can remove it in its tear-down.
+ */
+public final class DataManagerFixture {
+
+    private DataManagerFixture() {
+    }
+
+    public static Path open(BenchmarkData data, boolean journal) throws IOException {
+        Path directory = BenchmarkData.createTempDirectory("arms-bench-");
+        System.setProperty("app.data.directory", directory.toString());
+        System.setProperty("app.journal.enabled", Boolean.toString(journal));
+        // A multi-million record snapshot on shutdown would only slow the fork down
+        System.setProperty("app.snapshot.enabled", "false");
+        data.loadInto(DataManager.getInstance());
+        return directory;
+    }
+
+    // Drains pending writes so none land in the directory after it is gone
+    public static void close(Path directory) {
+        DataManager.getInstance().flush();
+        BenchmarkData.deleteRecursively(directory);
+    }
+}
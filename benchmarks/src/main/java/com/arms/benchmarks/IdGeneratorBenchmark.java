@@ -0,0 +1,54 @@
+package com.arms.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arms.persistence.IDGenerator;
+import com.arms.persistence.MonotonicIdGenerator;
+
+// ID generation alone and with every hardware thread contending for the shared counter
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public String gradeIdSingleThread() {
+        return IDGenerator.generateGradeId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String gradeIdContended() {
+        return IDGenerator.generateGradeId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long rawIdContended() {
+        return MonotonicIdGenerator.getInstance().next();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MonotonicIdGenerator.Block reserveThousand() {
+        return MonotonicIdGenerator.getInstance().reserve(1000);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String secureTokenContended() {
+        return IDGenerator.generateSecureToken();
+    }
+}
@@ -0,0 +1,99 @@
+package com.arms.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arms.domain.Assignment;
+import com.arms.domain.Course;
+import com.arms.domain.Enrollment;
+import com.arms.domain.Grade;
+import com.arms.domain.Student;
+import com.arms.domain.Teacher;
+import com.arms.domain.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+// Serialize + deserialize of one entity of each type with DataManager's mapper settings
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonRoundTripBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader userReader;
+    private ObjectReader courseReader;
+    private ObjectReader assignmentReader;
+    private ObjectReader gradeReader;
+    private ObjectReader enrollmentReader;
+
+    private User student;
+    private User teacher;
+    private Course course;
+    private Assignment assignment;
+    private Grade grade;
+    private Enrollment enrollment;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        writer = objectMapper.writer();
+        userReader = objectMapper.readerFor(User.class);
+        courseReader = objectMapper.readerFor(Course.class);
+        assignmentReader = objectMapper.readerFor(Assignment.class);
+        gradeReader = objectMapper.readerFor(Grade.class);
+        enrollmentReader = objectMapper.readerFor(Enrollment.class);
+
+        BenchmarkData data = BenchmarkData.generate(1000, 42);
+        student = data.users.stream().filter(user -> user instanceof Student).findFirst().orElseThrow();
+        teacher = data.users.stream().filter(user -> user instanceof Teacher).findFirst().orElseThrow();
+        course = data.courses.get(0);
+        assignment = data.assignments.get(0);
+        grade = data.grades.get(0);
+        enrollment = data.enrollments.get(0);
+    }
+
+    @Benchmark
+    public Object student() throws IOException {
+        return userReader.readValue(writer.writeValueAsBytes(student));
+    }
+
+    @Benchmark
+    public Object teacher() throws IOException {
+        return userReader.readValue(writer.writeValueAsBytes(teacher));
+    }
+
+    @Benchmark
+    public Object course() throws IOException {
+        return courseReader.readValue(writer.writeValueAsBytes(course));
+    }
+
+    @Benchmark
+    public Object assignment() throws IOException {
+        return assignmentReader.readValue(writer.writeValueAsBytes(assignment));
+    }
+
+    @Benchmark
+    public Object grade() throws IOException {
+        return gradeReader.readValue(writer.writeValueAsBytes(grade));
+    }
+
+    @Benchmark
+    public Object enrollment() throws IOException {
+        return enrollmentReader.readValue(writer.writeValueAsBytes(enrollment));
+    }
+}
@@ -0,0 +1,127 @@
+package com.arms.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arms.domain.Course;
+import com.arms.domain.Grade;
+import com.arms.domain.Student;
+import com.arms.domain.User;
+import com.arms.service.CourseService;
+import com.arms.service.GradeService;
+import com.arms.service.UserService;
+
+// GradeService and CourseService read paths at increasing store sizes (grade count)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int grades;
+
+    private GradeService gradeService;
+    private CourseService courseService;
+    private UserService userService;
+    private List<String> usernames;
+    private List<String> studentIds;
+    private List<String> courseIds;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkData data = BenchmarkData.generate(grades, 42);
+        directory = DataManagerFixture.open(data, false);
+        gradeService = GradeService.getInstance();
+        courseService = CourseService.getInstance();
+        userService = UserService.getInstance();
+        usernames = data.users.stream().map(User::getUsername).collect(Collectors.toList());
+        studentIds = data.studentIds;
+        courseIds = data.courseIds;
+    }
+
+    @TearDown
+    public void tearDown() {
+        DataManagerFixture.close(directory);
+    }
+
+    @Benchmark
+    public List<Grade> gradesByStudent() {
+        return gradeService.getGradesByStudent(randomStudent());
+    }
+
+    @Benchmark
+    public List<Grade> gradesByCourse() {
+        return gradeService.getGradesByCourse(randomCourse());
+    }
+
+    @Benchmark
+    public Optional<Double> studentAverage() {
+        return gradeService.calculateStudentAverage(randomStudent());
+    }
+
+    @Benchmark
+    public double classAverage() {
+        return gradeService.calculateClassAverage(randomCourse());
+    }
+
+    @Benchmark
+    public Map<String, Double> finalGradesForCourse() {
+        return gradeService.calculateFinalGradesForCourse(randomCourse());
+    }
+
+    @Benchmark
+    public Map<String, Long> gradeDistribution() {
+        return gradeService.getGradeDistribution(randomCourse());
+    }
+
+    @Benchmark
+    public List<Course> coursesByStudent() {
+        return courseService.getCoursesByStudent(randomStudent());
+    }
+
+    @Benchmark
+    public List<Student> enrolledStudents() {
+        return courseService.getEnrolledStudents(randomCourse());
+    }
+
+    @Benchmark
+    public List<Course> searchCourses() {
+        return courseService.searchCourses("databases");
+    }
+
+    @Benchmark
+    public List<User> searchUsers() {
+        return userService.searchUsers(usernames.get(ThreadLocalRandom.current().nextInt(usernames.size())));
+    }
+
+    private String randomStudent() {
+        return studentIds.get(ThreadLocalRandom.current().nextInt(studentIds.size()));
+    }
+
+    private String randomCourse() {
+        return courseIds.get(ThreadLocalRandom.current().nextInt(courseIds.size()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.arms.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arms.domain.Grade;
+import com.arms.persistence.DataManager;
+
+// saveGrade throughput for updates of existing grades and inserts of new ones
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SaveGradeBenchmark {
+
+    @Param({"true", "false"})
+    public boolean journal;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private DataManager dataManager;
+    private List<Grade> grades;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkData data = BenchmarkData.generate(10_000, 42);
+        directory = DataManagerFixture.open(data, journal);
+        dataManager = DataManager.getInstance();
+        grades = data.grades;
+    }
+
+    @TearDown
+    public void tearDown() {
+        DataManagerFixture.close(directory);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void update() {
+        updateRandomGrade();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void updateContended() {
+        updateRandomGrade();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void insert() {
+        Grade template = grades.get(ThreadLocalRandom.current().nextInt(grades.size()));
+        Grade grade = new Grade();
+        grade.setId("GRD-B" + nextId.incrementAndGet());
+        grade.setStudentId(template.getStudentId());
+        grade.setCourseId(template.getCourseId());
+        grade.setAssignmentId(template.getAssignmentId());
+        grade.setScore(template.getScore());
+        grade.setMaxScore(template.getMaxScore());
+        grade.calculateLetterGrade();
+        grade.setPublished(true);
+        dataManager.saveGrade(grade);
+    }
+
+    private void updateRandomGrade() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Grade grade = grades.get(random.nextInt(grades.size()));
+        grade.setScore(40 + random.nextInt(61));
+        grade.calculateLetterGrade();
+        dataManager.saveGrade(grade);
+    }
+}
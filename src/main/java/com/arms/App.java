@@ -1,6 +1,8 @@
 package com.arms;
 
 import com.arms.gui.util.NavigationHelper;
+import com.arms.gui.util.TaskScheduler;
+import com.arms.persistence.DataManager;
 import com.arms.util.Logger;
 
 import javafx.application.Application;
@@ -88,7 +90,12 @@ public class App extends Application {
     }
 
     private void cleanup() {
+        // Let running background tasks finish their saves
+        TaskScheduler.shutdown();
         // Save any pending data
+        if (!DataManager.getInstance().flush()) {
+            Logger.warn("Some pending writes could not be flushed before exit");
+        }
         // Close database connections
         // Clean up temporary files
     }
@@ -0,0 +1,29 @@
+package com.arms;
+
+import java.io.IOException;
+
+import com.arms.config.AppConfig;
+import com.arms.persistence.DataManager;
+import com.arms.server.ApiServer;
+import com.arms.util.Logger;
+
+/*
+ * Headless entry point: serves the JSON API instead of the desktop UI.
+ * Usage: ServerMain [port], default app.server.port (8080).
+ */
+public class ServerMain {
+    public static void main(String[] args) throws IOException {
+        Thread.setDefaultUncaughtExceptionHandler((thread, throwable) ->
+            Logger.error("Uncaught exception in thread: " + thread.getName(), throwable));
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : AppConfig.getIntProperty("app.server.port", 8080);
+
+        // Load the data before accepting requests
+        DataManager.getInstance();
+        ApiServer server = new ApiServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(2), "arms-api-shutdown"));
+
+        server.start();
+        System.out.println(AppConfig.getProperty("app.name") + " API listening on http://localhost:" + server.getPort() + "/api");
+    }
+}
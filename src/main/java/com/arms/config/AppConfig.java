@@ -24,27 +24,72 @@ public class AppConfig {
                 properties.setProperty("app.data.directory", "data/");
                 properties.setProperty("app.max.login.attempts", "3");
                 properties.setProperty("app.session.timeout.minutes", "30");
+                properties.setProperty("app.session.max.count", "10000");
+                properties.setProperty("app.session.lastlogin.flush.seconds", "30");
+                properties.setProperty("app.security.bcrypt.cost", "12");
+                properties.setProperty("app.security.login.client.attempts", "20");
+                properties.setProperty("app.security.login.refill.seconds", "60");
+                properties.setProperty("app.security.hash.queue.capacity", "64");
+                properties.setProperty("app.security.hash.wait.ms", "2000");
                 properties.setProperty("app.backup.enabled", "true");
                 properties.setProperty("app.backup.interval.hours", "24");
+                properties.setProperty("app.backup.keep.hourly", "24");
+                properties.setProperty("app.backup.keep.daily", "7");
+                properties.setProperty("app.backup.keep.weekly", "4");
+                properties.setProperty("app.backup.compact.after.days", "7");
                 properties.setProperty("app.log.level", "INFO");
+                properties.setProperty("app.log.overflow", "BLOCK");
+                properties.setProperty("app.log.buffer.size", "8192");
+                properties.setProperty("app.log.max.size.mb", "10");
+                properties.setProperty("app.log.rotate.hours", "24");
+                properties.setProperty("app.log.max.files", "5");
                 properties.setProperty("app.cache.enabled", "true");
                 properties.setProperty("app.cache.size", "1000");
+                properties.setProperty("app.id.node", "0");
+                properties.setProperty("app.journal.enabled", "true");
+                properties.setProperty("app.journal.segment.size.mb", "16");
+                properties.setProperty("app.journal.sync.interval.ms", "200");
+                properties.setProperty("app.journal.checkpoint.interval.seconds", "60");
+                properties.setProperty("app.snapshot.enabled", "true");
+                properties.setProperty("app.snapshot.interval.minutes", "30");
+                properties.setProperty("app.writebehind.max.delay.ms", "500");
+                properties.setProperty("app.writebehind.batch.size", "500");
+                properties.setProperty("app.writebehind.fsync", "NONE");
+                properties.setProperty("app.tasks.interactive.threads", "4");
+                properties.setProperty("app.tasks.bulk.threads", "2");
+                properties.setProperty("app.tasks.queue.capacity", "256");
+                properties.setProperty("app.ui.filter.debounce.ms", "200");
+                properties.setProperty("app.events.buffer.size", "10000");
+                properties.setProperty("app.server.port", "8080");
+                properties.setProperty("app.server.bind.address", "127.0.0.1");
+                properties.setProperty("app.server.threads", "8");
+                properties.setProperty("app.server.queue.capacity", "256");
+                properties.setProperty("app.server.page.size", "50");
+                properties.setProperty("app.server.page.max", "500");
             }
         } catch (IOException e) {
             System.err.println("Failed to load configuration: " + e.getMessage());
         }
     }
     
+    // JVM system properties (-Dapp.data.directory=...) override the file
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        String value = System.getProperty(key);
+        return value != null ? value : properties.getProperty(key);
     }
     
     public static String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        String value = getProperty(key);
+        return value != null ? value : defaultValue;
+    }
+    
+    public static String getDataDirectory() {
+        String directory = getProperty("app.data.directory", "data/");
+        return directory.endsWith("/") ? directory : directory + "/";
     }
     
     public static int getIntProperty(String key, int defaultValue) {
-        String value = properties.getProperty(key);
+        String value = getProperty(key);
         if (value != null) {
             try {
                 return Integer.parseInt(value);
@@ -56,7 +101,7 @@ public class AppConfig {
     }
     
     public static boolean getBooleanProperty(String key, boolean defaultValue) {
-        String value = properties.getProperty(key);
+        String value = getProperty(key);
         if (value != null) {
             return Boolean.parseBoolean(value);
         }
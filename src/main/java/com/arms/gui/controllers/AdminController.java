@@ -1,8 +1,17 @@
 package com.arms.gui.controllers;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -11,6 +20,7 @@ import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 import org.controlsfx.control.GridView;
@@ -27,10 +37,19 @@ import com.arms.gui.dialogs.AddUserDialog;
 import com.arms.gui.dialogs.EditCourseDialog;
 import com.arms.gui.dialogs.EditUserDialog;
 import com.arms.gui.util.AlertHelper;
+import com.arms.gui.util.FilterPipeline;
+import com.arms.gui.util.FxChangeSubscriber;
 import com.arms.gui.util.NavigationHelper;
+import com.arms.gui.util.TaskScheduler;
+import com.arms.persistence.BackupStore;
+import com.arms.persistence.ChangeEvent;
 import com.arms.persistence.DataManager;
+import com.arms.persistence.PointInTimeRestore;
 import com.arms.service.CourseService;
 import com.arms.service.UserService;
+import com.arms.util.Constants;
+import com.arms.util.CsvExporter;
+import com.arms.util.FileUtils;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
@@ -38,6 +57,7 @@ import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -48,6 +68,7 @@ import javafx.scene.chart.PieChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.ColorPicker;
@@ -76,6 +97,9 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
 import javafx.util.Duration;
 
 public class AdminController extends DashboardController {
@@ -133,6 +157,7 @@ public class AdminController extends DashboardController {
     @FXML private Label totalRecordsLabel;
     @FXML private Label systemUptimeLabel;
     @FXML private Button backupButton;
+    @FXML private Button restoreButton;
     @FXML private Button clearLogsButton;
     @FXML private Button exportDataButton;
     @FXML private Button systemCheckButton;
@@ -174,6 +199,13 @@ public class AdminController extends DashboardController {
     private final ObservableList<User> selectedUsers = FXCollections.observableArrayList();
     private final ObservableList<Course> selectedCourses = FXCollections.observableArrayList();
     
+    // Debounced background filters; the user and course grids and tables show their items
+    private FilterPipeline<User, UserFilter> userFilter;
+    private FilterPipeline<Course, CourseFilter> courseFilter;
+    
+    // Keeps allUsers/allCourses in step with saves and deletes
+    private FxChangeSubscriber changeSubscriber;
+    
     // Selection Tracking
     private User selectedUser;
     private Course selectedCourse;
@@ -184,6 +216,7 @@ public class AdminController extends DashboardController {
     // Formatters
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final DateTimeFormatter backupFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+    private final DateTimeFormatter exportFormatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
     
     // System monitoring
     private Timeline clock;
@@ -197,8 +230,10 @@ public class AdminController extends DashboardController {
         if (currentUser instanceof Admin) {
             admin = (Admin) currentUser;
             systemStartTime = LocalDateTime.now();
+            setupFilters();
             initializeAdminUI();
             loadAdminData();
+            changeSubscriber = FxChangeSubscriber.subscribe(this::onDataChanged);
             setupEventHandlers();
             startSystemMonitoring();
         } else {
@@ -827,40 +862,55 @@ public class AdminController extends DashboardController {
             autoBackupCheck.setSelected(true);
         }
         
-        if (lastBackupLabel != null) {
-            lastBackupLabel.setText("Last Backup: " + LocalDateTime.now().minusHours(2).format(backupFormatter));
+        updateLastBackupLabel();
+    }
+
+    private void updateLastBackupLabel() {
+        if (lastBackupLabel == null) {
+            return;
         }
+        try {
+            List<String> backups = dataManager.getBackupStore().listBackups();
+            lastBackupLabel.setText(backups.isEmpty() ? "Last Backup: never"
+                    : "Last Backup: " + formatBackupTime(BackupStore.createdAtOf(backups.get(backups.size() - 1))));
+        } catch (IOException e) {
+            lastBackupLabel.setText("Last Backup: unknown");
+        }
+    }
+
+    private String formatBackupTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).format(backupFormatter);
     }
     
     private void setupEventHandlers() {
         // User search and filters
         if (userSearchField != null) {
-            userSearchField.textProperty().addListener((obs, oldVal, newVal) -> filterUsers());
+            userSearchField.textProperty().addListener((obs, oldVal, newVal) -> userFilter.refresh());
         }
         
         if (userRoleFilter != null) {
-            userRoleFilter.valueProperty().addListener((obs, oldVal, newVal) -> filterUsers());
+            userRoleFilter.valueProperty().addListener((obs, oldVal, newVal) -> userFilter.refresh());
         }
         
         if (userStatusFilter != null) {
-            userStatusFilter.valueProperty().addListener((obs, oldVal, newVal) -> filterUsers());
+            userStatusFilter.valueProperty().addListener((obs, oldVal, newVal) -> userFilter.refresh());
         }
         
         // Course search and filters
         if (courseSearchField != null) {
-            courseSearchField.textProperty().addListener((obs, oldVal, newVal) -> filterCourses());
+            courseSearchField.textProperty().addListener((obs, oldVal, newVal) -> courseFilter.refresh());
         }
         
         if (courseDepartmentFilter != null) {
-            courseDepartmentFilter.valueProperty().addListener((obs, oldVal, newVal) -> filterCourses());
+            courseDepartmentFilter.valueProperty().addListener((obs, oldVal, newVal) -> courseFilter.refresh());
         }
         
         if (courseSemesterFilter != null) {
-            courseSemesterFilter.valueProperty().addListener((obs, oldVal, newVal) -> filterCourses());
+            courseSemesterFilter.valueProperty().addListener((obs, oldVal, newVal) -> courseFilter.refresh());
         }
         
         if (activeCoursesOnly != null) {
-            activeCoursesOnly.selectedProperty().addListener((obs, oldVal, newVal) -> filterCourses());
+            activeCoursesOnly.selectedProperty().addListener((obs, oldVal, newVal) -> courseFilter.refresh());
         }
         
         // Button handlers
@@ -881,6 +931,7 @@ public class AdminController extends DashboardController {
         if (exportCoursesButton != null) exportCoursesButton.setOnAction(e -> handleExportCourses());
         
         if (backupButton != null) backupButton.setOnAction(e -> handleBackupData());
+        if (restoreButton != null) restoreButton.setOnAction(e -> handleRestoreData());
         if (clearLogsButton != null) clearLogsButton.setOnAction(e -> handleClearLogs());
         if (exportDataButton != null) exportDataButton.setOnAction(e -> handleExportData());
         if (systemCheckButton != null) systemCheckButton.setOnAction(e -> handleSystemCheck());
@@ -953,54 +1004,27 @@ public class AdminController extends DashboardController {
                 allCourses.setAll(courses);
                 
                 // Update grids
-                if (recentUsersGrid != null) {
-                    List<User> recentUsers = users.stream()
-                        .sorted((u1, u2) -> u2.getCreatedAt().compareTo(u1.getCreatedAt()))
-                        .limit(8)
-                        .collect(Collectors.toList());
-                    recentUsersGrid.setItems(FXCollections.observableArrayList(recentUsers));
-                }
-                
                 if (usersGrid != null) {
-                    usersGrid.setItems(allUsers);
+                    usersGrid.setItems(userFilter.getItems());
                 }
                 
                 if (usersTable != null) {
-                    usersTable.setItems(allUsers);
-                }
-                
-                if (recentCoursesGrid != null) {
-                    List<Course> recentCourses = courses.stream()
-                        .limit(6)
-                        .collect(Collectors.toList());
-                    recentCoursesGrid.setItems(FXCollections.observableArrayList(recentCourses));
+                    usersTable.setItems(userFilter.getItems());
                 }
                 
                 if (coursesGrid != null) {
-                    coursesGrid.setItems(allCourses);
+                    coursesGrid.setItems(courseFilter.getItems());
                 }
                 
                 if (coursesTable != null) {
-                    coursesTable.setItems(allCourses);
-                }
-                
-                // Update counts
-                if (usersCountLabel != null) {
-                    usersCountLabel.setText("Total Users: " + users.size());
-                }
-                
-                if (coursesCountLabel != null) {
-                    coursesCountLabel.setText("Total Courses: " + courses.size());
+                    coursesTable.setItems(courseFilter.getItems());
                 }
                 
                 // Load logs
                 loadSystemLogs();
                 
-                // Update statistics
-                updateStatistics();
-                
-                // Update charts
-                updateCharts();
+                // Recent items, counts, statistics and charts
+                updateSummaries();
                 
                 // Add log entry
                 addLog("[INFO] Admin data loaded successfully");
@@ -1014,6 +1038,51 @@ public class AdminController extends DashboardController {
         });
     }
     
+    private void updateSummaries() {
+        if (recentUsersGrid != null) {
+            List<User> recentUsers = allUsers.stream()
+                .sorted((u1, u2) -> u2.getCreatedAt().compareTo(u1.getCreatedAt()))
+                .limit(8)
+                .collect(Collectors.toList());
+            recentUsersGrid.setItems(FXCollections.observableArrayList(recentUsers));
+        }
+        
+        if (recentCoursesGrid != null) {
+            List<Course> recentCourses = allCourses.stream()
+                .limit(6)
+                .collect(Collectors.toList());
+            recentCoursesGrid.setItems(FXCollections.observableArrayList(recentCourses));
+        }
+        
+        // Update counts
+        if (usersCountLabel != null) {
+            usersCountLabel.setText("Total Users: " + allUsers.size());
+        }
+        
+        if (coursesCountLabel != null) {
+            coursesCountLabel.setText("Total Courses: " + allCourses.size());
+        }
+        
+        // Update statistics
+        updateStatistics();
+        
+        // Update charts
+        updateCharts();
+    }
+    
+    // Patches the user and course lists with saved/deleted entities instead of reloading
+    private void onDataChanged(List<ChangeEvent> events) {
+        if (events.stream().anyMatch(ChangeEvent::isReset)) {
+            loadAdminData();
+            return;
+        }
+        boolean usersChanged = FxChangeSubscriber.patch(allUsers, events, ChangeEvent.USERS, User.class);
+        boolean coursesChanged = FxChangeSubscriber.patch(allCourses, events, ChangeEvent.COURSES, Course.class);
+        if (usersChanged || coursesChanged) {
+            updateSummaries();
+        }
+    }
+    
     private void loadSystemLogs() {
         try {
             // Create some sample logs
@@ -1123,89 +1192,86 @@ public class AdminController extends DashboardController {
         }
     }
     
-    private void filterUsers() {
-        if (usersGrid == null) return;
+    private record UserFilter(String searchText, UserRole role, UserStatus status) {
+    }
+    
+    private record CourseFilter(String searchText, String department, String semester, boolean activeOnly) {
+    }
+    
+    private void setupFilters() {
+        userFilter = new FilterPipeline<>("admin.filter.users", allUsers,
+                () -> new UserFilter(
+                        userSearchField != null ? userSearchField.getText().trim() : "",
+                        userRoleFilter != null ? userRoleFilter.getValue() : null,
+                        userStatusFilter != null ? userStatusFilter.getValue() : null),
+                this::filterUsers);
+        userFilter.setOnApplied(this::clearUserSelection);
+        if (usersTable != null) {
+            userFilter.bindSortOrder(usersTable.comparatorProperty());
+        }
         
-        String searchText = userSearchField != null ? userSearchField.getText().toLowerCase() : "";
-        UserRole roleFilter = userRoleFilter != null ? userRoleFilter.getValue() : null;
-        UserStatus statusFilter = userStatusFilter != null ? userStatusFilter.getValue() : null;
+        courseFilter = new FilterPipeline<>("admin.filter.courses", allCourses,
+                () -> new CourseFilter(
+                        courseSearchField != null ? courseSearchField.getText().trim() : "",
+                        courseDepartmentFilter != null ? courseDepartmentFilter.getValue() : "All Departments",
+                        courseSemesterFilter != null ? courseSemesterFilter.getValue() : "All Semesters",
+                        activeCoursesOnly != null && activeCoursesOnly.isSelected()),
+                this::filterCourses);
+        courseFilter.setOnApplied(this::clearCourseSelection);
+        if (coursesTable != null) {
+            courseFilter.bindSortOrder(coursesTable.comparatorProperty());
+        }
+    }
+    
+    // Runs on a background worker; returns the matching users, best match first
+    private List<User> filterUsers(UserFilter filter, List<User> users) {
+        // Search filter, answered by the text index in rank order
+        List<User> candidates = filter.searchText().isEmpty() ? users : userService.searchUsers(filter.searchText());
         
-        List<User> filtered = allUsers.stream()
+        return candidates.stream()
             .filter(user -> {
-                // Search filter
-                if (!searchText.isEmpty()) {
-                    boolean matches = (user.getUsername() != null && user.getUsername().toLowerCase().contains(searchText)) ||
-                                     (user.getFirstName() != null && user.getFirstName().toLowerCase().contains(searchText)) ||
-                                     (user.getLastName() != null && user.getLastName().toLowerCase().contains(searchText)) ||
-                                     (user.getEmail() != null && user.getEmail().toLowerCase().contains(searchText));
-                    if (!matches) return false;
-                }
-                
                 // Role filter
-                if (roleFilter != null && user.getRole() != roleFilter) {
+                if (filter.role() != null && user.getRole() != filter.role()) {
                     return false;
                 }
                 
                 // Status filter
-                if (statusFilter != null && user.getStatus() != statusFilter) {
+                if (filter.status() != null && user.getStatus() != filter.status()) {
                     return false;
                 }
                 
                 return true;
             })
             .collect(Collectors.toList());
-        
-        usersGrid.setItems(FXCollections.observableArrayList(filtered));
-        if (usersTable != null) {
-            usersTable.setItems(FXCollections.observableArrayList(filtered));
-        }
-        clearUserSelection();
     }
     
-    private void filterCourses() {
-        if (coursesGrid == null) return;
-        
-        String searchText = courseSearchField != null ? courseSearchField.getText().toLowerCase() : "";
-        String deptFilter = courseDepartmentFilter != null ? courseDepartmentFilter.getValue() : "All Departments";
-        String semesterFilter = courseSemesterFilter != null ? courseSemesterFilter.getValue() : "All Semesters";
-        boolean activeOnly = activeCoursesOnly != null && activeCoursesOnly.isSelected();
+    // Runs on a background worker; returns the matching courses, best match first
+    private List<Course> filterCourses(CourseFilter filter, List<Course> courses) {
+        // Search filter, answered by the text index in rank order
+        List<Course> candidates = filter.searchText().isEmpty() ? courses : courseService.searchCourses(filter.searchText());
         
-        List<Course> filtered = allCourses.stream()
+        return candidates.stream()
             .filter(course -> {
-                // Search filter
-                if (!searchText.isEmpty()) {
-                    boolean matches = (course.getCourseCode() != null && course.getCourseCode().toLowerCase().contains(searchText)) ||
-                                     (course.getTitle() != null && course.getTitle().toLowerCase().contains(searchText)) ||
-                                     (course.getDescription() != null && course.getDescription().toLowerCase().contains(searchText));
-                    if (!matches) return false;
-                }
-                
                 // Department filter
-                if (!"All Departments".equals(deptFilter) && 
-                    (course.getDepartment() == null || !deptFilter.equals(course.getDepartment()))) {
+                if (!"All Departments".equals(filter.department()) && 
+                    (course.getDepartment() == null || !filter.department().equals(course.getDepartment()))) {
                     return false;
                 }
                 
                 // Semester filter
-                if (!"All Semesters".equals(semesterFilter) && 
-                    (course.getSemester() == null || !semesterFilter.equals(course.getSemester()))) {
+                if (!"All Semesters".equals(filter.semester()) && 
+                    (course.getSemester() == null || !filter.semester().equals(course.getSemester()))) {
                     return false;
                 }
                 
                 // Active only filter
-                if (activeOnly && !course.isActive()) {
+                if (filter.activeOnly() && !course.isActive()) {
                     return false;
                 }
                 
                 return true;
             })
             .collect(Collectors.toList());
-        
-        coursesGrid.setItems(FXCollections.observableArrayList(filtered));
-        if (coursesTable != null) {
-            coursesTable.setItems(FXCollections.observableArrayList(filtered));
-        }
-        clearCourseSelection();
     }
     
     // ==================== COMPLETE ACTION HANDLERS ====================
@@ -1217,6 +1283,7 @@ public class AdminController extends DashboardController {
         if (confirm) {
             if (clock != null) clock.stop();
             if (systemMonitorTimer != null) systemMonitorTimer.cancel();
+            if (changeSubscriber != null) changeSubscriber.cancel();
             addLog("[INFO] Admin logged out");
             NavigationHelper.navigateToLogin();
         }
@@ -1239,7 +1306,6 @@ public class AdminController extends DashboardController {
                 if (createdUser.isPresent()) {
                     AlertHelper.showSuccess("Success", "User created successfully!");
                     addLog("[INFO] Created user: " + user.getUsername());
-                    loadAdminData();
                 } else {
                     AlertHelper.showError("Error", "Failed to create user. Username may already exist.");
                 }
@@ -1265,7 +1331,6 @@ public class AdminController extends DashboardController {
                 if (success) {
                     AlertHelper.showSuccess("Success", "User updated successfully!");
                     addLog("[INFO] Updated user: " + selectedUser.getUsername());
-                    loadAdminData();
                 } else {
                     AlertHelper.showError("Error", "Failed to update user.");
                 }
@@ -1278,8 +1343,7 @@ public class AdminController extends DashboardController {
     
     private boolean updateUserInDataManager(User user) {
         try {
-            dataManager.saveUser(user);
-            return true;
+            return dataManager.saveUser(user);
         } catch (Exception e) {
             e.printStackTrace();
             return false;
@@ -1324,7 +1388,6 @@ public class AdminController extends DashboardController {
                 AlertHelper.showWarning("Partial Success", "Deleted " + successCount + " of " + usersToDelete.size() + " user(s).");
             }
             
-            loadAdminData();
             clearUserSelection();
         }
     }
@@ -1359,7 +1422,6 @@ public class AdminController extends DashboardController {
         if (successCount > 0) {
             AlertHelper.showSuccess("Success", "Activated " + successCount + " user(s)!");
             addLog("[INFO] Activated " + successCount + " user(s)");
-            loadAdminData();
         } else {
             AlertHelper.showError("Error", "Failed to activate users.");
         }
@@ -1391,7 +1453,6 @@ public class AdminController extends DashboardController {
         if (successCount > 0) {
             AlertHelper.showSuccess("Success", "Deactivated " + successCount + " user(s)!");
             addLog("[INFO] Deactivated " + successCount + " user(s)");
-            loadAdminData();
         } else {
             AlertHelper.showError("Error", "Failed to deactivate users.");
         }
@@ -1422,40 +1483,12 @@ public class AdminController extends DashboardController {
     
     @FXML
     private void handleExportUsers() {
-        try {
-            // Create CSV content
-            StringBuilder csv = new StringBuilder();
-            csv.append("ID,Username,First Name,Last Name,Email,Role,Status,Created Date\n");
-            
-            for (User user : allUsers) {
-                csv.append(user.getId()).append(",")
-                   .append(user.getUsername()).append(",")
-                   .append(user.getFirstName()).append(",")
-                   .append(user.getLastName()).append(",")
-                   .append(user.getEmail()).append(",")
-                   .append(user.getRole()).append(",")
-                   .append(user.getStatus()).append(",")
-                   .append(user.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
-                   .append("\n");
-            }
-            
-            // Show in dialog
-            TextArea textArea = new TextArea(csv.toString());
-            textArea.setEditable(false);
-            textArea.setStyle("-fx-font-family: 'Monospaced';");
-            
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Export Users");
-            alert.setHeaderText("Users Data (CSV Format)");
-            alert.getDialogPane().setContent(textArea);
-            alert.getDialogPane().setPrefSize(800, 600);
-            alert.showAndWait();
-            
-            addLog("[INFO] Exported users data");
-        } catch (Exception e) {
-            e.printStackTrace();
-            AlertHelper.showError("Export Failed", "Failed to export users: " + e.getMessage());
+        Path target = chooseExportFile("Export Users", "users");
+        if (target == null) {
+            return;
         }
+        runExport("Export Users", target, (cancelled, listener) ->
+                CsvExporter.users().export(dataManager.getUsers().values(), target, cancelled, listener));
     }
     
     @FXML
@@ -1513,30 +1546,13 @@ public class AdminController extends DashboardController {
             return;
         }
         
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,Username,Name,Email,Role,Status\n");
-        
-        for (User user : selectedUsers) {
-            csv.append(user.getId()).append(",")
-               .append(user.getUsername()).append(",")
-               .append(user.getFullName()).append(",")
-               .append(user.getEmail()).append(",")
-               .append(user.getRole()).append(",")
-               .append(user.getStatus()).append("\n");
+        Path target = chooseExportFile("Export Selected Users", "users_selected");
+        if (target == null) {
+            return;
         }
-        
-        TextArea textArea = new TextArea(csv.toString());
-        textArea.setEditable(false);
-        textArea.setStyle("-fx-font-family: 'Monospaced';");
-        
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Export Selected Users");
-        alert.setHeaderText("Selected Users Data (" + selectedUsers.size() + " users)");
-        alert.getDialogPane().setContent(textArea);
-        alert.getDialogPane().setPrefSize(600, 400);
-        alert.showAndWait();
-        
-        addLog("[INFO] Exported " + selectedUsers.size() + " selected users");
+        List<User> users = new ArrayList<>(selectedUsers);
+        runExport("Export Selected Users", target, (cancelled, listener) ->
+                CsvExporter.users().export(users, target, cancelled, listener));
     }
     
     private void viewUserDetails(User user) {
@@ -1564,7 +1580,6 @@ public class AdminController extends DashboardController {
                 if (createdCourse.isPresent()) {
                     AlertHelper.showSuccess("Success", "Course created successfully!");
                     addLog("[INFO] Created course: " + course.getCourseCode());
-                    loadAdminData();
                 } else {
                     AlertHelper.showError("Error", "Failed to create course.");
                 }
@@ -1590,7 +1605,6 @@ public class AdminController extends DashboardController {
                 if (success) {
                     AlertHelper.showSuccess("Success", "Course updated successfully!");
                     addLog("[INFO] Updated course: " + selectedCourse.getCourseCode());
-                    loadAdminData();
                 } else {
                     AlertHelper.showError("Error", "Failed to update course.");
                 }
@@ -1644,7 +1658,6 @@ public class AdminController extends DashboardController {
                 AlertHelper.showWarning("Partial Success", "Deleted " + successCount + " of " + coursesToDelete.size() + " course(s).");
             }
             
-            loadAdminData();
             clearCourseSelection();
         }
     }
@@ -1701,7 +1714,6 @@ private void handleAssignTeacher() {
                 AlertHelper.showSuccess("Success", 
                     "Assigned " + teacher.getFullName() + " to " + selectedCourse.getCourseCode());
                 addLog("[INFO] Assigned teacher " + teacher.getUsername() + " to course " + selectedCourse.getCourseCode());
-                loadAdminData();
             }
         }
     });
@@ -1709,45 +1721,12 @@ private void handleAssignTeacher() {
     
     @FXML
     private void handleExportCourses() {
-        try {
-            StringBuilder csv = new StringBuilder();
-            csv.append("Code,Title,Department,Semester,Credits,Enrollment,Status,Instructor\n");
-            
-            for (Course course : allCourses) {
-                String instructorName = "Not Assigned";
-                if (course.getTeacherId() != null) {
-                    User instructor = dataManager.findUserByUsername(course.getTeacherId()).orElse(null);
-                    if (instructor != null) {
-                        instructorName = instructor.getFullName();
-                    }
-                }
-                
-                csv.append(course.getCourseCode()).append(",")
-                   .append(course.getTitle()).append(",")
-                   .append(course.getDepartment()).append(",")
-                   .append(course.getSemester()).append(",")
-                   .append(course.getCredits()).append(",")
-                   .append(course.getCurrentEnrollment()).append(",")
-                   .append(course.isActive() ? "Active" : "Inactive").append(",")
-                   .append(instructorName).append("\n");
-            }
-            
-            TextArea textArea = new TextArea(csv.toString());
-            textArea.setEditable(false);
-            textArea.setStyle("-fx-font-family: 'Monospaced';");
-            
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Export Courses");
-            alert.setHeaderText("Courses Data (CSV Format)");
-            alert.getDialogPane().setContent(textArea);
-            alert.getDialogPane().setPrefSize(800, 600);
-            alert.showAndWait();
-            
-            addLog("[INFO] Exported courses data");
-        } catch (Exception e) {
-            e.printStackTrace();
-            AlertHelper.showError("Export Failed", "Failed to export courses: " + e.getMessage());
+        Path target = chooseExportFile("Export Courses", "courses");
+        if (target == null) {
+            return;
         }
+        runExport("Export Courses", target, (cancelled, listener) ->
+                CsvExporter.courses(dataManager).export(dataManager.getCourses().values(), target, cancelled, listener));
     }
     
     private void viewCourseDetails(Course course) {
@@ -1768,25 +1747,124 @@ private void handleAssignTeacher() {
     @FXML
     private void handleBackupData() {
         if (backupProgressBar != null) {
-            backupProgressBar.setProgress(0);
+            backupProgressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
         }
-        
-        Timeline backupTimeline = new Timeline(
-            new KeyFrame(Duration.ZERO, e -> backupProgressBar.setProgress(0)),
-            new KeyFrame(Duration.seconds(1), e -> backupProgressBar.setProgress(0.25)),
-            new KeyFrame(Duration.seconds(2), e -> backupProgressBar.setProgress(0.5)),
-            new KeyFrame(Duration.seconds(3), e -> backupProgressBar.setProgress(0.75)),
-            new KeyFrame(Duration.seconds(4), e -> {
+
+        Task<BackupStore.Manifest> backupTask = new Task<>() {
+            @Override
+            protected BackupStore.Manifest call() throws Exception {
+                return dataManager.backupNow();
+            }
+        };
+
+        backupTask.setOnSucceeded(e -> {
+            BackupStore.Manifest manifest = backupTask.getValue();
+            if (backupProgressBar != null) {
                 backupProgressBar.setProgress(1.0);
-                AlertHelper.showSuccess("Backup Complete", "System backup created successfully!");
-                if (lastBackupLabel != null) {
-                    lastBackupLabel.setText("Last Backup: " + LocalDateTime.now().format(backupFormatter));
-                }
-                addLog("[INFO] System backup created successfully");
-            })
-        );
-        
-        backupTimeline.play();
+            }
+            if (lastBackupLabel != null) {
+                lastBackupLabel.setText("Last Backup: " + formatBackupTime(manifest.getCreatedAt()));
+            }
+            AlertHelper.showSuccess("Backup Complete", "System backup created successfully!\n"
+                    + manifest.getFiles().size() + " files, " + manifest.getBlobsWritten() + " new since the last backup.");
+            addLog("[INFO] System backup " + manifest.getId() + " created (" + manifest.getBytesWritten()
+                    + " bytes written)");
+        });
+
+        backupTask.setOnFailed(e -> {
+            if (backupProgressBar != null) {
+                backupProgressBar.setProgress(0);
+            }
+            AlertHelper.showError("Backup Failed", "Failed to create backup: " + backupTask.getException().getMessage());
+            addLog("[ERROR] System backup failed");
+        });
+
+        TaskScheduler.submit(TaskScheduler.Priority.BULK, backupTask);
+    }
+
+    @FXML
+    private void handleRestoreData() {
+        TextInputDialog dialog = new TextInputDialog(LocalDateTime.now().minusHours(1).format(dateFormatter));
+        dialog.setTitle("Restore Data");
+        dialog.setHeaderText("Restore all data to its state at a point in time");
+        dialog.setContentText("Time (yyyy-MM-dd HH:mm:ss):");
+
+        Optional<String> input = dialog.showAndWait();
+        if (input.isEmpty()) {
+            return;
+        }
+        long timestamp;
+        try {
+            timestamp = LocalDateTime.parse(input.get().trim(), dateFormatter)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            AlertHelper.showError("Invalid Time", "Enter the time as yyyy-MM-dd HH:mm:ss.");
+            return;
+        }
+
+        boolean confirm = AlertHelper.showConfirmation("Restore Data",
+            "All users, courses, assignments, grades and enrollments will be restored to "
+            + input.get().trim() + ".\nChanges made since then will be undone; the current state is backed up first.");
+        if (!confirm) {
+            return;
+        }
+
+        Task<PointInTimeRestore.Result> restoreTask = new Task<>() {
+            @Override
+            protected PointInTimeRestore.Result call() throws Exception {
+                return dataManager.restoreToPointInTime(timestamp, (stage, done, total) -> {
+                    updateMessage(stage);
+                    updateProgress(done, total);
+                });
+            }
+        };
+
+        if (backupProgressBar != null) {
+            backupProgressBar.progressProperty().bind(restoreTask.progressProperty());
+        }
+        if (lastBackupLabel != null) {
+            lastBackupLabel.textProperty().bind(restoreTask.messageProperty());
+        }
+        if (restoreButton != null) {
+            restoreButton.setDisable(true);
+        }
+
+        restoreTask.setOnSucceeded(e -> {
+            finishRestore();
+            PointInTimeRestore.Result result = restoreTask.getValue();
+            String summary = "Restored from backup " + formatBackupTime(BackupStore.createdAtOf(result.getBackupId()))
+                    + " and " + result.getRecordsReplayed() + " later changes.\n"
+                    + result.getSaved() + " records restored, " + result.getDeleted() + " removed.";
+            if (result.hasGap()) {
+                AlertHelper.showWarning("Restore Incomplete", summary
+                        + "\nSome changes after the backup were no longer available and could not be replayed.");
+            } else {
+                AlertHelper.showSuccess("Restore Complete", summary);
+            }
+            addLog("[INFO] Data restored to " + input.get().trim());
+        });
+
+        restoreTask.setOnFailed(e -> {
+            finishRestore();
+            AlertHelper.showError("Restore Failed", "Failed to restore data: " + restoreTask.getException().getMessage());
+            addLog("[ERROR] Restore to " + input.get().trim() + " failed");
+        });
+
+        TaskScheduler.submit(TaskScheduler.Priority.BULK, restoreTask);
+    }
+
+    private void finishRestore() {
+        if (backupProgressBar != null) {
+            backupProgressBar.progressProperty().unbind();
+            backupProgressBar.setProgress(0);
+        }
+        if (lastBackupLabel != null) {
+            lastBackupLabel.textProperty().unbind();
+        }
+        if (restoreButton != null) {
+            restoreButton.setDisable(false);
+        }
+        updateLastBackupLabel();
     }
     
     @FXML
@@ -1806,41 +1884,133 @@ private void handleAssignTeacher() {
     
     @FXML
     private void handleExportData() {
-        StringBuilder report = new StringBuilder();
-        report.append("=== FULL SYSTEM EXPORT ===\n");
-        report.append("Export Date: ").append(LocalDateTime.now().format(dateFormatter)).append("\n");
-        report.append("Exported By: ").append(admin.getFullName()).append("\n\n");
-        
-        report.append("SUMMARY:\n");
-        report.append("• Users: ").append(allUsers.size()).append(" records\n");
-        report.append("• Courses: ").append(allCourses.size()).append(" records\n");
-        report.append("• Assignments: ").append(dataManager.getAssignments().size()).append(" records\n");
-        report.append("• Enrollments: ").append(dataManager.getEnrollments().size()).append(" records\n");
-        report.append("• Grades: ").append(dataManager.getGrades().size()).append(" records\n\n");
-        
-        report.append("EXPORT LOCATION:\n");
-        report.append("data/exports/export_" + System.currentTimeMillis() + ".zip\n\n");
-        
-        report.append("Files included:\n");
-        report.append("1. users.csv - All user data\n");
-        report.append("2. courses.csv - All course data\n");
-        report.append("3. enrollments.csv - All enrollment records\n");
-        report.append("4. assignments.csv - All assignment data\n");
-        report.append("5. grades.csv - All grade records\n");
-        report.append("6. system_logs.txt - System activity logs\n");
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Export System Data");
+        chooser.setInitialDirectory(exportDirectory().toFile());
+        File directory = chooser.showDialog(ownerWindow());
+        if (directory == null) {
+            return;
+        }
+        boolean gzip = AlertHelper.showConfirmation("Export System Data",
+            "Compress the exported files with gzip (.csv.gz)?\nUncompressed files open directly in Excel.");
+        String suffix = gzip ? ".csv.gz" : ".csv";
+        Path folder = directory.toPath().resolve("export_" + LocalDateTime.now().format(exportFormatter));
+        // Files are written to a staging folder renamed at the end, so a cancelled or
+        // failed export leaves no half-filled export folder behind
+        Path staging = folder.resolveSibling(folder.getFileName() + ".part");
+
+        runExport("Export System Data", folder, (cancelled, listener) -> {
+            try {
+                long rows = exportAll(staging, suffix, cancelled, listener);
+                Files.move(staging, folder);
+                return rows;
+            } catch (IOException | RuntimeException e) {
+                if (Files.exists(staging)) {
+                    FileUtils.deleteDirectory(staging.toString());
+                }
+                throw e;
+            }
+        });
+    }
+
+    private long exportAll(Path folder, String suffix, BooleanSupplier cancelled,
+            CsvExporter.ProgressListener listener) throws IOException {
+        long total = dataManager.getUsers().size() + dataManager.getCourses().size()
+                + dataManager.getAssignments().size() + dataManager.getEnrollments().size()
+                + dataManager.getGrades().size();
+        long[] done = {0};
+        CsvExporter.ProgressListener overall = (rows, fileTotal) ->
+                listener.onProgress(done[0] + rows, Math.max(total, done[0] + rows));
+        done[0] += CsvExporter.users().export(dataManager.getUsers().values(),
+                folder.resolve("users" + suffix), cancelled, overall);
+        done[0] += CsvExporter.courses(dataManager).export(dataManager.getCourses().values(),
+                folder.resolve("courses" + suffix), cancelled, overall);
+        done[0] += CsvExporter.assignments().export(dataManager.getAssignments().values(),
+                folder.resolve("assignments" + suffix), cancelled, overall);
+        done[0] += CsvExporter.enrollments().export(dataManager.getEnrollments().values(),
+                folder.resolve("enrollments" + suffix), cancelled, overall);
+        done[0] += CsvExporter.grades(dataManager).export(dataManager.getGrades().values(),
+                folder.resolve("grades" + suffix), cancelled, overall);
+        return done[0];
+    }
+    
+    private interface ExportJob {
+        long run(BooleanSupplier cancelled, CsvExporter.ProgressListener listener) throws IOException;
+    }
+    
+    // Runs an export on the bulk pool behind a progress dialog whose Cancel button
+    // stops it; a cancelled or failed export leaves no partial file
+    private void runExport(String title, Path target, ExportJob job) {
+        Task<Long> exportTask = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                return job.run(this::isCancelled, (rows, total) -> {
+                    updateProgress(rows, total);
+                    updateMessage(String.format("%,d of %,d rows", rows, total));
+                });
+            }
+        };
+        
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(320);
+        progressBar.progressProperty().bind(exportTask.progressProperty());
+        Label progressLabel = new Label();
+        progressLabel.textProperty().bind(exportTask.messageProperty());
+        VBox content = new VBox(10, new Label("Writing " + target.getFileName()), progressBar, progressLabel);
+        content.setPadding(new Insets(10));
+        
+        Alert progressDialog = new Alert(Alert.AlertType.NONE, null, ButtonType.CANCEL);
+        progressDialog.setTitle(title);
+        progressDialog.getDialogPane().setContent(content);
+        progressDialog.setOnHidden(e -> exportTask.cancel());
+        
+        exportTask.setOnSucceeded(e -> {
+            progressDialog.close();
+            AlertHelper.showSuccess(title, String.format("Exported %,d rows to%n%s", exportTask.getValue(),
+                    target.toAbsolutePath()));
+            addLog("[INFO] Exported " + exportTask.getValue() + " rows to " + target);
+        });
         
-        TextArea textArea = new TextArea(report.toString());
-        textArea.setEditable(false);
-        textArea.setStyle("-fx-font-family: 'Monospaced';");
+        exportTask.setOnCancelled(e -> {
+            progressDialog.close();
+            addLog("[INFO] Export to " + target + " cancelled");
+        });
         
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Export System Data");
-        alert.setHeaderText("System Data Export Ready");
-        alert.getDialogPane().setContent(textArea);
-        alert.getDialogPane().setPrefSize(600, 400);
-        alert.showAndWait();
+        exportTask.setOnFailed(e -> {
+            progressDialog.close();
+            AlertHelper.showError(title, "Export failed: " + exportTask.getException().getMessage());
+            addLog("[ERROR] Export to " + target + " failed");
+        });
         
-        addLog("[INFO] Full system export generated");
+        progressDialog.show();
+        TaskScheduler.submit(TaskScheduler.Priority.BULK, exportTask);
+    }
+    
+    // Asks where to save a CSV export; a name ending in .gz is gzipped
+    private Path chooseExportFile(String title, String baseName) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.setInitialDirectory(exportDirectory().toFile());
+        chooser.setInitialFileName(baseName + "_" + LocalDateTime.now().format(exportFormatter) + ".csv");
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV (Excel)", "*.csv"),
+            new FileChooser.ExtensionFilter("Gzipped CSV", "*.csv.gz"));
+        File file = chooser.showSaveDialog(ownerWindow());
+        return file == null ? null : file.toPath();
+    }
+    
+    private Path exportDirectory() {
+        Path directory = Paths.get(Constants.EXPORT_DIRECTORY).toAbsolutePath();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            return Paths.get("").toAbsolutePath();
+        }
+        return directory;
+    }
+    
+    private Window ownerWindow() {
+        return mainTabPane != null && mainTabPane.getScene() != null ? mainTabPane.getScene().getWindow() : null;
     }
     
     @FXML
@@ -2087,12 +2257,22 @@ private void handleAssignTeacher() {
             return;
         }
         
-        AlertHelper.showInfo("Export Report", 
-            "Report exported successfully!\n\n" +
-            "File saved to: reports/report_" + System.currentTimeMillis() + ".txt\n" +
-            "Report size: " + reportPreviewArea.getText().length() + " characters");
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Report");
+        chooser.setInitialDirectory(exportDirectory().toFile());
+        chooser.setInitialFileName("report_" + LocalDateTime.now().format(exportFormatter) + ".txt");
+        File file = chooser.showSaveDialog(ownerWindow());
+        if (file == null) {
+            return;
+        }
         
-        addLog("[INFO] Exported report to file");
+        try {
+            Files.writeString(file.toPath(), reportPreviewArea.getText(), StandardCharsets.UTF_8);
+            AlertHelper.showInfo("Export Report", "Report exported successfully!\n\nFile saved to: " + file);
+            addLog("[INFO] Exported report to " + file);
+        } catch (IOException e) {
+            AlertHelper.showError("Export Failed", "Failed to export report: " + e.getMessage());
+        }
     }
     
     @FXML
@@ -15,6 +15,8 @@ import com.arms.domain.Student;
 import com.arms.domain.Teacher;
 import com.arms.domain.enums.UserRole;
 import com.arms.gui.util.AlertHelper;
+import com.arms.gui.util.FxChangeSubscriber;
+import com.arms.persistence.ChangeEvent;
 import com.arms.service.AssignmentService;
 import com.arms.service.CourseService;
 import com.arms.service.GradeService;
@@ -100,6 +102,10 @@ public class GradeController extends DashboardController {
 
     private final ObservableList<Grade> studentGrades = FXCollections.observableArrayList();
     private final ObservableList<Course> teacherCourses = FXCollections.observableArrayList();
+    private final ObservableList<StudentGradeSummary> courseStudents = FXCollections.observableArrayList();
+
+    // Updates the rows of students whose grades in the loaded course change
+    private FxChangeSubscriber changeSubscriber;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -107,6 +113,7 @@ public class GradeController extends DashboardController {
 
         initializeUI();
         loadData();
+        changeSubscriber = FxChangeSubscriber.subscribe(this::onGradesChanged);
 
         // Hide teacher tabs for non-teachers
         boolean isTeacher = currentUser.getRole() == UserRole.TEACHER;
@@ -447,30 +454,62 @@ public class GradeController extends DashboardController {
         List<Student> enrolledStudents = courseService.getEnrolledStudents(selectedCourse.getId());
 
         List<StudentGradeSummary> summaries = enrolledStudents.stream()
-                .map(student -> {
-                    // Calculate current grade for this student in this course
-                    Optional<Double> average = gradeService.calculateCourseAverageForStudent(
-                            student.getId(), selectedCourse.getId());
-
-                    // Count assignments submitted
-                    List<Assignment> courseAssignments = assignmentService.getAssignmentsByCourse(
-                            selectedCourse.getId());
-                    long submittedCount = courseAssignments.stream()
-                            .filter(assignment -> assignment.getSubmissionStudentIds()
-                            .contains(student.getId()))
-                            .count();
-
-                    return new StudentGradeSummary(
-                            student.getStudentId(),
-                            student.getFullName(),
-                            average.orElse(0.0),
-                            (int) submittedCount,
-                            student.getId()
-                    );
-                })
+                .map(student -> summarize(student, selectedCourse))
                 .collect(Collectors.toList());
 
-        studentsTable.setItems(FXCollections.observableArrayList(summaries));
+        courseStudents.setAll(summaries);
+        studentsTable.setItems(courseStudents);
+    }
+
+    private StudentGradeSummary summarize(Student student, Course course) {
+        // Calculate current grade for this student in this course
+        Optional<Double> average = gradeService.calculateCourseAverageForStudent(
+                student.getId(), course.getId());
+
+        // Count assignments submitted
+        List<Assignment> courseAssignments = assignmentService.getAssignmentsByCourse(
+                course.getId());
+        long submittedCount = courseAssignments.stream()
+                .filter(assignment -> assignment.getSubmissionStudentIds()
+                .contains(student.getId()))
+                .count();
+
+        return new StudentGradeSummary(
+                student.getStudentId(),
+                student.getFullName(),
+                average.orElse(0.0),
+                (int) submittedCount,
+                student.getId()
+        );
+    }
+
+    // Recomputes only the loaded rows whose student had a grade in the course saved or
+    // deleted; a RESET (bulk load, restore, overflowed event buffer) reloads the course
+    private void onGradesChanged(List<ChangeEvent> events) {
+        Course selectedCourse = gradingCourseFilter.getValue();
+        if (selectedCourse == null) {
+            return;
+        }
+        if (events.stream().anyMatch(ChangeEvent::isReset)) {
+            handleLoadStudents();
+            return;
+        }
+        if (courseStudents.isEmpty()) {
+            return;
+        }
+        Set<String> changedStudents = events.stream()
+                .filter(event -> ChangeEvent.GRADES.equals(event.getType()))
+                .map(ChangeEvent::getEntity)
+                .filter(entity -> entity instanceof Grade grade && selectedCourse.getId().equals(grade.getCourseId()))
+                .map(entity -> ((Grade) entity).getStudentId())
+                .collect(Collectors.toSet());
+        for (int i = 0; i < courseStudents.size(); i++) {
+            String userId = courseStudents.get(i).getUserId();
+            if (changedStudents.contains(userId)
+                    && userService.getUserById(userId).orElse(null) instanceof Student student) {
+                courseStudents.set(i, summarize(student, selectedCourse));
+            }
+        }
     }
 
     @FXML
@@ -494,8 +533,8 @@ public class GradeController extends DashboardController {
             assignments.forEach(assignment
                     -> gradeService.publishGradesForAssignment(assignment.getId()));
 
+            // Rows are refreshed from the grade change events
             AlertHelper.showSuccess("Success", "All grades published successfully!");
-            handleLoadStudents(); // Refresh the table
         }
     }
 
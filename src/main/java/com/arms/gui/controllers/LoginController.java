@@ -3,8 +3,10 @@ package com.arms.gui.controllers;
 import com.arms.domain.User;
 import com.arms.gui.util.AlertHelper;
 import com.arms.gui.util.NavigationHelper;
+import com.arms.gui.util.TaskScheduler;
 import com.arms.gui.util.ValidationHelper;
 import com.arms.service.AuthService;
+import com.arms.service.LoginRejectedException;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -127,11 +129,15 @@ public class LoginController implements Initializable {
 
         loginTask.setOnFailed(event -> {
             showProgress(false);
-            AlertHelper.showError("Login Error",
-                    "An error occurred during login. Please try again.");
+            if (loginTask.getException() instanceof LoginRejectedException rejected) {
+                AlertHelper.showError("Login Failed", rejected.getMessage());
+            } else {
+                AlertHelper.showError("Login Error",
+                        "An error occurred during login. Please try again.");
+            }
         });
 
-        new Thread(loginTask).start();
+        TaskScheduler.submit(loginTask);
     }
 
     private void navigateToDashboard(User user) {
@@ -26,6 +26,7 @@ import com.arms.gui.components.GradeCard;
 import com.arms.gui.dialogs.CourseEnrollmentDialog;
 import com.arms.gui.util.AlertHelper;
 import com.arms.gui.util.NavigationHelper;
+import com.arms.gui.util.TaskScheduler;
 import com.arms.service.AssignmentService;
 import com.arms.service.CourseService;
 import com.arms.service.EnrollmentService;
@@ -288,7 +289,7 @@ public class StudentController extends DashboardController {
             AlertHelper.showError("Load Error", "Failed to load student data. Please try again.");
         });
 
-        new Thread(loadTask).start();
+        TaskScheduler.submit("student.load", TaskScheduler.Priority.INTERACTIVE, loadTask);
     }
 
     private void loadStatistics() {
@@ -371,7 +372,7 @@ public class StudentController extends DashboardController {
             }
         };
 
-        new Thread(statsTask).start();
+        TaskScheduler.submit("student.stats", TaskScheduler.Priority.INTERACTIVE, statsTask);
     }
 
     private VBox createStatCard(String title, String value, Color color) {
@@ -609,12 +610,8 @@ public class StudentController extends DashboardController {
                     return;
                 }
                 
-                // Enroll student using EnrollmentService
-                boolean success = enrollmentService.enrollStudentInCourse(
-                        currentStudent.getId(), 
-                        course.getId(), 
-                        LocalDateTime.now()
-                );
+                // Claims a seat and commits the enrollment, course and student together
+                boolean success = courseService.enrollStudent(currentStudent.getId(), course.getId());
                 
                 if (success) {
                     AlertHelper.showSuccess("Enrollment Successful",
@@ -804,7 +801,7 @@ public class StudentController extends DashboardController {
             }
         };
         
-        new Thread(transcriptTask).start();
+        TaskScheduler.submit(TaskScheduler.Priority.BULK, transcriptTask);
     }
 
     private String convertPercentageToLetterGrade(double percentage) {
@@ -886,7 +883,7 @@ public class StudentController extends DashboardController {
             }
         };
         
-        new Thread(scheduleTask).start();
+        TaskScheduler.submit(TaskScheduler.Priority.BULK, scheduleTask);
     }
 
     private void viewCourseDetails(Course course) {
@@ -997,8 +994,8 @@ public class StudentController extends DashboardController {
         
         if (confirm) {
             try {
-                // Drop course using EnrollmentService
-                boolean success = enrollmentService.dropCourse(currentStudent.getId(), course.getId());
+                // Releases the seat, or promotes the head of the waitlist into it
+                boolean success = courseService.dropStudent(currentStudent.getId(), course.getId());
                 
                 if (success) {
                     AlertHelper.showSuccess("Course Dropped", 
@@ -1114,7 +1111,7 @@ public class StudentController extends DashboardController {
                 statusLabel.setText("Submission error");
             });
             
-            new Thread(submitTask).start();
+            TaskScheduler.submit(submitTask);
         });
     }
 
@@ -1342,7 +1339,7 @@ public class StudentController extends DashboardController {
                     AlertHelper.showError("Error", "Failed to change password: " + e.getSource().getException().getMessage());
                 });
                 
-                new Thread(task).start();
+                TaskScheduler.submit(task);
             }
         });
     }
@@ -27,6 +27,7 @@ import com.arms.gui.dialogs.AddCourseDialog;
 import com.arms.gui.dialogs.GradeSubmissionDialog;
 import com.arms.gui.util.AlertHelper;
 import com.arms.gui.util.NavigationHelper;
+import com.arms.gui.util.TaskScheduler;
 import com.arms.service.AssignmentService;
 import com.arms.service.CourseService;
 import com.arms.service.GradeService;
@@ -243,7 +244,7 @@ public class TeacherController extends DashboardController {
             AlertHelper.showError("Load Error", "Failed to load teacher data: " + e.getSource().getException().getMessage());
         });
 
-        new Thread(task).start();
+        TaskScheduler.submit("teacher.load", TaskScheduler.Priority.INTERACTIVE, task);
     }
 
     private void loadStatistics() {
@@ -321,7 +322,7 @@ public class TeacherController extends DashboardController {
             }
         };
 
-        new Thread(statsTask).start();
+        TaskScheduler.submit("teacher.stats", TaskScheduler.Priority.INTERACTIVE, statsTask);
     }
 
     private VBox createStatCard(String title, String value, Color color) {
@@ -521,7 +522,7 @@ public class TeacherController extends DashboardController {
                         "An error occurred while creating assignment.");
             });
             
-            new Thread(createTask).start();
+            TaskScheduler.submit(createTask);
         });
     }
 
@@ -565,7 +566,7 @@ public class TeacherController extends DashboardController {
                         "An error occurred while adding course.");
             });
             
-            new Thread(createTask).start();
+            TaskScheduler.submit(createTask);
         });
     }
 
@@ -858,7 +859,7 @@ public class TeacherController extends DashboardController {
                     "Failed to generate report. Please try again.");
         });
         
-        new Thread(reportTask).start();
+        TaskScheduler.submit(TaskScheduler.Priority.BULK, reportTask);
     }
 
     @FXML
@@ -1117,7 +1118,7 @@ public class TeacherController extends DashboardController {
                         "An error occurred while updating course.");
             });
             
-            new Thread(updateTask).start();
+            TaskScheduler.submit(updateTask);
         });
     }
 
@@ -1224,7 +1225,7 @@ public class TeacherController extends DashboardController {
                         "An error occurred while closing assignment.");
             });
             
-            new Thread(closeTask).start();
+            TaskScheduler.submit(closeTask);
         }
     }
 
@@ -1260,7 +1261,7 @@ public class TeacherController extends DashboardController {
                         "Failed to publish grades. Please try again.");
             });
             
-            new Thread(publishTask).start();
+            TaskScheduler.submit(TaskScheduler.Priority.BULK, publishTask);
         }
     }
 
@@ -1392,7 +1393,7 @@ public class TeacherController extends DashboardController {
                     AlertHelper.showError("Error", "Failed to change password: " + e.getSource().getException().getMessage());
                 });
                 
-                new Thread(task).start();
+                TaskScheduler.submit(task);
             }
         });
     }
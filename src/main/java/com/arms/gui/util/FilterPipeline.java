@@ -0,0 +1,116 @@
+package com.arms.gui.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import com.arms.config.AppConfig;
+
+import javafx.animation.PauseTransition;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.concurrent.Task;
+import javafx.util.Duration;
+
+/*
+ * Debounced background filtering for a list shown in grids and tables.
+ *
+ * refresh() restarts a short timer; when it fires, the current query is read on
+ * the FX thread and the matcher runs on the TaskScheduler against a copy of the
+ * source. Its result, matching items best first, is applied by swapping the
+ * predicate of a FilteredList and the comparator of the SortedList on top of it,
+ * so views keep their list and only see the difference. A newer query cancels
+ * the running one, and results of superseded queries are dropped.
+ */
+public class FilterPipeline<T, Q> {
+
+    private final String taskKey;
+    private final ObservableList<T> source;
+    private final Supplier<Q> query;
+    private final BiFunction<Q, List<T>, List<T>> matcher;
+    private final FilteredList<T> filtered;
+    private final SortedList<T> sorted;
+    private final ObjectProperty<Comparator<T>> rankOrder = new SimpleObjectProperty<>();
+    private final PauseTransition debounce;
+    private Runnable onApplied;
+    private long generation;
+
+    // The matcher runs off the FX thread and must only read the query and the snapshot
+    public FilterPipeline(String taskKey, ObservableList<T> source, Supplier<Q> query,
+            BiFunction<Q, List<T>, List<T>> matcher) {
+        this.taskKey = taskKey;
+        this.source = source;
+        this.query = query;
+        this.matcher = matcher;
+        this.filtered = new FilteredList<>(source);
+        this.sorted = new SortedList<>(filtered);
+        sorted.comparatorProperty().bind(rankOrder);
+
+        debounce = new PauseTransition(Duration.millis(AppConfig.getIntProperty("app.ui.filter.debounce.ms", 200)));
+        debounce.setOnFinished(event -> refreshNow());
+        source.addListener((ListChangeListener<T>) change -> refresh());
+    }
+
+    // The list to give to every view showing the filtered items
+    public SortedList<T> getItems() {
+        return sorted;
+    }
+
+    // Lets a table's column sort take precedence over the match ranking
+    public void bindSortOrder(ObservableValue<Comparator<T>> tableComparator) {
+        sorted.comparatorProperty().unbind();
+        sorted.comparatorProperty().bind(Bindings.createObjectBinding(
+                () -> tableComparator.getValue() != null ? tableComparator.getValue() : rankOrder.get(),
+                tableComparator, rankOrder));
+    }
+
+    public void setOnApplied(Runnable onApplied) {
+        this.onApplied = onApplied;
+    }
+
+    public void refresh() {
+        debounce.playFromStart();
+    }
+
+    public void refreshNow() {
+        debounce.stop();
+        long current = ++generation;
+        Q snapshotQuery = query.get();
+        List<T> snapshot = new ArrayList<>(source);
+
+        Task<List<T>> task = new Task<>() {
+            @Override
+            protected List<T> call() {
+                return matcher.apply(snapshotQuery, snapshot);
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (current == generation) {
+                apply(task.getValue());
+            }
+        });
+        TaskScheduler.submit(taskKey, TaskScheduler.Priority.INTERACTIVE, task);
+    }
+
+    private void apply(List<T> matches) {
+        Map<T, Integer> rank = new HashMap<>(matches.size() * 2);
+        for (int i = 0; i < matches.size(); i++) {
+            rank.putIfAbsent(matches.get(i), i);
+        }
+        filtered.setPredicate(rank::containsKey);
+        rankOrder.set(Comparator.comparingInt(item -> rank.getOrDefault(item, Integer.MAX_VALUE)));
+        if (onApplied != null) {
+            onApplied.run();
+        }
+    }
+}
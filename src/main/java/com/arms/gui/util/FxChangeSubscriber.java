@@ -0,0 +1,140 @@
+package com.arms.gui.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+import com.arms.persistence.ChangeEvent;
+import com.arms.persistence.DataManager;
+import com.arms.util.Logger;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+/*
+ * Subscribes a controller to DataManager change events. Events are handed to the
+ * handler in batches on the FX thread; more are requested only once a batch has
+ * been applied, so while the UI is busy further changes coalesce in the bus.
+ * NavigationHelper cancels all subscribers when the view is left.
+ */
+public class FxChangeSubscriber implements Flow.Subscriber<ChangeEvent> {
+
+    private static final int BATCH_SIZE = 256;
+    private static final Set<FxChangeSubscriber> active = ConcurrentHashMap.newKeySet();
+
+    private final Consumer<List<ChangeEvent>> handler;
+    private final List<ChangeEvent> pending = new ArrayList<>();
+    private volatile Flow.Subscription subscription;
+    private volatile boolean cancelled;
+    private boolean scheduled;
+
+    private FxChangeSubscriber(Consumer<List<ChangeEvent>> handler) {
+        this.handler = handler;
+    }
+
+    public static FxChangeSubscriber subscribe(Consumer<List<ChangeEvent>> handler) {
+        FxChangeSubscriber subscriber = new FxChangeSubscriber(handler);
+        active.add(subscriber);
+        DataManager.getInstance().getChangeEvents().subscribe(subscriber);
+        return subscriber;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+        } else {
+            subscription.request(BATCH_SIZE);
+        }
+    }
+
+    @Override
+    public void onNext(ChangeEvent event) {
+        synchronized (pending) {
+            pending.add(event);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        Platform.runLater(this::flush);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Logger.error("Change event subscription failed", throwable);
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    public void cancel() {
+        cancelled = true;
+        active.remove(this);
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    public static void cancelAll() {
+        active.forEach(FxChangeSubscriber::cancel);
+    }
+
+    private void flush() {
+        List<ChangeEvent> batch;
+        synchronized (pending) {
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            scheduled = false;
+        }
+        if (cancelled) {
+            return;
+        }
+        try {
+            handler.accept(batch);
+        } catch (RuntimeException e) {
+            Logger.error("Failed to apply " + batch.size() + " change events", e);
+        }
+        subscription.request(batch.size());
+    }
+
+    // Applies the events of one entity type to a list of entities in a single pass:
+    // replaces saved rows, removes deleted ones and appends new ones. Returns whether
+    // any event concerned the type.
+    public static <T> boolean patch(ObservableList<T> list, List<ChangeEvent> events, String type, Class<T> entityClass) {
+        Map<T, ChangeEvent> changes = new HashMap<>();
+        for (ChangeEvent event : events) {
+            if (type.equals(event.getType()) && entityClass.isInstance(event.getEntity())) {
+                changes.put(entityClass.cast(event.getEntity()), event);
+            }
+        }
+        if (changes.isEmpty()) {
+            return false;
+        }
+
+        List<T> removed = new ArrayList<>();
+        for (int i = 0; i < list.size() && !changes.isEmpty(); i++) {
+            ChangeEvent event = changes.remove(list.get(i));
+            if (event == null) {
+                continue;
+            }
+            if (event.isDelete()) {
+                removed.add(list.get(i));
+            } else {
+                list.set(i, entityClass.cast(event.getEntity()));
+            }
+        }
+        list.removeAll(removed);
+        changes.values().stream()
+                .filter(event -> !event.isDelete())
+                .forEach(event -> list.add(entityClass.cast(event.getEntity())));
+        return true;
+    }
+}
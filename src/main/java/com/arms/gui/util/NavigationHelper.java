@@ -20,6 +20,9 @@ public class NavigationHelper {
     private static final Map<String, Object> controllers = new HashMap<>();
 
     public static void navigateTo(String fxmlPath) {
+        // Loads and change subscriptions of the view being left are no longer needed
+        TaskScheduler.cancelKeyed();
+        FxChangeSubscriber.cancelAll();
         try {
             URL fxmlUrl = NavigationHelper.class.getResource(fxmlPath);
             if (fxmlUrl == null) {
@@ -0,0 +1,149 @@
+package com.arms.gui.util;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arms.config.AppConfig;
+import com.arms.util.Logger;
+
+import javafx.concurrent.Task;
+
+/*
+ * Shared background executor for controller tasks. Interactive work (loads and
+ * saves triggered by a click) and bulk work (reports, transcripts, mass updates)
+ * run on separate bounded pools of named daemon threads, so a long export never
+ * delays a screen load. Tasks submitted under a key replace the previous task
+ * with that key, which is cancelled, and navigating to another view cancels all
+ * keyed tasks; unkeyed tasks such as saves always run to completion.
+ */
+public class TaskScheduler {
+
+    public enum Priority {
+        INTERACTIVE,
+        BULK
+    }
+
+    private static final ThreadPoolExecutor interactivePool = createPool("arms-ui",
+            AppConfig.getIntProperty("app.tasks.interactive.threads", 4));
+    private static final ThreadPoolExecutor bulkPool = createPool("arms-bulk",
+            AppConfig.getIntProperty("app.tasks.bulk.threads", 2));
+    private static final Map<String, Task<?>> keyedTasks = new ConcurrentHashMap<>();
+
+    private static final LongAdder submitted = new LongAdder();
+    private static final LongAdder rejected = new LongAdder();
+    private static final LongAdder superseded = new LongAdder();
+
+    public static void submit(Task<?> task) {
+        submit(Priority.INTERACTIVE, task);
+    }
+
+    public static void submit(Priority priority, Task<?> task) {
+        execute(priority, task, task);
+    }
+
+    // Runs the task, cancelling any earlier task still pending or running under the same key
+    public static void submit(String key, Priority priority, Task<?> task) {
+        Task<?> previous = keyedTasks.put(key, task);
+        if (previous != null && previous.cancel(true)) {
+            superseded.increment();
+            Logger.debug(() -> "Cancelled superseded task " + key);
+        }
+        execute(priority, task, () -> {
+            try {
+                task.run();
+            } finally {
+                keyedTasks.remove(key, task);
+            }
+        });
+    }
+
+    public static boolean cancel(String key) {
+        Task<?> task = keyedTasks.remove(key);
+        return task != null && task.cancel(true);
+    }
+
+    // Cancels every keyed task, e.g. the loads of a view the user is leaving
+    public static void cancelKeyed() {
+        keyedTasks.keySet().forEach(TaskScheduler::cancel);
+    }
+
+    public static int getQueueDepth(Priority priority) {
+        return poolFor(priority).getQueue().size();
+    }
+
+    public static int getActiveCount(Priority priority) {
+        return poolFor(priority).getActiveCount();
+    }
+
+    public static long getCompletedCount(Priority priority) {
+        return poolFor(priority).getCompletedTaskCount();
+    }
+
+    public static long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public static long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public static long getSupersededCount() {
+        return superseded.sum();
+    }
+
+    public static String getMetrics() {
+        return String.format("interactive[queued=%d active=%d done=%d] bulk[queued=%d active=%d done=%d] "
+                + "submitted=%d rejected=%d superseded=%d",
+                getQueueDepth(Priority.INTERACTIVE), getActiveCount(Priority.INTERACTIVE),
+                getCompletedCount(Priority.INTERACTIVE),
+                getQueueDepth(Priority.BULK), getActiveCount(Priority.BULK), getCompletedCount(Priority.BULK),
+                getSubmittedCount(), getRejectedCount(), getSupersededCount());
+    }
+
+    public static void shutdown() {
+        cancelKeyed();
+        interactivePool.shutdown();
+        bulkPool.shutdown();
+        try {
+            interactivePool.awaitTermination(5, TimeUnit.SECONDS);
+            bulkPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void execute(Priority priority, Task<?> task, Runnable runnable) {
+        submitted.increment();
+        try {
+            poolFor(priority).execute(runnable);
+        } catch (RejectedExecutionException e) {
+            // Queue full or shutting down: cancel the task so its onCancelled handler can reset the UI
+            rejected.increment();
+            Logger.warn("Background task rejected, " + getMetrics());
+            task.cancel(false);
+        }
+    }
+
+    private static ThreadPoolExecutor poolFor(Priority priority) {
+        return priority == Priority.BULK ? bulkPool : interactivePool;
+    }
+
+    private static ThreadPoolExecutor createPool(String name, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(AppConfig.getIntProperty("app.tasks.queue.capacity", 256)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
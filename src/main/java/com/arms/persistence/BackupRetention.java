@@ -0,0 +1,155 @@
+package com.arms.persistence;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.arms.config.AppConfig;
+import com.arms.util.Logger;
+
+/*
+ * Grandfather-father-son retention for the BackupStore.
+ *
+ * The newest backup is always kept, plus the newest backup of each of the last
+ * app.backup.keep.hourly hours, app.backup.keep.daily days and
+ * app.backup.keep.weekly ISO weeks that have one; all other backups are deleted.
+ * Kept backups older than app.backup.compact.after.days are compacted into zip
+ * archives, and blobs no remaining backup refers to are removed. Full-copy
+ * backup directories from older versions are converted first, so the same
+ * rules apply to them.
+ */
+public class BackupRetention {
+
+    private final int keepHourly;
+    private final int keepDaily;
+    private final int keepWeekly;
+    private final long compactAfterMillis;
+    private final ZoneId zone;
+
+    public BackupRetention(int keepHourly, int keepDaily, int keepWeekly, int compactAfterDays, ZoneId zone) {
+        this.keepHourly = Math.max(0, keepHourly);
+        this.keepDaily = Math.max(0, keepDaily);
+        this.keepWeekly = Math.max(0, keepWeekly);
+        this.compactAfterMillis = TimeUnit.DAYS.toMillis(Math.max(0, compactAfterDays));
+        this.zone = zone;
+    }
+
+    public static BackupRetention fromConfig() {
+        return new BackupRetention(
+                AppConfig.getIntProperty("app.backup.keep.hourly", 24),
+                AppConfig.getIntProperty("app.backup.keep.daily", 7),
+                AppConfig.getIntProperty("app.backup.keep.weekly", 4),
+                AppConfig.getIntProperty("app.backup.compact.after.days", 7),
+                ZoneId.systemDefault());
+    }
+
+    public static class Result {
+        private int converted;
+        private int deleted;
+        private int compacted;
+        private int kept;
+        private long bytesFreed;
+        private long elapsedMs;
+
+        public int getConverted() {
+            return converted;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public int getCompacted() {
+            return compacted;
+        }
+
+        public int getKept() {
+            return kept;
+        }
+
+        public long getBytesFreed() {
+            return bytesFreed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Backup retention: %d kept, %d deleted, %d compacted, %d legacy converted, "
+                    + "%d blob bytes freed in %d ms", kept, deleted, compacted, converted, bytesFreed, elapsedMs);
+        }
+    }
+
+    // IDs of the backups to keep, given all backup IDs
+    public Set<String> selectToKeep(List<String> backupIds) {
+        List<String> newestFirst = new ArrayList<>(backupIds);
+        newestFirst.sort(Comparator.comparingLong(BackupStore::createdAtOf).reversed());
+
+        Set<String> keep = new LinkedHashSet<>();
+        if (!newestFirst.isEmpty()) {
+            keep.add(newestFirst.get(0));
+        }
+        keepNewestPerPeriod(newestFirst, keepHourly, time -> time.truncatedTo(ChronoUnit.HOURS), keep);
+        keepNewestPerPeriod(newestFirst, keepDaily, ZonedDateTime::toLocalDate, keep);
+        keepNewestPerPeriod(newestFirst, keepWeekly,
+                time -> time.get(IsoFields.WEEK_BASED_YEAR) * 100 + time.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), keep);
+        return keep;
+    }
+
+    private void keepNewestPerPeriod(List<String> newestFirst, int periods, Function<ZonedDateTime, Object> period,
+            Set<String> keep) {
+        Set<Object> seen = new HashSet<>();
+        for (String id : newestFirst) {
+            if (seen.size() >= periods) {
+                return;
+            }
+            if (seen.add(period.apply(timeOf(id)))) {
+                keep.add(id);
+            }
+        }
+    }
+
+    private ZonedDateTime timeOf(String backupId) {
+        return Instant.ofEpochMilli(BackupStore.createdAtOf(backupId)).atZone(zone);
+    }
+
+    public Result apply(BackupStore store) throws IOException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        result.converted = store.convertLegacyBackups();
+
+        List<String> backups = store.listBackups();
+        Set<String> keep = selectToKeep(backups);
+        String newest = backups.isEmpty() ? null : backups.get(backups.size() - 1);
+        long compactBefore = System.currentTimeMillis() - compactAfterMillis;
+        for (String id : backups) {
+            if (!keep.contains(id)) {
+                store.delete(id);
+                result.deleted++;
+            } else if (!id.equals(newest) && BackupStore.createdAtOf(id) < compactBefore && !store.isArchived(id)) {
+                store.compact(id);
+                result.compacted++;
+            }
+        }
+        result.kept = keep.size();
+        result.bytesFreed = store.collectGarbage();
+        result.elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        Logger.info(result.toString());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "hourly=" + keepHourly + " daily=" + keepDaily + " weekly=" + keepWeekly + " compactAfterDays="
+                + TimeUnit.MILLISECONDS.toDays(compactAfterMillis);
+    }
+}
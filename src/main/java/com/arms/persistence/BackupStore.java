@@ -0,0 +1,732 @@
+package com.arms.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import com.arms.config.AppConfig;
+import com.arms.util.Logger;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * Incremental backups of the data directory in a content-addressed store.
+ *
+ * Every file is stored once per distinct content, as objects/<2 hex>/<SHA-256>,
+ * and each backup is a small manifest (manifests/<id>.json) listing path, size,
+ * modification time and hash of every file. A file whose size and modification
+ * time match the previous manifest is not read again, so a backup after a few
+ * saves reads and writes only the entity files that changed.
+ *
+ * Backups can be verified against their hashes and restored into an empty
+ * directory; the backups directory itself is never backed up. Old backups can be
+ * compacted into a self-contained zip (archives/<id>.zip, the manifest plus every
+ * file), which frees the blobs only they referred to; BackupRetention decides
+ * which backups are kept, compacted or deleted.
+ */
+public class BackupStore {
+
+    private static final String OBJECTS = "objects";
+    private static final String MANIFESTS = "manifests";
+    private static final String MANIFEST_SUFFIX = ".json";
+    private static final String ARCHIVES = "archives";
+    private static final String ARCHIVE_SUFFIX = ".zip";
+    private static final String ARCHIVE_MANIFEST = "manifest.json";
+    private static final String ARCHIVE_FILES = "files/";
+
+    private final Path dataDirectory;
+    private final Path backupDirectory;
+    private final ObjectMapper objectMapper;
+
+    public BackupStore(Path dataDirectory, Path backupDirectory) {
+        this.dataDirectory = dataDirectory.toAbsolutePath().normalize();
+        this.backupDirectory = backupDirectory.toAbsolutePath().normalize();
+        this.objectMapper = new ObjectMapper();
+        objectMapper.configure(SerializationFeature.INDENT_OUTPUT, true);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public static class FileEntry {
+        private String path;
+        private long size;
+        private long modified;
+        private String sha256;
+
+        public FileEntry() {
+        }
+
+        FileEntry(String path, long size, long modified, String sha256) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.sha256 = sha256;
+        }
+
+        // Relative to the data directory, with '/' separators
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        public long getModified() {
+            return modified;
+        }
+
+        public void setModified(long modified) {
+            this.modified = modified;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public void setSha256(String sha256) {
+            this.sha256 = sha256;
+        }
+    }
+
+    public static class Manifest {
+        private String id;
+        private long createdAt;
+        private long totalBytes;
+        private int filesRead;
+        private int blobsWritten;
+        private long bytesWritten;
+        private List<FileEntry> files = new ArrayList<>();
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        // Epoch milliseconds
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public void setTotalBytes(long totalBytes) {
+            this.totalBytes = totalBytes;
+        }
+
+        // Files hashed for this backup; the others were unchanged since the previous one
+        public int getFilesRead() {
+            return filesRead;
+        }
+
+        public void setFilesRead(int filesRead) {
+            this.filesRead = filesRead;
+        }
+
+        public int getBlobsWritten() {
+            return blobsWritten;
+        }
+
+        public void setBlobsWritten(int blobsWritten) {
+            this.blobsWritten = blobsWritten;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        public void setBytesWritten(long bytesWritten) {
+            this.bytesWritten = bytesWritten;
+        }
+
+        public List<FileEntry> getFiles() {
+            return files;
+        }
+
+        public void setFiles(List<FileEntry> files) {
+            this.files = files;
+        }
+    }
+
+    public interface FileReader {
+        void read(FileEntry entry, InputStream in) throws IOException;
+    }
+
+    public static class VerifyResult {
+        private final String backupId;
+        private final int checked;
+        private final List<String> missing;
+        private final List<String> corrupt;
+
+        VerifyResult(String backupId, int checked, List<String> missing, List<String> corrupt) {
+            this.backupId = backupId;
+            this.checked = checked;
+            this.missing = missing;
+            this.corrupt = corrupt;
+        }
+
+        public String getBackupId() {
+            return backupId;
+        }
+
+        public int getChecked() {
+            return checked;
+        }
+
+        public List<String> getMissing() {
+            return missing;
+        }
+
+        public List<String> getCorrupt() {
+            return corrupt;
+        }
+
+        public boolean isValid() {
+            return missing.isEmpty() && corrupt.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Backup " + backupId + ": " + checked + " files checked, " + missing.size() + " missing, "
+                    + corrupt.size() + " corrupt";
+        }
+    }
+
+    // Backs up the data directory; files unchanged since the previous backup are
+    // taken from its manifest without being read. A file modified no earlier than
+    // that backup started may have changed again within the same mtime tick, so it
+    // is treated as "racy" and hashed again
+    public synchronized Manifest createBackup() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(backupDirectory.resolve(OBJECTS));
+        Files.createDirectories(backupDirectory.resolve(MANIFESTS));
+
+        Optional<Manifest> latest = latestManifest();
+        long previousCreatedAt = latest.map(Manifest::getCreatedAt).orElse(0L);
+        Map<String, FileEntry> previous = latest
+                .map(manifest -> manifest.getFiles().stream()
+                        .collect(Collectors.toMap(FileEntry::getPath, entry -> entry, (a, b) -> b)))
+                .orElseGet(HashMap::new);
+
+        Manifest manifest = new Manifest();
+        manifest.setCreatedAt(System.currentTimeMillis());
+        manifest.setId(nextId(manifest.getCreatedAt()));
+
+        for (Path file : listDataFiles()) {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                continue; // Deleted while we were walking
+            }
+            String relative = relativePath(file);
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+
+            FileEntry known = previous.get(relative);
+            if (known != null && known.getSize() == size && known.getModified() == modified
+                    && modified < previousCreatedAt && Files.exists(blobPath(known.getSha256()))) {
+                manifest.getFiles().add(known);
+            } else {
+                FileEntry stored = store(file, relative, modified, manifest);
+                if (stored == null) {
+                    continue;
+                }
+                manifest.getFiles().add(stored);
+            }
+            manifest.setTotalBytes(manifest.getTotalBytes() + manifest.getFiles().get(manifest.getFiles().size() - 1).getSize());
+        }
+
+        writeManifest(manifest);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        Logger.info(String.format("Backup %s: %d files (%d read, %d new blobs, %d bytes written) in %d ms",
+                manifest.getId(), manifest.getFiles().size(), manifest.getFilesRead(), manifest.getBlobsWritten(),
+                manifest.getBytesWritten(), elapsedMs));
+        return manifest;
+    }
+
+    // Backup IDs, oldest first, whether compacted or not
+    public List<String> listBackups() throws IOException {
+        Set<String> ids = new TreeSet<>();
+        ids.addAll(listIds(backupDirectory.resolve(MANIFESTS), MANIFEST_SUFFIX));
+        ids.addAll(listIds(backupDirectory.resolve(ARCHIVES), ARCHIVE_SUFFIX));
+        return new ArrayList<>(ids);
+    }
+
+    private static List<String> listIds(Path directory, String suffix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(suffix))
+                    .map(name -> name.substring(0, name.length() - suffix.length()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Backup IDs start with the creation time in epoch milliseconds
+    public static long createdAtOf(String backupId) {
+        int dash = backupId.indexOf('-');
+        return Long.parseLong(dash < 0 ? backupId : backupId.substring(0, dash));
+    }
+
+    // The newest backup taken at or before the given time
+    public Optional<String> latestBackupAtOrBefore(long timestamp) throws IOException {
+        List<String> backups = listBackups();
+        for (int i = backups.size() - 1; i >= 0; i--) {
+            if (createdAtOf(backups.get(i)) <= timestamp) {
+                return Optional.of(backups.get(i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean isArchived(String backupId) {
+        return !Files.exists(manifestPath(backupId)) && Files.exists(archivePath(backupId));
+    }
+
+    public Manifest readManifest(String backupId) throws IOException {
+        Path file = manifestPath(backupId);
+        if (Files.exists(file)) {
+            return objectMapper.readValue(file.toFile(), Manifest.class);
+        }
+        try (ZipFile archive = openArchive(backupId)) {
+            if (archive == null) {
+                throw new NoSuchFileException("No backup " + backupId);
+            }
+            ZipEntry entry = archive.getEntry(ARCHIVE_MANIFEST);
+            if (entry == null) {
+                throw new IOException("Archive of backup " + backupId + " has no manifest");
+            }
+            try (InputStream in = archive.getInputStream(entry)) {
+                return objectMapper.readValue(in, Manifest.class);
+            }
+        }
+    }
+
+    public Optional<Manifest> latestManifest() throws IOException {
+        List<String> backups = listBackups();
+        for (int i = backups.size() - 1; i >= 0; i--) {
+            try {
+                return Optional.of(readManifest(backups.get(i)));
+            } catch (IOException e) {
+                Logger.error("Unreadable backup manifest " + backups.get(i), e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Rehashes every file of the backup, from its blobs or its archive
+    public VerifyResult verify(String backupId) throws IOException {
+        Manifest manifest = readManifest(backupId);
+        List<String> missing = new ArrayList<>();
+        List<String> corrupt = new ArrayList<>();
+        Map<String, Boolean> checked = new HashMap<>();
+        try (ZipFile archive = openArchive(backupId)) {
+            for (FileEntry entry : manifest.getFiles()) {
+                // Blobs are shared between paths, archive entries are not
+                String key = archive == null ? entry.getSha256() : entry.getPath();
+                Boolean intact = checked.get(key);
+                if (intact == null) {
+                    InputStream in = openFile(archive, entry);
+                    if (in == null) {
+                        missing.add(entry.getPath());
+                        continue;
+                    }
+                    MessageDigest digest = sha256();
+                    long size;
+                    try (InputStream digested = new DigestInputStream(in, digest)) {
+                        size = digested.transferTo(OutputStream.nullOutputStream());
+                    }
+                    intact = size == entry.getSize()
+                            && entry.getSha256().equals(HexFormat.of().formatHex(digest.digest()));
+                    checked.put(key, intact);
+                }
+                if (!intact) {
+                    corrupt.add(entry.getPath());
+                }
+            }
+        }
+        VerifyResult result = new VerifyResult(backupId, manifest.getFiles().size(), missing, corrupt);
+        if (result.isValid()) {
+            Logger.info(result.toString());
+        } else {
+            Logger.warn(result.toString());
+        }
+        return result;
+    }
+
+    // Writes the files of a backup into an empty or new directory, checking each
+    // blob's hash on the way
+    public void restore(String backupId, Path targetDirectory) throws IOException {
+        Manifest manifest = readManifest(backupId);
+        Path target = targetDirectory.toAbsolutePath().normalize();
+        if (Files.isDirectory(target)) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(target)) {
+                if (entries.iterator().hasNext()) {
+                    throw new FileAlreadyExistsException(target + " is not empty");
+                }
+            }
+        }
+        Files.createDirectories(target);
+
+        try (ZipFile archive = openArchive(backupId)) {
+            for (FileEntry entry : manifest.getFiles()) {
+                Path destination = target.resolve(entry.getPath()).normalize();
+                if (!destination.startsWith(target)) {
+                    throw new IOException("Backup entry outside the target directory: " + entry.getPath());
+                }
+                InputStream in = openFile(archive, entry);
+                if (in == null) {
+                    throw new NoSuchFileException("Backup " + backupId + " is missing " + entry.getPath());
+                }
+                Files.createDirectories(destination.getParent());
+                MessageDigest digest = sha256();
+                try (InputStream digested = new DigestInputStream(in, digest)) {
+                    Files.copy(digested, destination, StandardCopyOption.REPLACE_EXISTING);
+                }
+                if (!HexFormat.of().formatHex(digest.digest()).equals(entry.getSha256())) {
+                    throw new IOException("Stored copy of " + entry.getPath() + " is corrupt");
+                }
+                Files.setLastModifiedTime(destination, FileTime.fromMillis(entry.getModified()));
+            }
+        }
+        Logger.info("Restored backup " + backupId + " (" + manifest.getFiles().size() + " files) to " + target);
+    }
+
+    // Streams the files of a backup whose paths match, one at a time in path order
+    public void readFiles(String backupId, Predicate<String> paths, FileReader reader) throws IOException {
+        Manifest manifest = readManifest(backupId);
+        try (ZipFile archive = openArchive(backupId)) {
+            for (FileEntry entry : manifest.getFiles()) {
+                if (!paths.test(entry.getPath())) {
+                    continue;
+                }
+                InputStream in = openFile(archive, entry);
+                if (in == null) {
+                    throw new NoSuchFileException("Backup " + backupId + " is missing " + entry.getPath());
+                }
+                try (in) {
+                    reader.read(entry, in);
+                }
+            }
+        }
+    }
+
+    // Moves a backup into a zip archive of its own; returns the archive size, or 0
+    // if the backup is already compacted. Its blobs are freed by collectGarbage()
+    public synchronized long compact(String backupId) throws IOException {
+        if (!Files.exists(manifestPath(backupId))) {
+            return 0;
+        }
+        Manifest manifest = readManifest(backupId);
+        Path archive = writeArchive(backupId, manifest, entry -> blobPath(entry.getSha256()));
+        Files.delete(manifestPath(backupId));
+        return Files.size(archive);
+    }
+
+    public synchronized void delete(String backupId) throws IOException {
+        Files.deleteIfExists(manifestPath(backupId));
+        Files.deleteIfExists(archivePath(backupId));
+    }
+
+    // Deletes blobs that no uncompacted backup refers to; returns the bytes freed
+    public synchronized long collectGarbage() throws IOException {
+        Path objects = backupDirectory.resolve(OBJECTS);
+        if (!Files.isDirectory(objects)) {
+            return 0;
+        }
+        Set<String> referenced = new HashSet<>();
+        for (String id : listIds(backupDirectory.resolve(MANIFESTS), MANIFEST_SUFFIX)) {
+            for (FileEntry entry : readManifest(id).getFiles()) {
+                referenced.add(entry.getSha256());
+            }
+        }
+
+        long freed = 0;
+        List<Path> blobs;
+        try (Stream<Path> files = Files.walk(objects)) {
+            blobs = files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path blob : blobs) {
+            // Leftover temporary blobs are unreferenced too, as no backup is running
+            if (!referenced.contains(blob.getFileName().toString())) {
+                freed += Files.size(blob);
+                Files.delete(blob);
+            }
+        }
+        return freed;
+    }
+
+    // Converts full-copy backup directories (backups/<millis>/) made by older
+    // versions into archives; returns how many were converted
+    public synchronized int convertLegacyBackups() throws IOException {
+        if (!Files.isDirectory(backupDirectory)) {
+            return 0;
+        }
+        List<Path> legacy;
+        try (Stream<Path> entries = Files.list(backupDirectory)) {
+            legacy = entries.filter(Files::isDirectory)
+                    .filter(path -> path.getFileName().toString().matches("\\d+"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for (Path directory : legacy) {
+            Manifest manifest = new Manifest();
+            manifest.setId(directory.getFileName().toString());
+            manifest.setCreatedAt(Long.parseLong(manifest.getId()));
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(directory)) {
+                files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                String relative = directory.relativize(file).toString().replace('\\', '/');
+                manifest.getFiles().add(new FileEntry(relative, Files.size(file),
+                        Files.getLastModifiedTime(file).toMillis(), hash(file)));
+                manifest.setTotalBytes(manifest.getTotalBytes() + Files.size(file));
+            }
+            writeArchive(manifest.getId(), manifest, entry -> directory.resolve(entry.getPath()));
+            deleteRecursively(directory);
+        }
+        return legacy.size();
+    }
+
+    public Path getBackupDirectory() {
+        return backupDirectory;
+    }
+
+    Path blobPath(String sha256) {
+        return backupDirectory.resolve(OBJECTS).resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    Path manifestPath(String backupId) {
+        return backupDirectory.resolve(MANIFESTS).resolve(backupId + MANIFEST_SUFFIX);
+    }
+
+    Path archivePath(String backupId) {
+        return backupDirectory.resolve(ARCHIVES).resolve(backupId + ARCHIVE_SUFFIX);
+    }
+
+    // The archive of a compacted backup, or null if the backup uses blobs
+    private ZipFile openArchive(String backupId) throws IOException {
+        return isArchived(backupId) ? new ZipFile(archivePath(backupId).toFile()) : null;
+    }
+
+    // Contents of one file of a backup, or null if its copy is missing
+    private InputStream openFile(ZipFile archive, FileEntry entry) throws IOException {
+        if (archive == null) {
+            Path blob = blobPath(entry.getSha256());
+            return Files.exists(blob) ? Files.newInputStream(blob) : null;
+        }
+        ZipEntry zipEntry = archive.getEntry(ARCHIVE_FILES + entry.getPath());
+        return zipEntry == null ? null : archive.getInputStream(zipEntry);
+    }
+
+    private Path writeArchive(String backupId, Manifest manifest, Function<FileEntry, Path> source)
+            throws IOException {
+        Path archive = archivePath(backupId);
+        Files.createDirectories(archive.getParent());
+        Path temp = archive.resolveSibling(archive.getFileName() + ".tmp");
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            zip.setLevel(Deflater.BEST_COMPRESSION);
+            zip.putNextEntry(new ZipEntry(ARCHIVE_MANIFEST));
+            zip.write(objectMapper.writeValueAsBytes(manifest));
+            zip.closeEntry();
+            for (FileEntry entry : manifest.getFiles()) {
+                ZipEntry zipEntry = new ZipEntry(ARCHIVE_FILES + entry.getPath());
+                zipEntry.setTime(entry.getModified());
+                zip.putNextEntry(zipEntry);
+                Files.copy(source.apply(entry), zip);
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return archive;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+    // Copies the file into a temporary blob while hashing it, then moves the blob
+    // into place unless that content is already stored
+    private FileEntry store(Path file, String relative, long modified, Manifest manifest) throws IOException {
+        Path temp = Files.createTempFile(backupDirectory.resolve(OBJECTS), "incoming-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest);
+                    OutputStream out = Files.newOutputStream(temp)) {
+                size = in.transferTo(out);
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            manifest.setFilesRead(manifest.getFilesRead() + 1);
+
+            Path blob = blobPath(sha256);
+            if (!Files.exists(blob)) {
+                Files.createDirectories(blob.getParent());
+                try {
+                    Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, blob, StandardCopyOption.REPLACE_EXISTING);
+                }
+                manifest.setBlobsWritten(manifest.getBlobsWritten() + 1);
+                manifest.setBytesWritten(manifest.getBytesWritten() + size);
+            }
+            return new FileEntry(relative, size, modified, sha256);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeManifest(Manifest manifest) throws IOException {
+        manifest.getFiles().sort(Comparator.comparing(FileEntry::getPath));
+        Path file = manifestPath(manifest.getId());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), manifest);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<Path> listDataFiles() throws IOException {
+        if (!Files.isDirectory(dataDirectory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.walk(dataDirectory)) {
+            return files.filter(path -> !path.startsWith(backupDirectory))
+                    .filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().endsWith(FileHandler.TEMP_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private String relativePath(Path file) {
+        return dataDirectory.relativize(file).toString().replace('\\', '/');
+    }
+
+    // Millisecond timestamps, made unique if two backups start in the same millisecond
+    private String nextId(long createdAt) {
+        String id = String.valueOf(createdAt);
+        int suffix = 1;
+        while (Files.exists(manifestPath(id)) || Files.exists(archivePath(id))) {
+            id = createdAt + "-" + suffix++;
+        }
+        return id;
+    }
+
+    static String hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // BackupStore backup|list|prune|verify <id>|restore <id> <dir>, for the configured data directory
+    public static void main(String[] args) throws IOException {
+        String dataDirectory = AppConfig.getDataDirectory();
+        BackupStore store = new BackupStore(Path.of(dataDirectory), Path.of(dataDirectory, "backups"));
+        String command = args.length > 0 ? args[0] : "list";
+        switch (command) {
+            case "backup" -> System.out.println(store.createBackup().getId());
+            case "prune" -> System.out.println(BackupRetention.fromConfig().apply(store));
+            case "list" -> {
+                for (String id : store.listBackups()) {
+                    Manifest manifest = store.readManifest(id);
+                    System.out.printf("%s  %d files  %d bytes%s%n", id, manifest.getFiles().size(),
+                            manifest.getTotalBytes(), store.isArchived(id) ? "  (archived)" : "");
+                }
+            }
+            case "verify" -> {
+                List<String> ids = args.length > 1 ? List.of(args[1]) : store.listBackups();
+                boolean valid = true;
+                for (String id : ids) {
+                    VerifyResult result = store.verify(id);
+                    System.out.println(result);
+                    valid &= result.isValid();
+                }
+                System.exit(valid ? 0 : 1);
+            }
+            case "restore" -> {
+                if (args.length < 3) {
+                    System.err.println("Usage: BackupStore restore <id> <target directory>");
+                    System.exit(2);
+                }
+                store.restore(args[1], Path.of(args[2]));
+            }
+            default -> {
+                System.err.println("Usage: BackupStore backup|list|prune|verify [id]|restore <id> <dir>");
+                System.exit(2);
+            }
+        }
+    }
+}
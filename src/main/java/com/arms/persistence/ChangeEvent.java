@@ -0,0 +1,82 @@
+package com.arms.persistence;
+
+/*
+ * Notification that an entity was saved or deleted. The entity is its state
+ * after a save and the removed instance after a delete. RESET means changes
+ * were not tracked individually (bulk load, subscriber buffer overflow) and
+ * the subscriber should reload everything it shows.
+ */
+public class ChangeEvent {
+
+    public static final String USERS = DataManager.USERS;
+    public static final String COURSES = DataManager.COURSES;
+    public static final String ASSIGNMENTS = DataManager.ASSIGNMENTS;
+    public static final String GRADES = DataManager.GRADES;
+    public static final String ENROLLMENTS = DataManager.ENROLLMENTS;
+
+    public enum Op {
+        SAVED,
+        DELETED,
+        RESET
+    }
+
+    private static final ChangeEvent RESET_EVENT = new ChangeEvent(Op.RESET, null, null, null);
+
+    private final Op op;
+    private final String type;
+    private final String id;
+    private final Object entity;
+
+    private ChangeEvent(Op op, String type, String id, Object entity) {
+        this.op = op;
+        this.type = type;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    static ChangeEvent saved(String type, String id, Object entity) {
+        return new ChangeEvent(Op.SAVED, type, id, entity);
+    }
+
+    static ChangeEvent deleted(String type, String id, Object entity) {
+        return new ChangeEvent(Op.DELETED, type, id, entity);
+    }
+
+    static ChangeEvent reset() {
+        return RESET_EVENT;
+    }
+
+    public Op getOp() {
+        return op;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    public boolean isReset() {
+        return op == Op.RESET;
+    }
+
+    public boolean isDelete() {
+        return op == Op.DELETED;
+    }
+
+    // Events with the same key coalesce in a subscriber's buffer
+    String key() {
+        return isReset() ? "" : type + "/" + id;
+    }
+
+    @Override
+    public String toString() {
+        return isReset() ? "RESET" : op + " " + type + "/" + id;
+    }
+}
@@ -0,0 +1,181 @@
+package com.arms.persistence;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arms.util.Logger;
+
+/*
+ * Flow publisher of DataManager change events.
+ *
+ * Every subscriber has its own buffer keyed by entity, so repeated changes to one
+ * entity that the subscriber has not consumed yet collapse into the latest one,
+ * and a slow subscriber never holds up writers or other subscribers. A buffer
+ * that still outgrows its capacity is replaced by a single RESET event. Events
+ * are delivered on one daemon thread, in order of each entity's latest change,
+ * and only as far as the subscriber has requested.
+ */
+public class ChangeEventBus implements Flow.Publisher<ChangeEvent> {
+
+    private final int bufferCapacity;
+    private final List<BufferedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "arms-change-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    public ChangeEventBus(int bufferCapacity) {
+        this.bufferCapacity = Math.max(1, bufferCapacity);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ChangeEvent> subscriber) {
+        BufferedSubscription subscription = new BufferedSubscription(subscriber);
+        subscriptions.add(subscription);
+        executor.execute(() -> subscriber.onSubscribe(subscription));
+    }
+
+    void publish(ChangeEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        published.increment();
+        for (BufferedSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    void close() {
+        for (BufferedSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+        executor.shutdown();
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+
+    private class BufferedSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ChangeEvent> subscriber;
+        private final LinkedHashMap<String, ChangeEvent> pending = new LinkedHashMap<>();
+        private long demand;
+        private boolean draining;
+        private boolean cancelled;
+
+        BufferedSubscription(Flow.Subscriber<? super ChangeEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        synchronized void offer(ChangeEvent event) {
+            if (cancelled || pending.containsKey(ChangeEvent.reset().key())) {
+                return;
+            }
+            if (pending.remove(event.key()) != null) {
+                coalesced.increment();
+            }
+            if (pending.size() >= bufferCapacity) {
+                overflows.increment();
+                pending.clear();
+                event = ChangeEvent.reset();
+            }
+            pending.put(event.key(), event);
+            scheduleDrain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                scheduleDrain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        void complete() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+            executor.execute(subscriber::onComplete);
+        }
+
+        // Caller holds the monitor; at most one drain per subscription runs at a time
+        private void scheduleDrain() {
+            if (!draining && demand > 0 && !pending.isEmpty()) {
+                draining = true;
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                ChangeEvent next;
+                synchronized (this) {
+                    if (cancelled || demand == 0 || pending.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                    Iterator<ChangeEvent> iterator = pending.values().iterator();
+                    next = iterator.next();
+                    iterator.remove();
+                    demand--;
+                }
+                try {
+                    subscriber.onNext(next);
+                    delivered.increment();
+                } catch (RuntimeException e) {
+                    Logger.error("Change event subscriber failed, cancelling its subscription", e);
+                    cancel();
+                    subscriber.onError(e);
+                }
+            }
+        }
+    }
+}
@@ -1,21 +1,29 @@
 package com.arms.persistence;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
-import org.mindrot.jbcrypt.BCrypt;
-
+import com.arms.config.AppConfig;
 import com.arms.domain.Admin;
 import com.arms.domain.Assignment;
 import com.arms.domain.Course;
@@ -27,6 +35,7 @@ import com.arms.domain.User;
 import com.arms.domain.enums.UserRole;
 import com.arms.domain.enums.UserStatus;
 import com.arms.util.Logger;
+import com.arms.util.PasswordPolicy;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -34,7 +43,14 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 public class DataManager {
 
+    static final String USERS = "users";
+    static final String COURSES = "courses";
+    static final String ASSIGNMENTS = "assignments";
+    static final String GRADES = "grades";
+    static final String ENROLLMENTS = "enrollments";
+
     private static DataManager instance;
+    private static volatile ParallelDataLoader.ProgressListener loadProgressListener;
 
     private final Map<String, User> users = new ConcurrentHashMap<>();
     private final Map<String, Course> courses = new ConcurrentHashMap<>();
@@ -62,11 +78,72 @@ public class DataManager {
         return enrollments;
     }
 
+    // Secondary indexes, maintained together with the maps in the save/delete paths
+    private final UniqueIndex<User> usersByUsername = new UniqueIndex<>(User::getUsername);
+    private final UniqueIndex<User> usersByEmail = new UniqueIndex<>(User::getEmail);
+    private final SecondaryIndex<Course> coursesByTeacher = new SecondaryIndex<>(Course::getTeacherId);
+    private final SecondaryIndex<Assignment> assignmentsByCourse = new SecondaryIndex<>(Assignment::getCourseId);
+    private final SecondaryIndex<Grade> gradesByStudent = new SecondaryIndex<>(Grade::getStudentId);
+    private final SecondaryIndex<Grade> gradesByCourse = new SecondaryIndex<>(Grade::getCourseId);
+    private final SecondaryIndex<Grade> gradesByAssignment = new SecondaryIndex<>(Grade::getAssignmentId);
+    private final SecondaryIndex<Grade> gradesByStudentAndAssignment = new SecondaryIndex<>(
+            grade -> SecondaryIndex.compositeKey(grade.getStudentId(), grade.getAssignmentId()));
+    private final SecondaryIndex<Grade> gradesByStudentAndCourse = new SecondaryIndex<>(
+            grade -> SecondaryIndex.compositeKey(grade.getStudentId(), grade.getCourseId()));
+    private final SecondaryIndex<Enrollment> enrollmentsByStudent = new SecondaryIndex<>(Enrollment::getStudentId);
+    private final SecondaryIndex<Enrollment> enrollmentsByCourse = new SecondaryIndex<>(Enrollment::getCourseId);
+    private final SecondaryIndex<Enrollment> enrollmentsByStudentAndCourse = new SecondaryIndex<>(
+            enrollment -> SecondaryIndex.compositeKey(enrollment.getStudentId(), enrollment.getCourseId()));
+    private final GradeAggregates gradeAggregates = new GradeAggregates();
+    private final TextIndex<User> userText = new TextIndex<User>()
+            .field(User::getUsername, 4)
+            .field(User::getFirstName, 3)
+            .field(User::getLastName, 3)
+            .field(User::getEmail, 2);
+    private final TextIndex<Course> courseText = new TextIndex<Course>()
+            .field(Course::getCourseCode, 4)
+            .field(Course::getTitle, 3)
+            .field(Course::getDepartment, 2)
+            .field(Course::getDescription, 1);
+
     private final ObjectMapper objectMapper;
-    private final String dataDirectory = "data/";
+    private final String dataDirectory = AppConfig.getDataDirectory();
     private final ScheduledExecutorService autoSaveScheduler;
     private volatile boolean isDirty = false;
 
+    // Write-ahead journal mode: saves append to the journal and entity files are
+    // rewritten by the write-behind queue; checkpoints truncate the journal
+    private final boolean journalEnabled = AppConfig.getBooleanProperty("app.journal.enabled", true);
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final WriteBehindQueue writeBehind;
+    private Journal journal;
+
+    // Change notifications for UI and other listeners, published after each mutation
+    private final ChangeEventBus changeEvents = new ChangeEventBus(AppConfig.getIntProperty("app.events.buffer.size", 10000));
+
+    // Entity locks for transactions, see beginTransaction()
+    private final LockStripes entityLocks = new LockStripes(AppConfig.getIntProperty("app.tx.lock.stripes", 256));
+
+    // Run at the start of shutdown, while saves are still journaled
+    private final List<Runnable> shutdownTasks = new CopyOnWriteArrayList<>();
+
+    // Binary snapshot of the whole store, only usable together with the journal
+    private SnapshotStore snapshotStore;
+    private volatile long lastSnapshotAt = System.currentTimeMillis();
+
+    // Incremental, content-addressed backups of the data directory, taken at most
+    // every app.backup.interval.hours and pruned by the retention policy after each
+    private final BackupStore backupStore = new BackupStore(Paths.get(dataDirectory),
+            Paths.get(dataDirectory + "backups/"));
+    private final BackupRetention backupRetention = BackupRetention.fromConfig();
+    private final boolean backupEnabled = AppConfig.getBooleanProperty("app.backup.enabled", true);
+    private final long backupIntervalMillis = TimeUnit.HOURS.toMillis(
+            Math.max(0, AppConfig.getIntProperty("app.backup.interval.hours", 24)));
+    private volatile long lastBackupAt;
+    private volatile boolean backupPending = false;
+    private final AtomicBoolean restoring = new AtomicBoolean();
+    private final List<Runnable> restoreListeners = new CopyOnWriteArrayList<>();
+
     private DataManager() {
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -75,19 +152,66 @@ public class DataManager {
         // Ignore unknown properties from older/alternate JSON shapes
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
+        writeBehind = new WriteBehindQueue(
+                (type, id) -> mapFor(type).get(id),
+                AppConfig.getIntProperty("app.writebehind.max.delay.ms", 500),
+                AppConfig.getIntProperty("app.writebehind.batch.size", 500),
+                WriteBehindQueue.FsyncPolicy.valueOf(
+                        AppConfig.getProperty("app.writebehind.fsync", "NONE").toUpperCase()));
+
         createDataDirectory();
-        loadAllData();
+        openJournal();
+        long replayFrom = loadSnapshot();
+        if (replayFrom < 0) {
+            loadAllData();
+            replayFrom = journal == null ? 0 : journal.getCheckpointLsn();
+        }
+        rebuildIndexes();
+        replayJournal(replayFrom);
+        seedIdGenerator();
         // Seed sample data if empty
         seedSampleDataIfEmpty();
 
         // Auto-save every 5 minutes
         autoSaveScheduler = Executors.newSingleThreadScheduledExecutor();
         autoSaveScheduler.scheduleAtFixedRate(this::autoSave, 5, 5, TimeUnit.MINUTES);
+        if (backupEnabled) {
+            try {
+                List<String> backups = backupStore.listBackups();
+                lastBackupAt = backups.isEmpty() ? 0 : BackupStore.createdAtOf(backups.get(backups.size() - 1));
+            } catch (IOException e) {
+                Logger.error("Failed to read the latest backup", e);
+            }
+            autoSaveScheduler.schedule(this::applyBackupRetention, 1, TimeUnit.MINUTES);
+        }
+        if (journal != null) {
+            long interval = AppConfig.getIntProperty("app.journal.checkpoint.interval.seconds", 60);
+            autoSaveScheduler.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.SECONDS);
+        }
 
         // Shutdown hook for graceful shutdown
         Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
     }
 
+    // The ID counter restarts from the clock, which may be behind IDs already handed
+    // out, so it is moved past the highest ID in the loaded store
+    private void seedIdGenerator() {
+        long highest = -1;
+        for (Map<String, ?> map : List.of(users, courses, assignments, grades, enrollments)) {
+            for (String id : map.keySet()) {
+                highest = Math.max(highest, MonotonicIdGenerator.decode(id));
+            }
+        }
+        if (highest >= 0) {
+            MonotonicIdGenerator.getInstance().advancePast(highest);
+        }
+    }
+
+    // Must be set before the first getInstance() call, e.g. by a splash screen
+    public static void setLoadProgressListener(ParallelDataLoader.ProgressListener listener) {
+        loadProgressListener = listener;
+    }
+
     public static synchronized DataManager getInstance() {
         if (instance == null) {
             instance = new DataManager();
@@ -110,98 +234,546 @@ public class DataManager {
     }
 
     private void loadAllData() {
-        loadUsers();
-        loadCourses();
-        loadAssignments();
-        loadGrades();
-        loadEnrollments();
+        int threads = AppConfig.getIntProperty("app.loader.threads",
+                Runtime.getRuntime().availableProcessors());
+        ParallelDataLoader loader = new ParallelDataLoader(Paths.get(dataDirectory), objectMapper, threads);
+        loader.register(USERS, User.class, User::getId, users);
+        loader.register(COURSES, Course.class, Course::getId, courses);
+        loader.register(ASSIGNMENTS, Assignment.class, Assignment::getId, assignments);
+        loader.register(GRADES, Grade.class, Grade::getId, grades);
+        loader.register(ENROLLMENTS, Enrollment.class, Enrollment::getId, enrollments);
+        loader.load(loadProgressListener);
         Logger.info("Data loaded successfully");
     }
 
-    private void loadUsers() {
+    private void openJournal() {
+        if (!journalEnabled) {
+            return;
+        }
         try {
-            Path usersDir = Paths.get(dataDirectory + "users/");
-            if (Files.exists(usersDir)) {
-                Files.list(usersDir)
-                        .filter(path -> path.toString().endsWith(".json"))
-                        .forEach(this::loadUser);
+            long segmentSize = AppConfig.getIntProperty("app.journal.segment.size.mb", 16) * 1024L * 1024L;
+            long syncInterval = AppConfig.getIntProperty("app.journal.sync.interval.ms", 200);
+            journal = Journal.open(Paths.get(dataDirectory + "journal/"), objectMapper, segmentSize, syncInterval);
+            if (backupEnabled) {
+                // Backups plus the archived journal allow point-in-time restores
+                journal.setArchiveDirectory(Paths.get(dataDirectory + "backups/journal/"));
+            }
+            if (AppConfig.getBooleanProperty("app.snapshot.enabled", true)) {
+                snapshotStore = new SnapshotStore(Paths.get(dataDirectory + "snapshot/store.snap"), objectMapper);
             }
         } catch (IOException e) {
-            Logger.error("Failed to load users", e);
+            Logger.error("Failed to open journal, falling back to direct file writes", e);
+            journal = null;
         }
     }
 
-    private void loadUser(Path filePath) {
+    // Boots from the snapshot when the journal still holds every record after it;
+    // returns the snapshot LSN, or -1 when the JSON files must be loaded instead
+    private long loadSnapshot() {
+        if (snapshotStore == null || !snapshotStore.exists()) {
+            return -1;
+        }
         try {
-            User user = objectMapper.readValue(filePath.toFile(), User.class);
-            users.put(user.getId(), user);
-        } catch (IOException e) {
-            Logger.error("Failed to load user from: " + filePath, e);
+            long lsn = snapshotStore.readLsn();
+            if (lsn > journal.getLastLsn() || lsn + 1 < journal.getFirstRetainedLsn()) {
+                Logger.info("Snapshot at LSN " + lsn + " is stale, loading JSON files");
+                return -1;
+            }
+            long start = System.nanoTime();
+            snapshotStore.read(users, courses, assignments, grades, enrollments);
+            journal.retainAfter(lsn);
+            Logger.info(String.format("Loaded snapshot at LSN %d (%d users, %d courses, %d grades) in %d ms",
+                    lsn, users.size(), courses.size(), grades.size(), (System.nanoTime() - start) / 1_000_000));
+            return lsn;
+        } catch (IOException | RuntimeException e) {
+            Logger.error("Failed to load snapshot, loading JSON files", e);
+            users.clear();
+            courses.clear();
+            assignments.clear();
+            grades.clear();
+            enrollments.clear();
+            return -1;
         }
     }
 
-    private void loadCourses() {
+    private void replayJournal(long afterLsn) {
+        if (journal == null) {
+            return;
+        }
         try {
-            List<Course> loaded = FileHandler.getInstance().loadAllCourses();
-            for (Course c : loaded) {
-                courses.put(c.getId(), c);
+            int[] replayed = {0};
+            journal.replay(afterLsn, record -> {
+                applyJournalRecord(record);
+                replayed[0]++;
+            });
+            if (replayed[0] > 0) {
+                Logger.info("Recovered " + replayed[0] + " journal records");
+                checkpoint();
             }
         } catch (IOException e) {
-            Logger.error("Failed to load courses", e);
+            Logger.error("Failed to replay journal", e);
         }
     }
 
-    private void loadAssignments() {
+    private void applyJournalRecord(JournalRecord record) {
         try {
-            List<Assignment> loaded = FileHandler.getInstance().loadAllAssignments();
-            for (Assignment a : loaded) {
-                assignments.put(a.getId(), a);
+            Map<String, ?> map = mapFor(record.getType());
+            if (record.isDelete()) {
+                synchronized (map) {
+                    map.remove(record.getId());
+                    index(record.getType(), record.getId(), null);
+                }
+            } else {
+                putRaw(record.getType(), objectMapper.treeToValue(record.getData(), classFor(record.getType())));
             }
+            writeBehind.enqueue(record.getType(), record.getId());
         } catch (IOException e) {
-            Logger.error("Failed to load assignments", e);
+            Logger.error("Failed to replay journal record " + record.getLsn(), e);
+        }
+    }
+
+    private Map<String, ?> mapFor(String type) {
+        switch (type) {
+            case USERS:
+                return users;
+            case COURSES:
+                return courses;
+            case ASSIGNMENTS:
+                return assignments;
+            case GRADES:
+                return grades;
+            case ENROLLMENTS:
+                return enrollments;
+            default:
+                throw new IllegalArgumentException("Unknown entity type: " + type);
+        }
+    }
+
+    static Class<?> classFor(String type) {
+        switch (type) {
+            case USERS:
+                return User.class;
+            case COURSES:
+                return Course.class;
+            case ASSIGNMENTS:
+                return Assignment.class;
+            case GRADES:
+                return Grade.class;
+            case ENROLLMENTS:
+                return Enrollment.class;
+            default:
+                throw new IllegalArgumentException("Unknown entity type: " + type);
+        }
+    }
+
+    private void putRaw(String type, Object entity) {
+        if (entity instanceof User user) {
+            synchronized (users) {
+                users.put(user.getId(), user);
+                index(USERS, user.getId(), user);
+            }
+        } else if (entity instanceof Course course) {
+            synchronized (courses) {
+                courses.put(course.getId(), course);
+                index(COURSES, course.getId(), course);
+            }
+        } else if (entity instanceof Assignment assignment) {
+            synchronized (assignments) {
+                assignments.put(assignment.getId(), assignment);
+                index(ASSIGNMENTS, assignment.getId(), assignment);
+            }
+        } else if (entity instanceof Grade grade) {
+            synchronized (grades) {
+                grades.put(grade.getId(), grade);
+                index(GRADES, grade.getId(), grade);
+            }
+        } else if (entity instanceof Enrollment enrollment) {
+            synchronized (enrollments) {
+                enrollments.put(enrollment.getId(), enrollment);
+                index(ENROLLMENTS, enrollment.getId(), enrollment);
+            }
+        }
+    }
+
+    static String typeOf(Object entity) {
+        if (entity instanceof User) {
+            return USERS;
+        } else if (entity instanceof Course) {
+            return COURSES;
+        } else if (entity instanceof Assignment) {
+            return ASSIGNMENTS;
+        } else if (entity instanceof Grade) {
+            return GRADES;
+        } else if (entity instanceof Enrollment) {
+            return ENROLLMENTS;
+        }
+        throw new IllegalArgumentException("Unknown entity: " + entity.getClass().getName());
+    }
+
+    static String idOf(Object entity) {
+        if (entity instanceof User user) {
+            return user.getId();
+        } else if (entity instanceof Course course) {
+            return course.getId();
+        } else if (entity instanceof Assignment assignment) {
+            return assignment.getId();
+        } else if (entity instanceof Grade grade) {
+            return grade.getId();
+        } else if (entity instanceof Enrollment enrollment) {
+            return enrollment.getId();
         }
+        throw new IllegalArgumentException("Unknown entity: " + entity.getClass().getName());
     }
 
-    private void loadGrades() {
+    // Updates the secondary indexes of one entity; a null entity removes it
+    private void index(String type, String id, Object entity) {
+        switch (type) {
+            case USERS:
+                if (entity == null) {
+                    usersByUsername.remove(id);
+                    usersByEmail.remove(id);
+                    userText.remove(id);
+                } else {
+                    usersByUsername.put(id, (User) entity);
+                    usersByEmail.put(id, (User) entity);
+                    userText.put(id, (User) entity);
+                }
+                break;
+            case COURSES:
+                if (entity == null) {
+                    coursesByTeacher.remove(id);
+                    courseText.remove(id);
+                } else {
+                    coursesByTeacher.put(id, (Course) entity);
+                    courseText.put(id, (Course) entity);
+                }
+                break;
+            case ASSIGNMENTS:
+                if (entity == null) {
+                    assignmentsByCourse.remove(id);
+                } else {
+                    assignmentsByCourse.put(id, (Assignment) entity);
+                }
+                break;
+            case GRADES:
+                if (entity == null) {
+                    gradesByStudent.remove(id);
+                    gradesByCourse.remove(id);
+                    gradesByAssignment.remove(id);
+                    gradesByStudentAndAssignment.remove(id);
+                    gradesByStudentAndCourse.remove(id);
+                    gradeAggregates.remove(id);
+                } else {
+                    Grade grade = (Grade) entity;
+                    gradesByStudent.put(id, grade);
+                    gradesByCourse.put(id, grade);
+                    gradesByAssignment.put(id, grade);
+                    gradesByStudentAndAssignment.put(id, grade);
+                    gradesByStudentAndCourse.put(id, grade);
+                    gradeAggregates.put(id, grade);
+                }
+                break;
+            case ENROLLMENTS:
+                if (entity == null) {
+                    enrollmentsByStudent.remove(id);
+                    enrollmentsByCourse.remove(id);
+                    enrollmentsByStudentAndCourse.remove(id);
+                } else {
+                    Enrollment enrollment = (Enrollment) entity;
+                    enrollmentsByStudent.put(id, enrollment);
+                    enrollmentsByCourse.put(id, enrollment);
+                    enrollmentsByStudentAndCourse.put(id, enrollment);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Rebuilds every secondary index from the maps, e.g. after a bulk load that
+    // filled the maps directly
+    public void rebuildIndexes() {
+        synchronized (users) {
+            usersByUsername.clear();
+            usersByEmail.clear();
+            userText.clear();
+            users.forEach((id, user) -> {
+                if (!isUnique(USERS, id, user)) {
+                    Logger.warn("Duplicate username or email in stored user: " + id);
+                }
+                index(USERS, id, user);
+            });
+        }
+        synchronized (courses) {
+            coursesByTeacher.clear();
+            courseText.clear();
+            courses.forEach((id, course) -> index(COURSES, id, course));
+        }
+        synchronized (assignments) {
+            assignmentsByCourse.clear();
+            assignments.forEach((id, assignment) -> index(ASSIGNMENTS, id, assignment));
+        }
+        synchronized (grades) {
+            gradesByStudent.clear();
+            gradesByCourse.clear();
+            gradesByAssignment.clear();
+            gradesByStudentAndAssignment.clear();
+            gradesByStudentAndCourse.clear();
+            gradeAggregates.clear();
+            grades.forEach((id, grade) -> index(GRADES, id, grade));
+        }
+        synchronized (enrollments) {
+            enrollmentsByStudent.clear();
+            enrollmentsByCourse.clear();
+            enrollmentsByStudentAndCourse.clear();
+            enrollments.forEach((id, enrollment) -> index(ENROLLMENTS, id, enrollment));
+        }
+    }
+
+    // Unique constraints; callers hold the monitor of the entity's map
+    private boolean isUnique(String type, String id, Object entity) {
+        if (USERS.equals(type)) {
+            User user = (User) entity;
+            return usersByUsername.isAvailable(id, user) && usersByEmail.isAvailable(id, user);
+        }
+        return true;
+    }
+
+    // Journals a mutation, applies it to the in-memory map and marks the entity for
+    // write-behind, all under the checkpoint read lock so a checkpoint never truncates
+    // a record whose file write has not been queued yet. The record is serialized up
+    // front but appended under the map monitor, so a mutation rejected by a unique
+    // constraint is never journaled. Returns false on such a rejection.
+    private <T> boolean put(String type, Map<String, T> map, String id, T entity) throws IOException {
+        checkpointLock.readLock().lock();
+        try {
+            byte[] record = journal == null ? null : journal.encode(JournalRecord.OP_PUT, type, id, entity);
+            synchronized (map) {
+                if (!isUnique(type, id, entity)) {
+                    return false;
+                }
+                if (record != null) {
+                    journal.append(record);
+                }
+                map.put(id, entity);
+                index(type, id, entity);
+            }
+            writeBehind.enqueue(type, id);
+            changeEvents.publish(ChangeEvent.saved(type, id, entity));
+            return true;
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private <T> void remove(String type, Map<String, T> map, String id) throws IOException {
+        checkpointLock.readLock().lock();
         try {
-            List<Grade> loaded = FileHandler.getInstance().loadAllGrades();
-            for (Grade g : loaded) {
-                grades.put(g.getId(), g);
+            byte[] record = journal == null ? null : journal.encode(JournalRecord.OP_DELETE, type, id, null);
+            T removed;
+            synchronized (map) {
+                if (record != null) {
+                    journal.append(record);
+                }
+                removed = map.remove(id);
+                index(type, id, null);
             }
+            writeBehind.enqueue(type, id);
+            if (removed != null) {
+                changeEvents.publish(ChangeEvent.deleted(type, id, removed));
+            }
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    // Opens a transaction holding the locks of the given entity keys (UnitOfWork.courseKey
+    // etc.) until it is closed; other transactions naming the same entities wait
+    public UnitOfWork beginTransaction(String... lockKeys) {
+        return new UnitOfWork(this, entityLocks, lockKeys);
+    }
+
+    // Applies a transaction: one journal record, then every map change under the monitors
+    // of all maps involved, taken in the fixed USERS..ENROLLMENTS order like put() does
+    boolean commit(List<Mutation> mutations) {
+        if (mutations.isEmpty()) {
+            return true;
+        }
+        checkpointLock.readLock().lock();
+        try {
+            byte[] record = journal == null ? null : journal.encodeTransaction(mutations);
+            List<String> types = new ArrayList<>();
+            for (String type : new String[] { USERS, COURSES, ASSIGNMENTS, GRADES, ENROLLMENTS }) {
+                if (mutations.stream().anyMatch(mutation -> mutation.type.equals(type))) {
+                    types.add(type);
+                }
+            }
+            List<ChangeEvent> events = new ArrayList<>(mutations.size());
+            if (!applyLocked(types, 0, mutations, record, events)) {
+                return false;
+            }
+            for (Mutation mutation : mutations) {
+                writeBehind.enqueue(mutation.type, mutation.id);
+            }
+            events.forEach(changeEvents::publish);
         } catch (IOException e) {
-            Logger.error("Failed to load grades", e);
+            Logger.error("Failed to commit transaction of " + mutations.size() + " changes", e);
+            return false;
+        } finally {
+            checkpointLock.readLock().unlock();
         }
+        markDirty();
+        return true;
     }
 
-    private void loadEnrollments() {
+    @SuppressWarnings("unchecked")
+    private boolean applyLocked(List<String> types, int depth, List<Mutation> mutations, byte[] record,
+            List<ChangeEvent> events) throws IOException {
+        if (depth < types.size()) {
+            synchronized (mapFor(types.get(depth))) {
+                return applyLocked(types, depth + 1, mutations, record, events);
+            }
+        }
+        for (Mutation mutation : mutations) {
+            if (!mutation.isDelete() && !isUnique(mutation.type, mutation.id, mutation.entity)) {
+                Logger.warn("Transaction rejected by unique constraint on " + mutation.type + "/" + mutation.id);
+                return false;
+            }
+        }
+        if (record != null) {
+            journal.append(record);
+        }
+        for (Mutation mutation : mutations) {
+            Map<String, Object> map = (Map<String, Object>) mapFor(mutation.type);
+            if (mutation.isDelete()) {
+                Object removed = map.remove(mutation.id);
+                if (removed != null) {
+                    events.add(ChangeEvent.deleted(mutation.type, mutation.id, removed));
+                }
+            } else {
+                map.put(mutation.id, mutation.entity);
+                events.add(ChangeEvent.saved(mutation.type, mutation.id, mutation.entity));
+            }
+            index(mutation.type, mutation.id, mutation.entity);
+        }
+        return true;
+    }
+
+    // Bulk path for generated datasets: entities go straight into the maps and indexes
+    // without journal records or unique checks. With persist set, their files are
+    // written by the write-behind queue; call flush() before relying on them.
+    public void bulkInsert(Collection<?> entities, boolean persist) {
+        checkpointLock.readLock().lock();
         try {
-            List<Enrollment> loaded = FileHandler.getInstance().loadAllEnrollments();
-            for (Enrollment en : loaded) {
-                enrollments.put(en.getId(), en);
+            for (Object entity : entities) {
+                String type = typeOf(entity);
+                putRaw(type, entity);
+                if (persist) {
+                    writeBehind.enqueue(type, idOf(entity));
+                }
             }
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        changeEvents.publish(ChangeEvent.reset());
+        if (persist) {
+            markDirty();
+        }
+    }
+
+    // Saves and deletes as they happen; subscribers patch their views instead of reloading
+    public ChangeEventBus getChangeEvents() {
+        return changeEvents;
+    }
+
+    // Blocks until every mutation made so far has reached the entity files
+    public boolean flush() {
+        return writeBehind.flush();
+    }
+
+    public void awaitDurable() {
+        writeBehind.awaitDurable();
+    }
+
+    // Folds journaled mutations into the per-entity JSON files and truncates the journal.
+    // Runs on a fixed-delay schedule, which an escaping exception would cancel
+    public void checkpoint() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            runCheckpoint();
+        } catch (RuntimeException e) {
+            Logger.error("Checkpoint failed", e);
+        }
+    }
+
+    private void runCheckpoint() {
+        long lsn;
+        checkpointLock.writeLock().lock();
+        try {
+            lsn = journal.rotate();
+        } catch (IOException e) {
+            Logger.error("Failed to rotate journal for checkpoint", e);
+            return;
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+
+        // flush() forces every file and directory touched since the last sync, whatever
+        // the fsync policy, so the entries dropped below are on disk in the entity files
+        if (!writeBehind.flush()) {
+            Logger.warn("Checkpoint deferred: some entity writes are pending retry");
+            return;
+        }
+        long snapshotInterval = TimeUnit.MINUTES.toMillis(AppConfig.getIntProperty("app.snapshot.interval.minutes", 30));
+        if (System.currentTimeMillis() - lastSnapshotAt >= snapshotInterval) {
+            writeSnapshot(lsn);
+        }
+        try {
+            journal.checkpoint(lsn);
+            Logger.debug(() -> "Journal checkpoint at LSN " + lsn);
         } catch (IOException e) {
-            Logger.error("Failed to load enrollments", e);
+            Logger.error("Failed to record journal checkpoint", e);
+        }
+    }
+
+    // The snapshot may include mutations newer than its LSN; replaying full-state
+    // journal records over it is idempotent, so a fuzzy snapshot is still correct
+    private void writeSnapshot(long lsn) {
+        if (snapshotStore == null) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            snapshotStore.write(lsn, users, courses, assignments, grades, enrollments);
+            journal.retainAfter(lsn);
+            lastSnapshotAt = System.currentTimeMillis();
+            Logger.info("Snapshot written at LSN " + lsn + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException | RuntimeException e) {
+            Logger.error("Failed to write snapshot", e);
         }
     }
 
-    // Similar load methods for courses, assignments, grades, enrollments...
-    public void saveUser(User user) {
+    // Returns false if the username or email is taken by another user, or on I/O failure
+    public boolean saveUser(User user) {
         try {
-            String fileName = dataDirectory + "users/" + user.getId() + ".json";
-            objectMapper.writeValue(new File(fileName), user);
-            users.put(user.getId(), user);
+            if (!put(USERS, users, user.getId(), user)) {
+                Logger.warn("User not saved, username or email already in use: " + user.getUsername());
+                return false;
+            }
             markDirty();
-            Logger.debug("User saved: " + user.getUsername());
+            Logger.debug(() -> "User saved: " + user.getUsername());
+            return true;
         } catch (IOException e) {
             Logger.error("Failed to save user: " + user.getUsername(), e);
+            return false;
         }
     }
 
     public void deleteUser(String userId) {
         try {
-            String fileName = dataDirectory + "users/" + userId + ".json";
-            Files.deleteIfExists(Paths.get(fileName));
-            users.remove(userId);
+            remove(USERS, users, userId);
             markDirty();
             Logger.info("User deleted: " + userId);
         } catch (IOException e) {
@@ -211,10 +783,9 @@ public class DataManager {
 
     public void saveCourse(Course course) {
         try {
-            FileHandler.getInstance().saveCourse(course);
-            courses.put(course.getId(), course);
+            put(COURSES, courses, course.getId(), course);
             markDirty();
-            Logger.debug("Course saved: " + course.getCourseCode());
+            Logger.debug(() -> "Course saved: " + course.getCourseCode());
         } catch (IOException e) {
             Logger.error("Failed to save course: " + course.getCourseCode(), e);
         }
@@ -222,8 +793,7 @@ public class DataManager {
 
     public void deleteCourse(String courseId) {
         try {
-            FileHandler.getInstance().deleteCourse(courseId);
-            courses.remove(courseId);
+            remove(COURSES, courses, courseId);
             markDirty();
             Logger.info("Course deleted: " + courseId);
         } catch (IOException e) {
@@ -233,10 +803,9 @@ public class DataManager {
 
     public void saveAssignment(Assignment assignment) {
         try {
-            FileHandler.getInstance().saveAssignment(assignment);
-            assignments.put(assignment.getId(), assignment);
+            put(ASSIGNMENTS, assignments, assignment.getId(), assignment);
             markDirty();
-            Logger.debug("Assignment saved: " + assignment.getTitle());
+            Logger.debug(() -> "Assignment saved: " + assignment.getTitle());
         } catch (IOException e) {
             Logger.error("Failed to save assignment: " + assignment.getTitle(), e);
         }
@@ -244,8 +813,7 @@ public class DataManager {
 
     public void deleteAssignment(String assignmentId) {
         try {
-            FileHandler.getInstance().deleteAssignment(assignmentId);
-            assignments.remove(assignmentId);
+            remove(ASSIGNMENTS, assignments, assignmentId);
             markDirty();
             Logger.info("Assignment deleted: " + assignmentId);
         } catch (IOException e) {
@@ -255,10 +823,9 @@ public class DataManager {
 
     public void saveGrade(Grade grade) {
         try {
-            FileHandler.getInstance().saveGrade(grade);
-            grades.put(grade.getId(), grade);
+            put(GRADES, grades, grade.getId(), grade);
             markDirty();
-            Logger.debug("Grade saved: " + grade.getId());
+            Logger.debug(() -> "Grade saved: " + grade.getId());
         } catch (IOException e) {
             Logger.error("Failed to save grade: " + grade.getId(), e);
         }
@@ -266,8 +833,7 @@ public class DataManager {
 
     public void deleteGrade(String gradeId) {
         try {
-            FileHandler.getInstance().deleteGrade(gradeId);
-            grades.remove(gradeId);
+            remove(GRADES, grades, gradeId);
             markDirty();
             Logger.info("Grade deleted: " + gradeId);
         } catch (IOException e) {
@@ -277,10 +843,9 @@ public class DataManager {
 
     public void saveEnrollment(Enrollment enrollment) {
         try {
-            FileHandler.getInstance().saveEnrollment(enrollment);
-            enrollments.put(enrollment.getId(), enrollment);
+            put(ENROLLMENTS, enrollments, enrollment.getId(), enrollment);
             markDirty();
-            Logger.debug("Enrollment saved: " + enrollment.getId());
+            Logger.debug(() -> "Enrollment saved: " + enrollment.getId());
         } catch (IOException e) {
             Logger.error("Failed to save enrollment: " + enrollment.getId(), e);
         }
@@ -288,8 +853,7 @@ public class DataManager {
 
     public void deleteEnrollment(String enrollmentId) {
         try {
-            FileHandler.getInstance().deleteEnrollment(enrollmentId);
-            enrollments.remove(enrollmentId);
+            remove(ENROLLMENTS, enrollments, enrollmentId);
             markDirty();
             Logger.info("Enrollment deleted: " + enrollmentId);
         } catch (IOException e) {
@@ -299,28 +863,68 @@ public class DataManager {
 
     // Similar save/delete methods for other entities...
     public Optional<User> findUserByUsername(String username) {
-        return users.values().stream()
-                .filter(user -> user.getUsername().equalsIgnoreCase(username))
-                .findFirst();
+        return Optional.ofNullable(usersByUsername.lookup(username, users));
+    }
+
+    public Optional<User> findUserByEmail(String email) {
+        return Optional.ofNullable(usersByEmail.lookup(email, users));
+    }
+
+    // Keyword search over name, username and email, best match first
+    public List<User> searchUsers(String query, int limit) {
+        return userText.search(query, limit, users);
+    }
+
+    // Keyword search over code, title, department and description, best match first
+    public List<Course> searchCourses(String query, int limit) {
+        return courseText.search(query, limit, courses);
     }
 
     public List<Course> getCoursesByTeacher(String teacherId) {
-        return courses.values().stream()
-                .filter(course -> course.getTeacherId().equals(teacherId))
-                .collect(Collectors.toList());
+        return coursesByTeacher.lookup(teacherId, courses);
+    }
+
+    public List<Assignment> getAssignmentsByCourse(String courseId) {
+        return assignmentsByCourse.lookup(courseId, assignments);
     }
 
     public List<Enrollment> getEnrollmentsByStudent(String studentId) {
-        return enrollments.values().stream()
-                .filter(enrollment -> enrollment.getStudentId().equals(studentId))
-                .collect(Collectors.toList());
+        return enrollmentsByStudent.lookup(studentId, enrollments);
+    }
+
+    public List<Enrollment> getEnrollmentsByCourse(String courseId) {
+        return enrollmentsByCourse.lookup(courseId, enrollments);
+    }
+
+    public List<Enrollment> getEnrollmentsByStudentAndCourse(String studentId, String courseId) {
+        return enrollmentsByStudentAndCourse.lookup(SecondaryIndex.compositeKey(studentId, courseId), enrollments);
+    }
+
+    public List<Grade> getGradesByStudent(String studentId) {
+        return gradesByStudent.lookup(studentId, grades);
+    }
+
+    public List<Grade> getGradesByCourse(String courseId) {
+        return gradesByCourse.lookup(courseId, grades);
+    }
+
+    public List<Grade> getGradesByAssignment(String assignmentId) {
+        return gradesByAssignment.lookup(assignmentId, grades);
+    }
+
+    public Optional<Grade> findGradeByStudentAndAssignment(String studentId, String assignmentId) {
+        return gradesByStudentAndAssignment
+                .lookup(SecondaryIndex.compositeKey(studentId, assignmentId), grades)
+                .stream()
+                .findFirst();
+    }
+
+    public GradeAggregates getGradeAggregates() {
+        return gradeAggregates;
     }
 
     public List<Grade> getGradesByStudentAndCourse(String studentId, String courseId) {
-        return grades.values().stream()
-                .filter(grade -> grade.getStudentId().equals(studentId)
-                && grade.getCourseId().equals(courseId))
-                .collect(Collectors.toList());
+        return gradesByStudentAndCourse.lookup(SecondaryIndex.compositeKey(studentId, courseId), grades);
     }
 
     private void markDirty() {
@@ -329,36 +933,209 @@ public class DataManager {
 
     private void autoSave() {
         if (isDirty) {
-            createBackup();
+            if (journal != null) {
+                checkpoint();
+            } else {
+                flush();
+            }
+            backupPending = true;
             isDirty = false;
         }
+        if (backupPending && System.currentTimeMillis() - lastBackupAt >= backupIntervalMillis) {
+            if (createBackup()) {
+                applyBackupRetention();
+            }
+        }
     }
 
-    private void createBackup() {
+    private boolean createBackup() {
+        if (!backupEnabled) {
+            backupPending = false;
+            return false;
+        }
         try {
-            String timestamp = String.valueOf(System.currentTimeMillis());
-            Path backupDir = Paths.get(dataDirectory + "backups/" + timestamp);
-            Files.createDirectories(backupDir);
-
-            // Copy all data files to backup directory
-            Files.walk(Paths.get(dataDirectory))
-                    .filter(path -> !path.toString().contains("backups"))
-                    .filter(Files::isRegularFile)
-                    .forEach(source -> {
-                        try {
-                            Path relative = Paths.get(dataDirectory).relativize(source);
-                            Path target = backupDir.resolve(relative);
-                            Files.createDirectories(target.getParent());
-                            Files.copy(source, target);
-                        } catch (IOException e) {
-                            Logger.error("Backup failed for: " + source, e);
-                        }
-                    });
+            writeBackup();
+            return true;
         } catch (IOException e) {
             Logger.error("Failed to create backup", e);
+            return false;
+        }
+    }
+
+    private BackupStore.Manifest writeBackup() throws IOException {
+        BackupStore.Manifest manifest = backupStore.createBackup();
+        lastBackupAt = manifest.getCreatedAt();
+        backupPending = false;
+        return manifest;
+    }
+
+    // Takes a backup on request, e.g. from the admin dashboard, and waits for it. It
+    // runs on the auto-save thread like scheduled backups, so it never overlaps one or
+    // a retention pass, and it counts as the latest backup for the backup interval
+    public BackupStore.Manifest backupNow() throws IOException {
+        return callOnAutoSaveThread(() -> {
+            flush();
+            BackupStore.Manifest manifest = writeBackup();
+            applyBackupRetention();
+            return manifest;
+        }, "Backup");
+    }
+
+    // Runs work on the auto-save thread and waits for it, rethrowing its IOException
+    private <T> T callOnAutoSaveThread(Callable<T> work, String what) throws IOException {
+        Future<T> future = autoSaveScheduler.submit(work);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + what.toLowerCase());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(what + " failed", e.getCause());
+        }
+    }
+
+    // Runs on the auto-save thread, never while a backup is being written. Archived
+    // journal segments older than the oldest backup can no longer be replayed
+    private void applyBackupRetention() {
+        try {
+            backupRetention.apply(backupStore);
+            List<String> backups = backupStore.listBackups();
+            if (journal != null && !backups.isEmpty()) {
+                int pruned = journal.pruneArchive(BackupStore.createdAtOf(backups.get(0)));
+                if (pruned > 0) {
+                    Logger.info("Pruned " + pruned + " archived journal segments");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Logger.error("Backup retention failed", e);
         }
     }
 
+    // Brings the store back to its state at the given time, from the newest backup
+    // taken before it and the journal records after that. The current state is
+    // backed up first, and the differences are applied as ordinary journaled saves
+    // and deletes, so the restore survives a crash and can itself be undone.
+    // Listeners get a single RESET event.
+    public PointInTimeRestore.Result restoreToPointInTime(long timestamp, PointInTimeRestore.ProgressListener listener)
+            throws IOException {
+        if (!restoring.compareAndSet(false, true)) {
+            throw new IllegalStateException("A restore is already running");
+        }
+        try {
+            long start = System.nanoTime();
+            PointInTimeRestore engine = new PointInTimeRestore(backupStore, Paths.get(dataDirectory + "journal/"),
+                    journal == null ? null : journal.getArchiveDirectory(), objectMapper);
+            PointInTimeRestore.Result result = new PointInTimeRestore.Result(timestamp);
+            // On the auto-save thread, so no retention pass can delete the backup or
+            // journal segments being read, and no scheduled backup overlaps ours
+            Map<String, Map<String, Object>> state = callOnAutoSaveThread(() -> {
+                if (backupEnabled) {
+                    try {
+                        flush();
+                        writeBackup();
+                    } catch (IOException e) {
+                        throw new IOException("Could not back up the current state before restoring", e);
+                    }
+                }
+                return engine.load(timestamp, result, listener);
+            }, "Restore");
+
+            int[] changes = applyRestoredState(state, listener);
+            restoreListeners.forEach(Runnable::run);
+            changeEvents.publish(ChangeEvent.reset());
+            markDirty();
+            // Fold the restore into the entity files and a fresh snapshot
+            lastSnapshotAt = 0;
+            autoSaveScheduler.execute(this::checkpoint);
+
+            result.setChanges(changes[0], changes[1], (System.nanoTime() - start) / 1_000_000);
+            Logger.info(result.toString());
+            return result;
+        } finally {
+            restoring.set(false);
+        }
+    }
+
+    // Saves entities that differ from the restored state and deletes those absent
+    // from it, one map at a time, keeping the indexes current like put() and
+    // remove() do; returns {saved, deleted}. Changed entities are unindexed before
+    // any is put back, so users swapping usernames do not collide, and a restored
+    // user whose username or email is still taken is skipped with a warning
+    @SuppressWarnings("unchecked")
+    private int[] applyRestoredState(Map<String, Map<String, Object>> state,
+            PointInTimeRestore.ProgressListener listener) throws IOException {
+        int[] changes = {0, 0};
+        long total = state.values().stream().mapToLong(Map::size).sum();
+        long done = 0;
+        for (String type : PointInTimeRestore.TYPES) {
+            Map<String, Object> map = (Map<String, Object>) mapFor(type);
+            Map<String, Object> wanted = state.get(type);
+            checkpointLock.readLock().lock();
+            try {
+                synchronized (map) {
+                    for (String id : new ArrayList<>(map.keySet())) {
+                        if (!wanted.containsKey(id)) {
+                            if (journal != null) {
+                                journal.append(JournalRecord.OP_DELETE, type, id, null);
+                            }
+                            map.remove(id);
+                            index(type, id, null);
+                            writeBehind.enqueue(type, id);
+                            changes[1]++;
+                        }
+                    }
+                    List<Map.Entry<String, Object>> changed = new ArrayList<>();
+                    for (Map.Entry<String, Object> entry : wanted.entrySet()) {
+                        Object current = map.get(entry.getKey());
+                        if (current == null || !Arrays.equals(objectMapper.writeValueAsBytes(current),
+                                objectMapper.writeValueAsBytes(entry.getValue()))) {
+                            changed.add(entry);
+                            index(type, entry.getKey(), null);
+                        }
+                    }
+                    for (Map.Entry<String, Object> entry : changed) {
+                        String id = entry.getKey();
+                        if (!isUnique(type, id, entry.getValue())) {
+                            Logger.warn("Not restoring " + type + "/" + id + ", username or email already in use");
+                            Object current = map.get(id);
+                            if (current != null) {
+                                index(type, id, current);
+                            }
+                            continue;
+                        }
+                        if (journal != null) {
+                            journal.append(JournalRecord.OP_PUT, type, id, entry.getValue());
+                        }
+                        map.put(id, entry.getValue());
+                        index(type, id, entry.getValue());
+                        writeBehind.enqueue(type, id);
+                        changes[0]++;
+                    }
+                }
+            } finally {
+                checkpointLock.readLock().unlock();
+            }
+            done += wanted.size();
+            if (listener != null) {
+                listener.onProgress("Applying changes", done, total);
+            }
+        }
+        return changes;
+    }
+
+    // Runs after a point-in-time restore has replaced the maps, before the RESET
+    // event, so services can reseed state they derive from the entities
+    public void addRestoreListener(Runnable listener) {
+        restoreListeners.add(listener);
+    }
+
+    public BackupStore getBackupStore() {
+        return backupStore;
+    }
+
     private void seedSampleDataIfEmpty() {
         try {
             if (users.isEmpty()) {
@@ -370,7 +1147,7 @@ public class DataManager {
                 admin.setFirstName("System");
                 admin.setLastName("Admin");
                 admin.setEmail("admin@example.com");
-                admin.setPasswordHash(BCrypt.hashpw("admin123", BCrypt.gensalt(12)));
+                admin.setPasswordHash(PasswordPolicy.getInstance().hash("admin123"));
                 admin.setRole(UserRole.ADMIN);
                 admin.setStatus(UserStatus.ACTIVE);
                 admin.setCreatedAt(java.time.LocalDateTime.now());
@@ -385,7 +1162,7 @@ public class DataManager {
                 teacher.setLastName("Tola");
                 
                 teacher.setEmail("amir@example.com");
-                teacher.setPasswordHash(BCrypt.hashpw("password", BCrypt.gensalt(12)));
+                teacher.setPasswordHash(PasswordPolicy.getInstance().hash("password"));
                 teacher.setRole(UserRole.TEACHER);
                 teacher.setStatus(UserStatus.ACTIVE);
                 saveUser(teacher);
@@ -398,7 +1175,7 @@ public class DataManager {
                 student.setFirstName("Sarah");
                 student.setLastName("Lee");
                 student.setEmail("sarah@example.com");
-                student.setPasswordHash(BCrypt.hashpw("password", BCrypt.gensalt(12)));
+                student.setPasswordHash(PasswordPolicy.getInstance().hash("password"));
                 student.setRole(UserRole.STUDENT);
                 student.setStatus(UserStatus.ACTIVE);
                 saveUser(student);
@@ -457,7 +1234,19 @@ public class DataManager {
         }
     }
 
+    // Registers work to finish before the store closes, e.g. deferred saves
+    public void addShutdownTask(Runnable task) {
+        shutdownTasks.add(task);
+    }
+
     private void shutdown() {
+        for (Runnable task : shutdownTasks) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                Logger.error("Shutdown task failed", e);
+            }
+        }
         autoSaveScheduler.shutdown();
         try {
             if (!autoSaveScheduler.awaitTermination(10, TimeUnit.SECONDS)) {
@@ -468,7 +1257,15 @@ public class DataManager {
             Thread.currentThread().interrupt();
         }
 
-        if (isDirty) {
+        if (journal != null) {
+            lastSnapshotAt = 0;
+            checkpoint();
+            journal.close();
+        }
+        writeBehind.close();
+        changeEvents.close();
+
+        if (isDirty || backupPending) {
             createBackup();
         }
     }
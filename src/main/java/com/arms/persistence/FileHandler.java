@@ -2,13 +2,20 @@ package com.arms.persistence;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import com.arms.config.AppConfig;
 import com.arms.domain.Assignment;
 import com.arms.domain.Course;
 import com.arms.domain.Enrollment;
@@ -20,7 +27,9 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 public class FileHandler {
     private static FileHandler instance;
     private final ObjectMapper objectMapper;
-    private final String dataDirectory = "data/";
+    private final String dataDirectory = AppConfig.getDataDirectory();
+
+    static final String TEMP_SUFFIX = ".tmp";
 
     private FileHandler() {
         objectMapper = new ObjectMapper();
@@ -201,35 +210,56 @@ public class FileHandler {
         Files.deleteIfExists(Paths.get(fileName));
     }
 
+    // Generic operations keyed by entity directory
+    // Writes to a temp file renamed over the old one, so a crash mid-write never leaves a
+    // truncated entity; with force the contents reach the disk before the rename
+    public void writeEntity(String type, String id, Object entity, boolean force) throws IOException {
+        Path path = Paths.get(dataDirectory + type + "/" + id + ".json");
+        Path temp = path.resolveSibling(id + ".json" + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(objectMapper.writeValueAsBytes(entity));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (force) {
+                channel.force(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public void syncEntity(String type, String id) throws IOException {
+        Path path = Paths.get(dataDirectory + type + "/" + id + ".json");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    // Makes renames and deletes in an entity directory durable; Windows cannot open
+    // a directory for this, and NTFS journals such metadata changes anyway
+    public void syncDirectory(String type) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(dataDirectory + type), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Not supported on this platform
+        }
+    }
+
+    public void deleteEntity(String type, String id) throws IOException {
+        String fileName = dataDirectory + type + "/" + id + ".json";
+        Files.deleteIfExists(Paths.get(fileName));
+    }
+
     // Backup operations
     public void backupData() throws IOException {
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        Path backupDir = Paths.get(dataDirectory + "backups/" + timestamp);
-        Files.createDirectories(backupDir);
-
-        // Backup all data
-        backupDirectory("users", backupDir);
-        backupDirectory("courses", backupDir);
-        backupDirectory("assignments", backupDir);
-        backupDirectory("grades", backupDir);
-        backupDirectory("enrollments", backupDir);
-    }
-
-    private void backupDirectory(String dirName, Path backupDir) throws IOException {
-        Path sourceDir = Paths.get(dataDirectory + dirName);
-        if (Files.exists(sourceDir)) {
-            Path targetDir = backupDir.resolve(dirName);
-            Files.createDirectories(targetDir);
-            
-            Files.list(sourceDir)
-                    .filter(Files::isRegularFile)
-                    .forEach(source -> {
-                        try {
-                            Files.copy(source, targetDir.resolve(source.getFileName()));
-                        } catch (IOException e) {
-                            System.err.println("Failed to backup: " + source);
-                        }
-                    });
-        }
+        new BackupStore(Paths.get(dataDirectory), Paths.get(dataDirectory + "backups/")).createBackup();
     }
 }
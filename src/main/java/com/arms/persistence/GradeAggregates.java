@@ -0,0 +1,144 @@
+package com.arms.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.arms.domain.Grade;
+
+/*
+ * Running sums, counts and letter-grade histograms over published grades, kept
+ * per course, per student and per (student, course).
+ *
+ * Each grade's last contribution is remembered by ID, so a re-save of a grade
+ * that was changed in place (score edited, published flag flipped) subtracts
+ * exactly what it added before. Percentages are score / maxScore * 100 as in
+ * GradeService; grades without a positive maxScore only count in the histogram.
+ */
+public class GradeAggregates {
+
+    private static class Stats {
+        private double sum;
+        private long count;
+        private final Map<String, Long> letters = new HashMap<>();
+
+        Optional<Double> getAverage() {
+            return count == 0 ? Optional.empty() : Optional.of(sum / count);
+        }
+
+        private void add(Contribution contribution, int sign) {
+            if (contribution.scored) {
+                count += sign;
+                sum = count == 0 ? 0 : sum + sign * contribution.percentage;
+            }
+            if (contribution.letterGrade != null) {
+                letters.merge(contribution.letterGrade, (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+
+        private boolean isEmpty() {
+            return count == 0 && letters.isEmpty();
+        }
+    }
+
+    private static class Contribution {
+        private final String studentId;
+        private final String courseId;
+        private final double percentage;
+        private final boolean scored;
+        private final String letterGrade;
+
+        Contribution(Grade grade) {
+            this.studentId = grade.getStudentId();
+            this.courseId = grade.getCourseId();
+            this.scored = grade.getMaxScore() > 0;
+            this.percentage = scored ? grade.getScore() / grade.getMaxScore() * 100 : 0;
+            this.letterGrade = grade.getLetterGrade();
+        }
+    }
+
+    // All guarded by this
+    private final Map<String, Contribution> contributions = new HashMap<>();
+    private final Map<String, Stats> byCourse = new HashMap<>();
+    private final Map<String, Stats> byStudent = new HashMap<>();
+    private final Map<String, Map<String, Stats>> byCourseAndStudent = new HashMap<>();
+
+    public synchronized void put(String id, Grade grade) {
+        remove(id);
+        if (grade.isPublished()) {
+            Contribution contribution = new Contribution(grade);
+            contributions.put(id, contribution);
+            apply(contribution, 1);
+        }
+    }
+
+    public synchronized void remove(String id) {
+        Contribution previous = contributions.remove(id);
+        if (previous != null) {
+            apply(previous, -1);
+        }
+    }
+
+    public synchronized void clear() {
+        contributions.clear();
+        byCourse.clear();
+        byStudent.clear();
+        byCourseAndStudent.clear();
+    }
+
+    public synchronized Optional<Double> getCourseAverage(String courseId) {
+        Stats stats = byCourse.get(courseId);
+        return stats == null ? Optional.empty() : stats.getAverage();
+    }
+
+    public synchronized Optional<Double> getStudentAverage(String studentId) {
+        Stats stats = byStudent.get(studentId);
+        return stats == null ? Optional.empty() : stats.getAverage();
+    }
+
+    public synchronized Optional<Double> getStudentCourseAverage(String studentId, String courseId) {
+        Map<String, Stats> students = byCourseAndStudent.get(courseId);
+        Stats stats = students == null ? null : students.get(studentId);
+        return stats == null ? Optional.empty() : stats.getAverage();
+    }
+
+    // Average per student over the published grades of one course
+    public synchronized Map<String, Double> getStudentAveragesForCourse(String courseId) {
+        Map<String, Double> averages = new HashMap<>();
+        Map<String, Stats> students = byCourseAndStudent.get(courseId);
+        if (students != null) {
+            students.forEach((studentId, stats) -> stats.getAverage()
+                    .ifPresent(average -> averages.put(studentId, average)));
+        }
+        return averages;
+    }
+
+    public synchronized Map<String, Long> getLetterDistribution(String courseId) {
+        Stats stats = byCourse.get(courseId);
+        return stats == null ? new HashMap<>() : new HashMap<>(stats.letters);
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        update(byCourse, contribution.courseId, contribution, sign);
+        update(byStudent, contribution.studentId, contribution, sign);
+        if (contribution.courseId != null) {
+            Map<String, Stats> students = byCourseAndStudent.computeIfAbsent(contribution.courseId,
+                    k -> new HashMap<>());
+            update(students, contribution.studentId, contribution, sign);
+            if (students.isEmpty()) {
+                byCourseAndStudent.remove(contribution.courseId);
+            }
+        }
+    }
+
+    private static void update(Map<String, Stats> target, String key, Contribution contribution, int sign) {
+        if (key == null) {
+            return;
+        }
+        Stats stats = target.computeIfAbsent(key, k -> new Stats());
+        stats.add(contribution, sign);
+        if (stats.isEmpty()) {
+            target.remove(key);
+        }
+    }
+}
@@ -1,56 +1,49 @@
 package com.arms.persistence;
 
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.atomic.AtomicLong;
 
 public class IDGenerator {
     private static final SecureRandom random = new SecureRandom();
-    private static final DateTimeFormatter formatter = 
-        DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-    private static final AtomicLong counter = new AtomicLong(0);
+    private static final MonotonicIdGenerator generator = MonotonicIdGenerator.getInstance();
     
     private static final String CHARACTERS = 
         "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
     
     public static String generateUserId() {
-        return "USR-" + generateTimestampId();
+        return generator.next("USR-");
     }
     
     public static String generateStudentId() {
-        return "STU-" + generateTimestampId();
+        return generator.next("STU-");
     }
     
     public static String generateTeacherId() {
-        return "TCH-" + generateTimestampId();
+        return generator.next("TCH-");
     }
     
     public static String generateAdminId() {
-        return "ADM-" + generateTimestampId();
+        return generator.next("ADM-");
     }
     
     public static String generateCourseId() {
-        return "CRS-" + generateTimestampId();
+        return generator.next("CRS-");
     }
     
     public static String generateAssignmentId() {
-        return "ASG-" + generateTimestampId();
+        return generator.next("ASG-");
     }
     
     public static String generateGradeId() {
-        return "GRD-" + generateTimestampId();
+        return generator.next("GRD-");
     }
     
     public static String generateEnrollmentId() {
-        return "ENR-" + generateTimestampId();
+        return generator.next("ENR-");
     }
     
-    private static String generateTimestampId() {
-        String timestamp = LocalDateTime.now().format(formatter);
-        long seq = counter.incrementAndGet() % 1000;
-        String randomStr = generateRandomString(4);
-        return timestamp + String.format("%03d", seq) + randomStr;
+    // Bulk variant for imports: one reservation, then block.get(prefix, i) per entity
+    public static MonotonicIdGenerator.Block reserveIds(int count) {
+        return generator.reserve(count);
     }
     
     private static String generateRandomString(int length) {
@@ -0,0 +1,373 @@
+package com.arms.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.arms.util.Logger;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * Append-only write-ahead log of entity mutations.
+ *
+ * Records are framed as [length:int][lsn:long][timestamp:long][crc32:int][payload]
+ * where the payload is a compact JSON object {op, type, id, data}. Segments are
+ * named after the first LSN they contain and rotated by size; a torn record at
+ * the end of the last segment is treated as the end of the log. With an archive
+ * directory set, segments a checkpoint no longer needs are moved there instead of
+ * deleted, keeping the history point-in-time restores replay.
+ */
+public class Journal {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_SIZE = 24;
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final long segmentSize;
+    private final ScheduledExecutorService syncScheduler;
+
+    private FileChannel channel;
+    private long segmentFirstLsn;
+    private long lastLsn;
+    private long checkpointLsn;
+    private long retainAfterLsn = Long.MAX_VALUE;
+    private boolean unsynced;
+    private Path archiveDirectory;
+
+    private Journal(Path directory, ObjectMapper objectMapper, long segmentSize, long syncIntervalMs) {
+        this.directory = directory;
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        this.segmentSize = segmentSize;
+        this.syncScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "arms-journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.syncScheduler.scheduleWithFixedDelay(this::syncQuietly,
+                syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static Journal open(Path directory, ObjectMapper objectMapper,
+            long segmentSize, long syncIntervalMs) throws IOException {
+        Files.createDirectories(directory);
+        Journal journal = new Journal(directory, objectMapper, segmentSize, syncIntervalMs);
+        journal.checkpointLsn = journal.readCheckpointLsn();
+        journal.lastLsn = Math.max(journal.checkpointLsn, journal.scanLastLsn());
+        journal.openSegment(journal.lastLsn + 1);
+        return journal;
+    }
+
+    public long append(String op, String type, String id, Object entity) throws IOException {
+        return append(encode(op, type, id, entity));
+    }
+
+    // Appends a payload built by encode(); lets callers serialize outside their own locks
+    public long append(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (this) {
+            if (channel.position() >= segmentSize) {
+                rotate();
+            }
+            long lsn = ++lastLsn;
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+            buffer.putInt(payload.length);
+            buffer.putLong(lsn);
+            buffer.putLong(System.currentTimeMillis());
+            buffer.putInt((int) crc.getValue());
+            buffer.put(payload);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            unsynced = true;
+            return lsn;
+        }
+    }
+
+    public byte[] encode(String op, String type, String id, Object entity) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("op", op);
+            generator.writeStringField("type", type);
+            generator.writeStringField("id", id);
+            if (entity != null) {
+                generator.writeFieldName("data");
+                objectMapper.writeValue(generator, entity);
+            }
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    // Encodes several mutations as one transaction record, replayed all-or-nothing
+    byte[] encodeTransaction(List<Mutation> mutations) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * mutations.size());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("op", JournalRecord.OP_TRANSACTION);
+            generator.writeArrayFieldStart("entries");
+            for (Mutation mutation : mutations) {
+                generator.writeStartObject();
+                generator.writeStringField("op", mutation.op);
+                generator.writeStringField("type", mutation.type);
+                generator.writeStringField("id", mutation.id);
+                if (mutation.entity != null) {
+                    generator.writeFieldName("data");
+                    objectMapper.writeValue(generator, mutation.entity);
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    // Seals the active segment and starts a new one; returns the last LSN of the sealed part
+    public synchronized long rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        unsynced = false;
+        openSegment(lastLsn + 1);
+        return lastLsn;
+    }
+
+    // Records that every mutation up to the given LSN is reflected in the entity files
+    public void checkpoint(long lsn) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, Long.toString(lsn).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Path> segments = listSegments();
+        synchronized (this) {
+            checkpointLsn = Math.max(checkpointLsn, lsn);
+            long truncateUpTo = Math.min(lsn, retainAfterLsn);
+            for (int i = 0; i < segments.size() - 1; i++) {
+                long nextFirstLsn = firstLsnOf(segments.get(i + 1));
+                if (nextFirstLsn <= truncateUpTo + 1 && firstLsnOf(segments.get(i)) != segmentFirstLsn) {
+                    if (archiveDirectory == null) {
+                        Files.deleteIfExists(segments.get(i));
+                    } else {
+                        Files.createDirectories(archiveDirectory);
+                        Files.move(segments.get(i), archiveDirectory.resolve(segments.get(i).getFileName()),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+        }
+    }
+
+    // Truncated segments are moved here from now on; null deletes them
+    public synchronized void setArchiveDirectory(Path archiveDirectory) {
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    public synchronized Path getArchiveDirectory() {
+        return archiveDirectory;
+    }
+
+    // Deletes archived segments last written before the given time; returns how many
+    public int pruneArchive(long olderThanMillis) throws IOException {
+        Path archive = getArchiveDirectory();
+        if (archive == null || !Files.isDirectory(archive)) {
+            return 0;
+        }
+        int pruned = 0;
+        for (Path segment : listSegments(archive)) {
+            if (Files.getLastModifiedTime(segment).toMillis() < olderThanMillis) {
+                Files.deleteIfExists(segment);
+                pruned++;
+            }
+        }
+        return pruned;
+    }
+
+    // Keeps every record after the given LSN through later checkpoints, e.g. for a snapshot
+    public synchronized void retainAfter(long lsn) {
+        retainAfterLsn = lsn;
+    }
+
+    public long getFirstRetainedLsn() throws IOException {
+        List<Path> segments = listSegments();
+        synchronized (this) {
+            return segments.isEmpty() ? lastLsn + 1 : firstLsnOf(segments.get(0));
+        }
+    }
+
+    public void replay(long afterLsn, Consumer<JournalRecord> consumer) throws IOException {
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            if (i + 1 < segments.size() && firstLsnOf(segments.get(i + 1)) <= afterLsn + 1) {
+                continue;
+            }
+            readSegment(segment, record -> {
+                if (record.getLsn() > afterLsn) {
+                    consumer.accept(record);
+                }
+            });
+        }
+    }
+
+    public synchronized long getLastLsn() {
+        return lastLsn;
+    }
+
+    public synchronized long getCheckpointLsn() {
+        return checkpointLsn;
+    }
+
+    public synchronized void sync() throws IOException {
+        if (unsynced && channel.isOpen()) {
+            channel.force(false);
+            unsynced = false;
+        }
+    }
+
+    public void close() {
+        syncScheduler.shutdown();
+        synchronized (this) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                Logger.error("Failed to close journal segment", e);
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            Logger.error("Journal sync failed", e);
+        }
+    }
+
+    private void openSegment(long firstLsn) throws IOException {
+        Path segment = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segmentFirstLsn = firstLsn;
+    }
+
+    private long scanLastLsn() throws IOException {
+        long[] last = {0};
+        for (Path segment : listSegments()) {
+            readSegment(segment, record -> last[0] = record.getLsn());
+        }
+        return last[0];
+    }
+
+    private void readSegment(Path segment, Consumer<JournalRecord> consumer) throws IOException {
+        readSegment(objectMapper, segment.getFileName().toString(), Files.readAllBytes(segment), consumer);
+    }
+
+    // Reads the records of a segment's contents, wherever they were stored
+    static void readSegment(ObjectMapper objectMapper, String name, byte[] contents,
+            Consumer<JournalRecord> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(contents);
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int length = buffer.getInt();
+            long lsn = buffer.getLong();
+            long timestamp = buffer.getLong();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                Logger.warn("Torn journal record at LSN " + lsn + " in " + name);
+                return;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                Logger.warn("Corrupt journal record at LSN " + lsn + " in " + name);
+                return;
+            }
+            JsonNode node = objectMapper.readTree(payload);
+            if (JournalRecord.OP_TRANSACTION.equals(node.path("op").asText())) {
+                // Entries of a transaction share its LSN; the CRC covered all of them
+                for (JsonNode entry : node.path("entries")) {
+                    consumer.accept(toRecord(lsn, timestamp, entry));
+                }
+            } else {
+                consumer.accept(toRecord(lsn, timestamp, node));
+            }
+        }
+    }
+
+    private static JournalRecord toRecord(long lsn, long timestamp, JsonNode node) {
+        return new JournalRecord(lsn, timestamp,
+                node.path("op").asText(),
+                node.path("type").asText(),
+                node.path("id").asText(),
+                node.get("data"));
+    }
+
+    private List<Path> listSegments() throws IOException {
+        return listSegments(directory);
+    }
+
+    // Segment files of a journal or archive directory, oldest first
+    static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> isSegment(path.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    static boolean isSegment(String name) {
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long firstLsnOf(Path segment) {
+        return firstLsnOf(segment.getFileName().toString());
+    }
+
+    static long firstLsnOf(String name) {
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private long readCheckpointLsn() {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            Logger.error("Failed to read journal checkpoint, replaying full log", e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.arms.persistence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class JournalRecord {
+
+    public static final String OP_PUT = "PUT";
+    public static final String OP_DELETE = "DEL";
+    public static final String OP_TRANSACTION = "TX";
+
+    private final long lsn;
+    private final long timestamp;
+    private final String op;
+    private final String type;
+    private final String id;
+    private final JsonNode data;
+
+    public JournalRecord(long lsn, long timestamp, String op, String type, String id, JsonNode data) {
+        this.lsn = lsn;
+        this.timestamp = timestamp;
+        this.op = op;
+        this.type = type;
+        this.id = id;
+        this.data = data;
+    }
+
+    public long getLsn() {
+        return lsn;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public JsonNode getData() {
+        return data;
+    }
+
+    public boolean isDelete() {
+        return OP_DELETE.equals(op);
+    }
+}
@@ -0,0 +1,48 @@
+package com.arms.persistence;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Fixed pool of locks shared by hashing entity keys ("courses/CRS-...") onto it.
+ * A caller takes all of its stripes at once in ascending index order, so two
+ * callers can never wait on each other in a cycle.
+ */
+class LockStripes {
+
+    private final ReentrantLock[] locks;
+
+    LockStripes(int stripes) {
+        int size = Integer.highestOneBit(Math.max(2, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    int[] lockAll(Collection<String> keys) {
+        int[] indexes = keys.stream().mapToInt(this::indexOf).distinct().sorted().toArray();
+        for (int i = 0; i < indexes.length; i++) {
+            try {
+                locks[indexes[i]].lockInterruptibly();
+            } catch (InterruptedException e) {
+                unlockAll(Arrays.copyOf(indexes, i));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for entity locks", e);
+            }
+        }
+        return indexes;
+    }
+
+    void unlockAll(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            locks[indexes[i]].unlock();
+        }
+    }
+
+    private int indexOf(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (locks.length - 1);
+    }
+}
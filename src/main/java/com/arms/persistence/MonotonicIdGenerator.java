@@ -0,0 +1,157 @@
+package com.arms.persistence;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.arms.config.AppConfig;
+
+/*
+ * Time-ordered 64-bit IDs, Snowflake style: 42 bits of milliseconds since
+ * 2024-01-01, a 12-bit sequence and a 10-bit node number (app.id.node).
+ *
+ * The millisecond and sequence fields live in one AtomicLong advanced by CAS to
+ * max(previous + 1, now), so within a process IDs never repeat or go backwards
+ * across threads, even if the clock steps back; more than 4096 IDs in one
+ * millisecond simply borrow from the next one. The counter itself is not
+ * persisted: at startup DataManager advances it past the highest ID in the
+ * store (advancePast), so a restart after borrowing ahead or a clock step back
+ * does not re-issue a stored ID. IDs are encoded as 13 Crockford base32
+ * characters, whose ASCII order matches numeric order, so encoded IDs sort by
+ * creation time.
+ */
+public class MonotonicIdGenerator {
+
+    public static final int ENCODED_LENGTH = 13;
+
+    private static final long EPOCH_MS = 1704067200000L;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int[] DIGITS = new int[128];
+
+    static {
+        Arrays.fill(DIGITS, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = i;
+        }
+    }
+
+    private static MonotonicIdGenerator instance;
+
+    private final long node;
+    private final AtomicLong counter = new AtomicLong();
+
+    public MonotonicIdGenerator(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public static synchronized MonotonicIdGenerator getInstance() {
+        if (instance == null) {
+            instance = new MonotonicIdGenerator(AppConfig.getIntProperty("app.id.node", 0));
+        }
+        return instance;
+    }
+
+    // A contiguous run of IDs handed out by reserve()
+    public static class Block {
+        private final long firstCounter;
+        private final long node;
+        private final int size;
+
+        private Block(long firstCounter, long node, int size) {
+            this.firstCounter = firstCounter;
+            this.node = node;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " outside block of " + size);
+            }
+            return (firstCounter + index) << NODE_BITS | node;
+        }
+
+        public String get(String prefix, int index) {
+            return encode(prefix, get(index));
+        }
+    }
+
+    public long next() {
+        long now = currentTick();
+        return counter.accumulateAndGet(now, (previous, tick) -> Math.max(previous + 1, tick)) << NODE_BITS | node;
+    }
+
+    public String next(String prefix) {
+        return encode(prefix, next());
+    }
+
+    // Claims count consecutive IDs with a single CAS, e.g. for mass imports
+    public Block reserve(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive: " + count);
+        }
+        long now = currentTick();
+        while (true) {
+            long previous = counter.get();
+            long first = Math.max(previous + 1, now);
+            if (counter.compareAndSet(previous, first + count - 1)) {
+                return new Block(first, node, count);
+            }
+        }
+    }
+
+    // Makes every later ID greater than the given one
+    public void advancePast(long id) {
+        counter.accumulateAndGet(id >>> NODE_BITS, Math::max);
+    }
+
+    // The ID encoded at the end of e.g. "USR-" + 13 characters, or -1 if the string
+    // is not one, such as an ID from before this generator
+    public static long decode(String encoded) {
+        int start = encoded == null ? -1 : encoded.length() - ENCODED_LENGTH;
+        if (start < 1 || encoded.charAt(start - 1) != '-') {
+            return -1;
+        }
+        long id = 0;
+        for (int i = start; i < encoded.length(); i++) {
+            int digit = digitOf(encoded.charAt(i));
+            // The first character only holds the top 4 of the 64 bits
+            if (digit < 0 || (i == start && digit > 15)) {
+                return -1;
+            }
+            id = id << 5 | digit;
+        }
+        return id;
+    }
+
+    private static int digitOf(char c) {
+        return c < DIGITS.length ? DIGITS[c] : -1;
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MS;
+    }
+
+    public static String encode(String prefix, long id) {
+        char[] chars = new char[prefix.length() + ENCODED_LENGTH];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        long remaining = id;
+        for (int i = chars.length - 1; i >= prefix.length(); i--) {
+            chars[i] = ALPHABET[(int) (remaining & 31)];
+            remaining >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static long currentTick() {
+        return (System.currentTimeMillis() - EPOCH_MS) << SEQUENCE_BITS;
+    }
+}
@@ -0,0 +1,21 @@
+package com.arms.persistence;
+
+// One staged change of a transaction: a full entity for PUT, null for DEL
+class Mutation {
+
+    final String op;
+    final String type;
+    final String id;
+    final Object entity;
+
+    Mutation(String op, String type, String id, Object entity) {
+        this.op = op;
+        this.type = type;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    boolean isDelete() {
+        return JournalRecord.OP_DELETE.equals(op);
+    }
+}
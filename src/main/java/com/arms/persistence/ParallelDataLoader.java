@@ -0,0 +1,179 @@
+package com.arms.persistence;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.arms.util.Logger;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/*
+ * Loads the per-entity JSON directories concurrently on a bounded pool.
+ *
+ * Each directory is listed with a streaming DirectoryStream and split into
+ * chunks; every chunk parses its files through a JsonParser created from one
+ * shared JsonFactory and a pre-built ObjectReader per entity type.
+ */
+public class ParallelDataLoader {
+
+    public interface ProgressListener {
+        void onProgress(int loadedFiles, int totalFiles);
+    }
+
+    private static final int CHUNK_SIZE = 256;
+
+    private final Path dataDirectory;
+    private final JsonFactory jsonFactory;
+    private final ObjectMapper objectMapper;
+    private final int threads;
+    private final Map<String, Source<?>> sources = new LinkedHashMap<>();
+
+    public ParallelDataLoader(Path dataDirectory, ObjectMapper objectMapper, int threads) {
+        this.dataDirectory = dataDirectory;
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.threads = Math.max(1, threads);
+    }
+
+    public <T> void register(String type, Class<T> entityClass, Function<T, String> idOf, Map<String, T> target) {
+        sources.put(type, new Source<>(type, objectMapper.readerFor(entityClass), idOf, target));
+    }
+
+    public void load(ProgressListener listener) {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, namedFactory());
+        try {
+            Map<String, List<List<Path>>> chunksByType = new LinkedHashMap<>();
+            int total = 0;
+            for (Source<?> source : sources.values()) {
+                List<List<Path>> chunks = listChunks(dataDirectory.resolve(source.type));
+                chunksByType.put(source.type, chunks);
+                for (List<Path> chunk : chunks) {
+                    total += chunk.size();
+                }
+            }
+
+            AtomicInteger loaded = new AtomicInteger();
+            int totalFiles = total;
+            List<Future<?>> futures = new ArrayList<>();
+            for (Source<?> source : sources.values()) {
+                for (List<Path> chunk : chunksByType.get(source.type)) {
+                    futures.add(pool.submit(() -> {
+                        source.parse(chunk, jsonFactory);
+                        int done = loaded.addAndGet(chunk.size());
+                        if (listener != null) {
+                            listener.onProgress(done, totalFiles);
+                        }
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Logger.error("Data load task failed", e.getCause());
+                }
+            }
+            if (listener != null && totalFiles == 0) {
+                listener.onProgress(0, 0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.error("Data load interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (Source<?> source : sources.values()) {
+            Logger.info(String.format("Loaded %d %s in %d ms (%d ms parse time across threads, %d failed)",
+                    source.loaded.get(), source.type,
+                    source.finishedAtNanos.get() == 0 ? 0 : (source.finishedAtNanos.get() - start) / 1_000_000,
+                    source.parseNanos.get() / 1_000_000, source.failed.get()));
+        }
+        Logger.info("Data directory loaded in " + (System.nanoTime() - start) / 1_000_000 + " ms using "
+                + threads + " threads");
+    }
+
+    private List<List<Path>> listChunks(Path directory) {
+        List<List<Path>> chunks = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return chunks;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.json")) {
+            List<Path> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (Path path : stream) {
+                chunk.add(path);
+                if (chunk.size() == CHUNK_SIZE) {
+                    chunks.add(chunk);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+        } catch (IOException e) {
+            Logger.error("Failed to list " + directory, e);
+        }
+        return chunks;
+    }
+
+    private static ThreadFactory namedFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, "arms-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Source<T> {
+        private final String type;
+        private final ObjectReader reader;
+        private final Function<T, String> idOf;
+        private final Map<String, T> target;
+        private final AtomicInteger loaded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong parseNanos = new AtomicLong();
+        private final AtomicLong finishedAtNanos = new AtomicLong();
+
+        Source(String type, ObjectReader reader, Function<T, String> idOf, Map<String, T> target) {
+            this.type = type;
+            this.reader = reader;
+            this.idOf = idOf;
+            this.target = target;
+        }
+
+        void parse(List<Path> files, JsonFactory factory) {
+            long start = System.nanoTime();
+            for (Path file : files) {
+                try (JsonParser parser = factory.createParser(file.toFile())) {
+                    T entity = reader.readValue(parser);
+                    target.put(idOf.apply(entity), entity);
+                    loaded.incrementAndGet();
+                } catch (IOException | RuntimeException e) {
+                    failed.incrementAndGet();
+                    Logger.error("Failed to load " + type + " from: " + file, e);
+                }
+            }
+            long end = System.nanoTime();
+            parseNanos.addAndGet(end - start);
+            finishedAtNanos.accumulateAndGet(end, Math::max);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.arms.persistence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.arms.util.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Rebuilds the contents of the store as they were at a given time: the newest
+ * backup taken at or before that time is loaded, then every journal record after
+ * the backup's checkpoint and up to that time is replayed on top, in LSN order.
+ *
+ * Records come from the journal segments inside the backup, the journal archive
+ * and the live journal, whichever holds them. Entity files are streamed from the
+ * backup one at a time and segments are read one at a time, so apart from the
+ * rebuilt entities themselves memory stays within one journal segment. Entity
+ * files written while the backup ran may be a few seconds newer than the backup.
+ *
+ * The result only describes the old state; DataManager.restoreToPointInTime
+ * applies it to the live store.
+ */
+public class PointInTimeRestore {
+
+    static final String[] TYPES = {
+            DataManager.USERS, DataManager.COURSES, DataManager.ASSIGNMENTS, DataManager.GRADES,
+            DataManager.ENROLLMENTS };
+
+    public interface ProgressListener {
+        void onProgress(String stage, long done, long total);
+    }
+
+    public static class Result {
+        private final long targetTime;
+        private String backupId;
+        private long checkpointLsn;
+        private long lastLsn;
+        private long lastRecordAt;
+        private int recordsReplayed;
+        private boolean gap;
+        private int saved;
+        private int deleted;
+        private long elapsedMs;
+
+        Result(long targetTime) {
+            this.targetTime = targetTime;
+        }
+
+        public long getTargetTime() {
+            return targetTime;
+        }
+
+        public String getBackupId() {
+            return backupId;
+        }
+
+        public long getLastLsn() {
+            return lastLsn;
+        }
+
+        // Time of the last replayed record, or 0 if the backup was used as is
+        public long getLastRecordAt() {
+            return lastRecordAt;
+        }
+
+        public int getRecordsReplayed() {
+            return recordsReplayed;
+        }
+
+        // True if journal records between the backup and the target time were missing
+        public boolean hasGap() {
+            return gap;
+        }
+
+        public int getSaved() {
+            return saved;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        void setChanges(int saved, int deleted, long elapsedMs) {
+            this.saved = saved;
+            this.deleted = deleted;
+            this.elapsedMs = elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Restore to %s from backup %s: %d journal records replayed (LSN %d..%d)%s, "
+                    + "%d entities saved, %d deleted in %d ms", Instant.ofEpochMilli(targetTime), backupId,
+                    recordsReplayed, checkpointLsn + 1, lastLsn, gap ? ", JOURNAL GAP" : "", saved, deleted,
+                    elapsedMs);
+        }
+    }
+
+    private final BackupStore backupStore;
+    private final Path journalDirectory;
+    private final Path archiveDirectory;
+    private final ObjectMapper objectMapper;
+
+    PointInTimeRestore(BackupStore backupStore, Path journalDirectory, Path archiveDirectory,
+            ObjectMapper objectMapper) {
+        this.backupStore = backupStore;
+        this.journalDirectory = journalDirectory;
+        this.archiveDirectory = archiveDirectory;
+        this.objectMapper = objectMapper;
+    }
+
+    // The entities of every type as of the given time, keyed by type and then ID
+    Map<String, Map<String, Object>> load(long timestamp, Result result, ProgressListener listener)
+            throws IOException {
+        String backupId = backupStore.latestBackupAtOrBefore(timestamp)
+                .orElseThrow(() -> new NoSuchFileException("No backup at or before " + Instant.ofEpochMilli(timestamp)));
+        result.backupId = backupId;
+
+        Map<String, Map<String, Object>> state = new LinkedHashMap<>();
+        for (String type : TYPES) {
+            state.put(type, new HashMap<>());
+        }
+        loadBackup(backupId, state, result, listener);
+        replay(backupId, timestamp, state, result, listener);
+        return state;
+    }
+
+    private void loadBackup(String backupId, Map<String, Map<String, Object>> state, Result result,
+            ProgressListener listener) throws IOException {
+        BackupStore.Manifest manifest = backupStore.readManifest(backupId);
+        long total = manifest.getFiles().stream().filter(entry -> typeOf(entry.getPath()) != null).count();
+        long[] done = {0};
+        backupStore.readFiles(backupId, path -> typeOf(path) != null, (entry, in) -> {
+            String type = typeOf(entry.getPath());
+            try {
+                Object entity = objectMapper.readValue(in, DataManager.classFor(type));
+                state.get(type).put(DataManager.idOf(entity), entity);
+            } catch (IOException | RuntimeException e) {
+                Logger.error("Skipping unreadable file " + entry.getPath() + " of backup " + backupId, e);
+            }
+            if (++done[0] % 500 == 0 || done[0] == total) {
+                report(listener, "Loading backup " + backupId, done[0], total);
+            }
+        });
+
+        String checkpoint = "journal/" + Journal.CHECKPOINT_FILE;
+        backupStore.readFiles(backupId, checkpoint::equals, (entry, in) -> {
+            try {
+                result.checkpointLsn = Long.parseLong(new String(in.readAllBytes(), StandardCharsets.UTF_8).trim());
+            } catch (NumberFormatException e) {
+                Logger.warn("Backup " + backupId + " has an unreadable journal checkpoint");
+            }
+        });
+    }
+
+    // Replays records after the backup's checkpoint up to the given time; for each
+    // segment the live or archived copy is preferred, as the backup's copy of the
+    // then-active segment stops where the backup was taken
+    private void replay(String backupId, long timestamp, Map<String, Map<String, Object>> state, Result result,
+            ProgressListener listener) throws IOException {
+        TreeMap<Long, Object> segments = new TreeMap<>();
+        for (BackupStore.FileEntry entry : backupStore.readManifest(backupId).getFiles()) {
+            String name = entry.getPath().startsWith("journal/") ? entry.getPath().substring("journal/".length()) : "";
+            if (Journal.isSegment(name)) {
+                segments.put(Journal.firstLsnOf(name), entry.getPath());
+            }
+        }
+        for (Path directory : new Path[] { archiveDirectory, journalDirectory }) {
+            if (directory != null) {
+                for (Path segment : Journal.listSegments(directory)) {
+                    segments.put(Journal.firstLsnOf(segment.getFileName().toString()), segment);
+                }
+            }
+        }
+
+        // Segments ending at or before the checkpoint are not needed
+        List<Map.Entry<Long, Object>> needed = new ArrayList<>();
+        List<Map.Entry<Long, Object>> all = new ArrayList<>(segments.entrySet());
+        for (int i = 0; i < all.size(); i++) {
+            if (i + 1 < all.size() && all.get(i + 1).getKey() <= result.checkpointLsn + 1) {
+                continue;
+            }
+            needed.add(all.get(i));
+        }
+
+        result.lastLsn = result.checkpointLsn;
+        boolean[] reachedTarget = {false};
+        for (int i = 0; i < needed.size() && !reachedTarget[0]; i++) {
+            Object source = needed.get(i).getValue();
+            byte[] contents = read(backupId, source);
+            if (contents == null) {
+                continue;
+            }
+            Journal.readSegment(objectMapper, String.valueOf(needed.get(i).getKey()), contents, record -> {
+                if (reachedTarget[0] || record.getLsn() < result.lastLsn
+                        || (record.getLsn() == result.lastLsn && result.recordsReplayed == 0)) {
+                    return;
+                }
+                if (record.getTimestamp() > timestamp) {
+                    reachedTarget[0] = true;
+                    return;
+                }
+                if (record.getLsn() > result.lastLsn + 1) {
+                    Logger.warn("Journal records " + (result.lastLsn + 1) + ".." + (record.getLsn() - 1)
+                            + " are missing, the restored state may be incomplete");
+                    result.gap = true;
+                }
+                apply(record, state);
+                result.lastLsn = record.getLsn();
+                result.lastRecordAt = record.getTimestamp();
+                result.recordsReplayed++;
+            });
+            report(listener, "Replaying journal", reachedTarget[0] ? needed.size() : i + 1, needed.size());
+        }
+        if (needed.isEmpty()) {
+            report(listener, "Replaying journal", 0, 0);
+        }
+    }
+
+    // Contents of a segment from the backup or from disk; a live segment may have
+    // been archived by a checkpoint since it was listed
+    private byte[] read(String backupId, Object source) throws IOException {
+        if (source instanceof String path) {
+            byte[][] contents = new byte[1][];
+            backupStore.readFiles(backupId, path::equals, (entry, in) -> contents[0] = in.readAllBytes());
+            return contents[0];
+        }
+        Path segment = (Path) source;
+        try {
+            return Files.readAllBytes(segment);
+        } catch (NoSuchFileException e) {
+            if (archiveDirectory == null) {
+                throw e;
+            }
+            return Files.readAllBytes(archiveDirectory.resolve(segment.getFileName()));
+        }
+    }
+
+    private void apply(JournalRecord record, Map<String, Map<String, Object>> state) {
+        Map<String, Object> entities = state.get(record.getType());
+        if (entities == null) {
+            return;
+        }
+        if (record.isDelete()) {
+            entities.remove(record.getId());
+            return;
+        }
+        try {
+            entities.put(record.getId(), objectMapper.treeToValue(record.getData(), DataManager.classFor(record.getType())));
+        } catch (IOException e) {
+            Logger.error("Skipping unreadable journal record " + record.getLsn(), e);
+        }
+    }
+
+    // Entity type of a backed-up file such as users/<id>.json, or null for other files
+    private static String typeOf(String path) {
+        int slash = path.indexOf('/');
+        if (slash < 0 || path.indexOf('/', slash + 1) >= 0 || !path.endsWith(".json")) {
+            return null;
+        }
+        String directory = path.substring(0, slash);
+        for (String type : TYPES) {
+            if (type.equals(directory)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static void report(ProgressListener listener, String stage, long done, long total) {
+        if (listener != null) {
+            listener.onProgress(stage, done, total);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.arms.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/*
+ * Non-unique index from a derived key (e.g. studentId) to entity IDs.
+ *
+ * Entities are mutable and often changed in place before being saved again, so
+ * the index remembers the key each ID was filed under instead of recomputing it
+ * on removal. Writers are serialized by DataManager; readers never lock and
+ * re-check the key against the live entity when resolving.
+ */
+public class SecondaryIndex<T> {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final Function<T, String> keyOf;
+    private final Map<String, Set<String>> idsByKey = new ConcurrentHashMap<>();
+    private final Map<String, String> keyById = new ConcurrentHashMap<>();
+
+    public SecondaryIndex(Function<T, String> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    public static String compositeKey(String first, String second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        return first + KEY_SEPARATOR + second;
+    }
+
+    public void put(String id, T entity) {
+        String key = keyOf.apply(entity);
+        String previous = key == null ? keyById.remove(id) : keyById.put(id, key);
+        if (previous != null && !previous.equals(key)) {
+            removeFromBucket(previous, id);
+        }
+        if (key != null) {
+            idsByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public void remove(String id) {
+        String previous = keyById.remove(id);
+        if (previous != null) {
+            removeFromBucket(previous, id);
+        }
+    }
+
+    public void clear() {
+        idsByKey.clear();
+        keyById.clear();
+    }
+
+    public Set<String> getIds(String key) {
+        Set<String> ids = key == null ? null : idsByKey.get(key);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    public List<T> lookup(String key, Map<String, T> source) {
+        List<T> result = new ArrayList<>();
+        for (String id : getIds(key)) {
+            T entity = source.get(id);
+            if (entity != null && Objects.equals(key, keyOf.apply(entity))) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    private void removeFromBucket(String key, String id) {
+        idsByKey.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
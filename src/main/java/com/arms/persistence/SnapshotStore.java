@@ -0,0 +1,324 @@
+package com.arms.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import com.arms.domain.Assignment;
+import com.arms.domain.Course;
+import com.arms.domain.Enrollment;
+import com.arms.domain.Grade;
+import com.arms.domain.User;
+import com.arms.domain.enums.EnrollmentStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * Single-file binary snapshot of the whole store.
+ *
+ * Layout: header (magic, version, createdAt, lsn), a string dictionary holding
+ * every repeated string (IDs, letter grades, feedback), then one section per
+ * entity type. Grades and enrollments are stored column by column with
+ * fixed-width numeric columns and dictionary indexes; users, courses and
+ * assignments, which are few and deeply nested, are stored as compact JSON rows.
+ */
+public class SnapshotStore {
+
+    private static final long MAGIC = 0x41524D53534E4150L;
+    private static final int VERSION = 1;
+    private static final int NULL_INDEX = -1;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public SnapshotStore(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public boolean exists() {
+        return Files.isRegularFile(file);
+    }
+
+    public void write(long lsn, Map<String, User> users, Map<String, Course> courses,
+            Map<String, Assignment> assignments, Map<String, Grade> grades,
+            Map<String, Enrollment> enrollments) throws IOException {
+        List<Grade> gradeRows = new ArrayList<>(grades.values());
+        List<Enrollment> enrollmentRows = new ArrayList<>(enrollments.values());
+
+        // Grades and enrollments can be changed in place while the snapshot is
+        // written, so each row's strings are read once and used for both the
+        // dictionary and the columns
+        String[][] gradeStrings = new String[gradeRows.size()][];
+        for (int i = 0; i < gradeStrings.length; i++) {
+            Grade grade = gradeRows.get(i);
+            gradeStrings[i] = new String[] { grade.getId(), grade.getStudentId(), grade.getCourseId(),
+                    grade.getAssignmentId(), grade.getLetterGrade(), grade.getFeedback(), grade.getGradedBy() };
+        }
+        String[][] enrollmentStrings = new String[enrollmentRows.size()][];
+        for (int i = 0; i < enrollmentStrings.length; i++) {
+            Enrollment enrollment = enrollmentRows.get(i);
+            enrollmentStrings[i] = new String[] { enrollment.getId(), enrollment.getStudentId(),
+                    enrollment.getCourseId(), enrollment.getGrade() };
+        }
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (String[] strings : gradeStrings) {
+            for (String value : strings) {
+                intern(dictionary, value);
+            }
+        }
+        for (String[] strings : enrollmentStrings) {
+            for (String value : strings) {
+                intern(dictionary, value);
+            }
+        }
+
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream os = Files.newOutputStream(temp);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(lsn);
+
+            out.writeInt(dictionary.size());
+            for (String value : dictionary.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            writeJsonRows(out, users.values());
+            writeJsonRows(out, courses.values());
+            writeJsonRows(out, assignments.values());
+
+            out.writeInt(gradeRows.size());
+            writeStringColumn(out, gradeStrings, 0, dictionary);
+            writeStringColumn(out, gradeStrings, 1, dictionary);
+            writeStringColumn(out, gradeStrings, 2, dictionary);
+            writeStringColumn(out, gradeStrings, 3, dictionary);
+            writeDoubleColumn(out, gradeRows, Grade::getScore);
+            writeDoubleColumn(out, gradeRows, Grade::getMaxScore);
+            writeDoubleColumn(out, gradeRows, Grade::getPercentage);
+            writeStringColumn(out, gradeStrings, 4, dictionary);
+            writeStringColumn(out, gradeStrings, 5, dictionary);
+            writeStringColumn(out, gradeStrings, 6, dictionary);
+            writeDateTimeColumns(out, gradeRows, Grade::getGradedAt);
+            for (Grade grade : gradeRows) {
+                out.writeByte(grade.isPublished() ? 1 : 0);
+            }
+
+            out.writeInt(enrollmentRows.size());
+            writeStringColumn(out, enrollmentStrings, 0, dictionary);
+            writeStringColumn(out, enrollmentStrings, 1, dictionary);
+            writeStringColumn(out, enrollmentStrings, 2, dictionary);
+            writeDateTimeColumns(out, enrollmentRows, Enrollment::getEnrolledAt);
+            for (Enrollment enrollment : enrollmentRows) {
+                out.writeByte(enrollment.getStatus() == null ? -1 : enrollment.getStatus().ordinal());
+            }
+            writeStringColumn(out, enrollmentStrings, 3, dictionary);
+            writeDoubleColumn(out, enrollmentRows, Enrollment::getFinalScore);
+            for (Enrollment enrollment : enrollmentRows) {
+                out.writeInt(enrollment.getAttendancePercentage());
+            }
+            writeDateTimeColumns(out, enrollmentRows, Enrollment::getCompletedAt);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public long readLsn() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 28));
+            checkHeader(buffer);
+            buffer.getLong();
+            return buffer.getLong();
+        }
+    }
+
+    // Loads the snapshot into the given maps and returns the LSN it was taken at
+    public long read(Map<String, User> users, Map<String, Course> courses,
+            Map<String, Assignment> assignments, Map<String, Grade> grades,
+            Map<String, Enrollment> enrollments) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            checkHeader(buffer);
+            buffer.getLong();
+            long lsn = buffer.getLong();
+
+            String[] dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            readJsonRows(buffer, User.class, User::getId, users);
+            readJsonRows(buffer, Course.class, Course::getId, courses);
+            readJsonRows(buffer, Assignment.class, Assignment::getId, assignments);
+
+            Grade[] gradeRows = new Grade[buffer.getInt()];
+            for (int i = 0; i < gradeRows.length; i++) {
+                gradeRows[i] = new Grade();
+            }
+            readStringColumn(buffer, gradeRows, dictionary, Grade::setId);
+            readStringColumn(buffer, gradeRows, dictionary, Grade::setStudentId);
+            readStringColumn(buffer, gradeRows, dictionary, Grade::setCourseId);
+            readStringColumn(buffer, gradeRows, dictionary, Grade::setAssignmentId);
+            for (Grade grade : gradeRows) {
+                grade.setScore(buffer.getDouble());
+            }
+            for (Grade grade : gradeRows) {
+                grade.setMaxScore(buffer.getDouble());
+            }
+            for (Grade grade : gradeRows) {
+                grade.setPercentage(buffer.getDouble());
+            }
+            readStringColumn(buffer, gradeRows, dictionary, Grade::setLetterGrade);
+            readStringColumn(buffer, gradeRows, dictionary, Grade::setFeedback);
+            readStringColumn(buffer, gradeRows, dictionary, Grade::setGradedBy);
+            readDateTimeColumns(buffer, gradeRows, Grade::setGradedAt);
+            for (Grade grade : gradeRows) {
+                grade.setPublished(buffer.get() == 1);
+                grades.put(grade.getId(), grade);
+            }
+
+            Enrollment[] enrollmentRows = new Enrollment[buffer.getInt()];
+            for (int i = 0; i < enrollmentRows.length; i++) {
+                enrollmentRows[i] = new Enrollment();
+            }
+            readStringColumn(buffer, enrollmentRows, dictionary, Enrollment::setId);
+            readStringColumn(buffer, enrollmentRows, dictionary, Enrollment::setStudentId);
+            readStringColumn(buffer, enrollmentRows, dictionary, Enrollment::setCourseId);
+            readDateTimeColumns(buffer, enrollmentRows, Enrollment::setEnrolledAt);
+            EnrollmentStatus[] statuses = EnrollmentStatus.values();
+            for (Enrollment enrollment : enrollmentRows) {
+                byte status = buffer.get();
+                enrollment.setStatus(status < 0 ? null : statuses[status]);
+            }
+            readStringColumn(buffer, enrollmentRows, dictionary, Enrollment::setGrade);
+            for (Enrollment enrollment : enrollmentRows) {
+                enrollment.setFinalScore(buffer.getDouble());
+            }
+            for (Enrollment enrollment : enrollmentRows) {
+                enrollment.setAttendancePercentage(buffer.getInt());
+            }
+            readDateTimeColumns(buffer, enrollmentRows, Enrollment::setCompletedAt);
+            for (Enrollment enrollment : enrollmentRows) {
+                enrollments.put(enrollment.getId(), enrollment);
+            }
+            return lsn;
+        }
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static void checkHeader(MappedByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 28 || buffer.getLong() != MAGIC) {
+            throw new IOException("Not a snapshot file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+    }
+
+    private static void intern(Map<String, Integer> dictionary, String value) {
+        if (value != null) {
+            dictionary.putIfAbsent(value, dictionary.size());
+        }
+    }
+
+    private void writeJsonRows(DataOutputStream out, Iterable<?> rows) throws IOException {
+        List<byte[]> encoded = new ArrayList<>();
+        for (Object row : rows) {
+            encoded.add(objectMapper.writeValueAsBytes(row));
+        }
+        out.writeInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private <T> void readJsonRows(MappedByteBuffer buffer, Class<T> type, Function<T, String> idOf,
+            Map<String, T> target) throws IOException {
+        int rows = buffer.getInt();
+        for (int i = 0; i < rows; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            T entity = objectMapper.readValue(bytes, type);
+            target.put(idOf.apply(entity), entity);
+        }
+    }
+
+    private static void writeStringColumn(DataOutputStream out, String[][] rows, int column,
+            Map<String, Integer> dictionary) throws IOException {
+        for (String[] row : rows) {
+            String value = row[column];
+            out.writeInt(value == null ? NULL_INDEX : dictionary.get(value));
+        }
+    }
+
+    private static <T> void readStringColumn(MappedByteBuffer buffer, T[] rows, String[] dictionary,
+            BiConsumer<T, String> setter) {
+        for (T row : rows) {
+            int index = buffer.getInt();
+            setter.accept(row, index == NULL_INDEX ? null : dictionary[index]);
+        }
+    }
+
+    private static <T> void writeDoubleColumn(DataOutputStream out, List<T> rows, ToDoubleFunction<T> getter)
+            throws IOException {
+        for (T row : rows) {
+            out.writeDouble(getter.applyAsDouble(row));
+        }
+    }
+
+    // Date-times are split into an epoch-second column and a nano-of-second column
+    private static <T> void writeDateTimeColumns(DataOutputStream out, List<T> rows,
+            Function<T, LocalDateTime> getter) throws IOException {
+        for (T row : rows) {
+            LocalDateTime value = getter.apply(row);
+            out.writeLong(value == null ? NULL_TIME : value.toEpochSecond(ZoneOffset.UTC));
+        }
+        for (T row : rows) {
+            LocalDateTime value = getter.apply(row);
+            out.writeInt(value == null ? 0 : value.getNano());
+        }
+    }
+
+    private static <T> void readDateTimeColumns(MappedByteBuffer buffer, T[] rows,
+            BiConsumer<T, LocalDateTime> setter) {
+        long[] seconds = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            seconds[i] = buffer.getLong();
+        }
+        for (int i = 0; i < rows.length; i++) {
+            int nanos = buffer.getInt();
+            setter.accept(rows[i], seconds[i] == NULL_TIME
+                    ? null : LocalDateTime.ofEpochSecond(seconds[i], nanos, ZoneOffset.UTC));
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.arms.persistence;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/*
+ * In-memory inverted index for keyword search over a few text fields.
+ *
+ * Field values are split into lowercase terms at every character that is not a
+ * letter or digit, and alphanumeric terms are also split where letters and
+ * digits meet, so "CS101" is found by "cs", "101" and "cs101". Terms live in a
+ * skip list, so a query term matches every indexed term it is a prefix of with
+ * one range scan. Each posting carries the weight of the best field the term
+ * occurs in; exact term matches count double. A query matches entities that
+ * contain all of its terms and ranks them by summed weight.
+ *
+ * Like SecondaryIndex, the terms of each ID are remembered for removal, writers
+ * are serialized by DataManager and readers never lock.
+ */
+public class TextIndex<T> {
+
+    private final List<Function<T, String>> fields = new ArrayList<>();
+    private final List<Integer> weights = new ArrayList<>();
+    private final ConcurrentSkipListMap<String, Map<String, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<String, Map<String, Integer>> termsById = new ConcurrentHashMap<>();
+
+    public TextIndex<T> field(Function<T, String> extractor, int weight) {
+        fields.add(extractor);
+        weights.add(weight);
+        return this;
+    }
+
+    public void put(String id, T entity) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            int weight = weights.get(i);
+            for (String term : tokenize(fields.get(i).apply(entity))) {
+                terms.merge(term, weight, Math::max);
+            }
+        }
+
+        Map<String, Integer> previous = termsById.put(id, terms);
+        if (previous != null) {
+            previous.keySet().stream()
+                    .filter(term -> !terms.containsKey(term))
+                    .forEach(term -> removePosting(term, id));
+        }
+        terms.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(id, weight));
+    }
+
+    public void remove(String id) {
+        Map<String, Integer> previous = termsById.remove(id);
+        if (previous != null) {
+            previous.keySet().forEach(term -> removePosting(term, id));
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        termsById.clear();
+    }
+
+    public int size() {
+        return termsById.size();
+    }
+
+    // IDs matching every term of the query, best match first; empty for a blank query.
+    // Candidates come from the most selective query term; the other terms are checked
+    // against each candidate's own terms, so a common word does not cost a full scan.
+    public List<String> search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        queryTerms.sort(Comparator.comparingInt(String::length).reversed());
+        String driver = null;
+        long fewest = Long.MAX_VALUE;
+        for (String queryTerm : queryTerms) {
+            long count = countPostings(queryTerm, fewest);
+            if (count < fewest) {
+                fewest = count;
+                driver = queryTerm;
+            }
+        }
+        if (fewest == 0) {
+            return List.of();
+        }
+
+        Map<String, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> match : prefixRange(driver).entrySet()) {
+            int factor = match.getKey().length() == driver.length() ? 2 : 1;
+            for (Map.Entry<String, Integer> posting : match.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+        queryTerms.remove(driver);
+        if (!queryTerms.isEmpty()) {
+            scores.entrySet().removeIf(entry -> {
+                Map<String, Integer> terms = termsById.get(entry.getKey());
+                int total = entry.getValue();
+                for (String queryTerm : queryTerms) {
+                    int best = terms == null ? 0 : bestMatch(queryTerm, terms);
+                    if (best == 0) {
+                        return true;
+                    }
+                    total += best;
+                }
+                entry.setValue(total);
+                return false;
+            });
+        }
+
+        // Keep the top entries only; ties are broken by ID so results are stable
+        Comparator<Map.Entry<String, Integer>> rank = Map.Entry.<String, Integer>comparingByValue()
+                .reversed().thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(rank.reversed());
+        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+            if (top.size() < limit) {
+                top.add(entry);
+            } else if (rank.compare(entry, top.peek()) < 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(top);
+        ranked.sort(rank);
+        List<String> result = new ArrayList<>(ranked.size());
+        ranked.forEach(entry -> result.add(entry.getKey()));
+        return result;
+    }
+
+    public List<T> search(String query, int limit, Map<String, T> source) {
+        List<T> result = new ArrayList<>();
+        for (String id : search(query, limit)) {
+            T entity = source.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        int split = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                    split = -1;
+                } else if (split < 0 && Character.isDigit(c) != Character.isDigit(lower.charAt(i - 1))) {
+                    split = i;
+                }
+            } else if (start >= 0) {
+                String term = lower.substring(start, i);
+                terms.add(term);
+                if (split > 0) {
+                    addParts(term, terms);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Adds the letter and digit runs of a mixed term such as "cs101" or "ab12cd"
+    private static void addParts(String term, List<String> terms) {
+        int partStart = 0;
+        for (int i = 1; i <= term.length(); i++) {
+            if (i == term.length() || Character.isDigit(term.charAt(i)) != Character.isDigit(term.charAt(i - 1))) {
+                terms.add(term.substring(partStart, i));
+                partStart = i;
+            }
+        }
+    }
+
+    private NavigableMap<String, Map<String, Integer>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // Number of postings under a prefix, counting no further than the given cap
+    private long countPostings(String prefix, long cap) {
+        long count = 0;
+        for (Map<String, Integer> ids : prefixRange(prefix).values()) {
+            count += ids.size();
+            if (count >= cap) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static int bestMatch(String queryTerm, Map<String, Integer> terms) {
+        int best = 0;
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            if (term.getKey().startsWith(queryTerm)) {
+                int factor = term.getKey().length() == queryTerm.length() ? 2 : 1;
+                best = Math.max(best, term.getValue() * factor);
+            }
+        }
+        return best;
+    }
+
+    private void removePosting(String term, String id) {
+        postings.computeIfPresent(term, (t, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
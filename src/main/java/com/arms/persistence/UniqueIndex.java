@@ -0,0 +1,75 @@
+package com.arms.persistence;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/*
+ * Unique, case-insensitive index from a derived key (e.g. username) to one entity ID.
+ *
+ * Keys are case-folded so lookups match the old equalsIgnoreCase scans. Like
+ * SecondaryIndex it remembers the key each ID was filed under; writers check
+ * isAvailable and put under the owning map's monitor so the check cannot race.
+ */
+public class UniqueIndex<T> {
+
+    private final Function<T, String> keyOf;
+    private final Map<String, String> idByKey = new ConcurrentHashMap<>();
+    private final Map<String, String> keyById = new ConcurrentHashMap<>();
+
+    public UniqueIndex(Function<T, String> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    public static String normalize(String key) {
+        return key == null ? null : key.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    // True if the entity's key is unused or already owned by the same ID
+    public boolean isAvailable(String id, T entity) {
+        String key = normalize(keyOf.apply(entity));
+        if (key == null) {
+            return true;
+        }
+        String owner = idByKey.get(key);
+        return owner == null || owner.equals(id);
+    }
+
+    public void put(String id, T entity) {
+        String key = normalize(keyOf.apply(entity));
+        String previous = key == null ? keyById.remove(id) : keyById.put(id, key);
+        if (previous != null && !previous.equals(key)) {
+            idByKey.remove(previous, id);
+        }
+        if (key != null) {
+            idByKey.put(key, id);
+        }
+    }
+
+    public void remove(String id) {
+        String previous = keyById.remove(id);
+        if (previous != null) {
+            idByKey.remove(previous, id);
+        }
+    }
+
+    public void clear() {
+        idByKey.clear();
+        keyById.clear();
+    }
+
+    public String getId(String key) {
+        String normalized = normalize(key);
+        return normalized == null ? null : idByKey.get(normalized);
+    }
+
+    public T lookup(String key, Map<String, T> source) {
+        String id = getId(key);
+        T entity = id == null ? null : source.get(id);
+        if (entity != null && normalize(key).equals(normalize(keyOf.apply(entity)))) {
+            return entity;
+        }
+        return null;
+    }
+}
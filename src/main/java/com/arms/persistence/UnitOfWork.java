@@ -0,0 +1,90 @@
+package com.arms.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Multi-entity transaction. The entity locks named when it is opened are held
+ * until close(), so validation done between opening and commit() cannot be
+ * invalidated by another transaction on the same entities. Staged saves and
+ * deletes are written as one journal record, so after a crash either all of
+ * them or none are replayed.
+ *
+ *     try (UnitOfWork tx = dataManager.beginTransaction(
+ *             UnitOfWork.courseKey(courseId), UnitOfWork.userKey(studentId))) {
+ *         ... validate, tx.save(...) ...
+ *         return tx.commit();
+ *     }
+ *
+ * Transactions must not be nested on one thread.
+ */
+public class UnitOfWork implements AutoCloseable {
+
+    private final DataManager dataManager;
+    private final LockStripes lockStripes;
+    private final int[] heldStripes;
+    private final Map<String, Mutation> staged = new LinkedHashMap<>();
+    private boolean finished;
+    private boolean closed;
+
+    UnitOfWork(DataManager dataManager, LockStripes lockStripes, String... lockKeys) {
+        this.dataManager = dataManager;
+        this.lockStripes = lockStripes;
+        this.heldStripes = lockStripes.lockAll(Arrays.asList(lockKeys));
+    }
+
+    public static String userKey(String id) {
+        return DataManager.USERS + "/" + id;
+    }
+
+    public static String courseKey(String id) {
+        return DataManager.COURSES + "/" + id;
+    }
+
+    public static String assignmentKey(String id) {
+        return DataManager.ASSIGNMENTS + "/" + id;
+    }
+
+    public static String gradeKey(String id) {
+        return DataManager.GRADES + "/" + id;
+    }
+
+    public static String enrollmentKey(String id) {
+        return DataManager.ENROLLMENTS + "/" + id;
+    }
+
+    public void save(Object entity) {
+        stage(new Mutation(JournalRecord.OP_PUT, DataManager.typeOf(entity), DataManager.idOf(entity), entity));
+    }
+
+    public void delete(Object entity) {
+        stage(new Mutation(JournalRecord.OP_DELETE, DataManager.typeOf(entity), DataManager.idOf(entity), null));
+    }
+
+    // Applies every staged change at once; false if a unique constraint or the write failed
+    public boolean commit() {
+        if (finished) {
+            throw new IllegalStateException("Transaction already committed");
+        }
+        finished = true;
+        return dataManager.commit(new ArrayList<>(staged.values()));
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            finished = true;
+            lockStripes.unlockAll(heldStripes);
+        }
+    }
+
+    private void stage(Mutation mutation) {
+        if (finished) {
+            throw new IllegalStateException("Transaction already finished");
+        }
+        staged.put(mutation.type + "/" + mutation.id, mutation);
+    }
+}
@@ -0,0 +1,299 @@
+package com.arms.persistence;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import com.arms.util.Logger;
+
+/*
+ * Coalescing write-behind pipeline for entity files.
+ *
+ * Callers update the in-memory maps and enqueue a dirty marker; a single writer
+ * thread resolves the latest state of each marked entity at write time, so
+ * repeated saves of the same ID between flushes cost one file write.
+ *
+ * Each file is written to a temp file and renamed into place, so readers and
+ * crashes see either the old or the new contents. With FsyncPolicy.BATCH every
+ * batch is forced to disk as it is written. With
+ * NONE writes are only handed to the OS, and the files written or deleted since
+ * the last sync are remembered; awaitDurable() and flush() force those files
+ * and their directories under either policy, so once they return the writes
+ * survive a power loss, e.g. before a checkpoint drops the journal.
+ */
+public class WriteBehindQueue {
+
+    public enum FsyncPolicy {
+        NONE,
+        BATCH
+    }
+
+    private final BiFunction<String, String, Object> lookup;
+    private final long maxDelayMs;
+    private final int batchSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final Thread writer;
+    private final Object monitor = new Object();
+    // Held for a whole sync, so a caller never returns while another sync it relies on is still running
+    private final Object syncMonitor = new Object();
+
+    // Guarded by monitor
+    private LinkedHashMap<String, String[]> pending = new LinkedHashMap<>();
+    private long enqueuedSeq;
+    private long durableSeq;
+    private long firstPendingAt;
+    private long failures;
+    private boolean flushRequested;
+    private boolean running = true;
+    // Files written and directories changed since the last sync
+    private LinkedHashMap<String, String[]> unsynced = new LinkedHashMap<>();
+    private Set<String> unsyncedTypes = new HashSet<>();
+
+    public WriteBehindQueue(BiFunction<String, String, Object> lookup, long maxDelayMs,
+            int batchSize, FsyncPolicy fsyncPolicy) {
+        this.lookup = lookup;
+        this.maxDelayMs = maxDelayMs;
+        this.batchSize = batchSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.writer = new Thread(this::runWriter, "arms-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void enqueue(String type, String id) {
+        synchronized (monitor) {
+            pending.putIfAbsent(type + "/" + id, new String[]{type, id});
+            enqueuedSeq++;
+            if (firstPendingAt == 0) {
+                firstPendingAt = System.currentTimeMillis();
+            }
+            if (pending.size() >= batchSize) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    // Forces pending writes out now; returns false if any write failed while waiting
+    public boolean flush() {
+        long failuresBefore;
+        synchronized (monitor) {
+            failuresBefore = failures;
+            flushRequested = true;
+            monitor.notifyAll();
+        }
+        awaitDurable();
+        synchronized (monitor) {
+            return failures == failuresBefore;
+        }
+    }
+
+    // Blocks until everything enqueued before this call has been written and forced to disk
+    public void awaitDurable() {
+        synchronized (monitor) {
+            long target = enqueuedSeq;
+            while (durableSeq < target && writer.isAlive()) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        sync();
+    }
+
+    public boolean awaitDurable(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (monitor) {
+            long target = enqueuedSeq;
+            while (durableSeq < target && writer.isAlive()) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                try {
+                    monitor.wait(remainingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return sync() == 0;
+    }
+
+    // Forces the files written and the directories changed since the last sync;
+    // returns the number of failures, which are also counted against flush()
+    private int sync() {
+        synchronized (syncMonitor) {
+            Map<String, String[]> files;
+            Set<String> types;
+            synchronized (monitor) {
+                files = unsynced;
+                types = unsyncedTypes;
+                unsynced = new LinkedHashMap<>();
+                unsyncedTypes = new HashSet<>();
+            }
+            FileHandler fileHandler = FileHandler.getInstance();
+            int failed = 0;
+            for (String[] key : files.values()) {
+                try {
+                    fileHandler.syncEntity(key[0], key[1]);
+                } catch (NoSuchFileException e) {
+                    // Deleted since; covered by the directory sync
+                } catch (IOException e) {
+                    Logger.error("Failed to fsync " + key[0] + "/" + key[1], e);
+                    failed++;
+                    markUnsynced(key, key[0]);
+                }
+            }
+            for (String type : types) {
+                try {
+                    fileHandler.syncDirectory(type);
+                } catch (IOException e) {
+                    Logger.error("Failed to fsync directory " + type, e);
+                    failed++;
+                    markUnsynced(null, type);
+                }
+            }
+            if (failed > 0) {
+                synchronized (monitor) {
+                    failures += failed;
+                }
+            }
+            return failed;
+        }
+    }
+
+    private void markUnsynced(String[] key, String type) {
+        synchronized (monitor) {
+            if (key != null) {
+                unsynced.put(key[0] + "/" + key[1], key);
+            }
+            unsyncedTypes.add(type);
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (monitor) {
+            return pending.size();
+        }
+    }
+
+    public void close() {
+        flush();
+        synchronized (monitor) {
+            running = false;
+            monitor.notifyAll();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        boolean last = false;
+        while (!last) {
+            Map<String, String[]> batch;
+            long target;
+            synchronized (monitor) {
+                try {
+                    while (running && !shouldDrain()) {
+                        if (pending.isEmpty()) {
+                            monitor.wait();
+                        } else {
+                            long waitMs = firstPendingAt + maxDelayMs - System.currentTimeMillis();
+                            monitor.wait(Math.max(1, waitMs));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+                last = !running;
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                target = enqueuedSeq;
+                firstPendingAt = 0;
+                flushRequested = false;
+            }
+
+            int failed = writeBatch(batch);
+
+            synchronized (monitor) {
+                failures += failed;
+                durableSeq = Math.max(durableSeq, target);
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    private boolean shouldDrain() {
+        if (flushRequested) {
+            return true;
+        }
+        if (pending.isEmpty()) {
+            return false;
+        }
+        return pending.size() >= batchSize
+                || System.currentTimeMillis() - firstPendingAt >= maxDelayMs;
+    }
+
+    private int writeBatch(Map<String, String[]> batch) {
+        FileHandler fileHandler = FileHandler.getInstance();
+        List<String[]> written = new ArrayList<>();
+        Set<String> types = new HashSet<>();
+        int failed = 0;
+        for (String[] key : batch.values()) {
+            String type = key[0];
+            String id = key[1];
+            types.add(type);
+            try {
+                Object entity = lookup.apply(type, id);
+                if (entity == null) {
+                    fileHandler.deleteEntity(type, id);
+                } else {
+                    fileHandler.writeEntity(type, id, entity, fsyncPolicy == FsyncPolicy.BATCH);
+                    written.add(key);
+                }
+            } catch (IOException | RuntimeException e) {
+                Logger.error("Write-behind failed for " + type + "/" + id, e);
+                failed++;
+                enqueue(type, id);
+            }
+        }
+        if (fsyncPolicy == FsyncPolicy.BATCH) {
+            // Files were forced before their rename; the directories make the renames stick
+            for (String type : types) {
+                try {
+                    fileHandler.syncDirectory(type);
+                } catch (IOException e) {
+                    Logger.error("Failed to fsync directory " + type, e);
+                    failed++;
+                    markUnsynced(null, type);
+                }
+            }
+        } else {
+            synchronized (monitor) {
+                for (String[] key : written) {
+                    unsynced.put(key[0] + "/" + key[1], key);
+                }
+                unsyncedTypes.addAll(types);
+            }
+        }
+        if (!batch.isEmpty()) {
+            Logger.debug(() -> "Write-behind flushed " + batch.size() + " entities");
+        }
+        return failed;
+    }
+}
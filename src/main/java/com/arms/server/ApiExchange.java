@@ -0,0 +1,292 @@
+package com.arms.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.arms.domain.User;
+import com.arms.domain.enums.UserRole;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * One API request: path segments below /api, query parameters, the JSON body and
+ * the response. Lists are sent a page at a time (offset and limit parameters,
+ * limit capped by the server) and written item by item to a chunked response, so
+ * a large page is never built as one string in memory.
+ */
+public class ApiExchange {
+
+    private final HttpExchange exchange;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBodyBytes;
+    private final List<String> path;
+    private final Map<String, String> params;
+    private User principal;
+    private boolean responded;
+
+    ApiExchange(HttpExchange exchange, ObjectMapper objectMapper, int defaultPageSize, int maxPageSize,
+            int maxBodyBytes) {
+        this.exchange = exchange;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBodyBytes = maxBodyBytes;
+        this.path = splitPath(exchange.getRequestURI().getRawPath());
+        this.params = parseQuery(exchange.getRequestURI().getRawQuery());
+    }
+
+    public String getMethod() {
+        return exchange.getRequestMethod().toUpperCase();
+    }
+
+    public boolean isGet() {
+        return "GET".equals(getMethod());
+    }
+
+    public boolean isPost() {
+        return "POST".equals(getMethod());
+    }
+
+    public boolean isPut() {
+        return "PUT".equals(getMethod());
+    }
+
+    public boolean isDelete() {
+        return "DELETE".equals(getMethod());
+    }
+
+    public HttpExchange getHttpExchange() {
+        return exchange;
+    }
+
+    // Path segments below /api, e.g. [courses, CRS-1, students]
+    public List<String> getPath() {
+        return path;
+    }
+
+    public int depth() {
+        return path.size();
+    }
+
+    public String segment(int index) {
+        return index < path.size() ? path.get(index) : null;
+    }
+
+    public String param(String name) {
+        String value = params.get(name);
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    public String requireParam(String name) {
+        String value = param(name);
+        if (value == null) {
+            throw ApiException.badRequest("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    public int intParam(String name, int defaultValue) {
+        String value = param(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw ApiException.badRequest("Parameter " + name + " must be a number: " + value);
+        }
+    }
+
+    public Boolean booleanParam(String name) {
+        String value = param(name);
+        return value == null ? null : Boolean.valueOf(value);
+    }
+
+    public String getClientAddress() {
+        return exchange.getRemoteAddress().getAddress().getHostAddress();
+    }
+
+    // Token from an "Authorization: Bearer <token>" header, or null
+    public String getBearerToken() {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        String token = header.substring(7).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    void setPrincipal(User principal) {
+        this.principal = principal;
+    }
+
+    // The signed-in user; set for every request except login and health checks
+    public User getPrincipal() {
+        return principal;
+    }
+
+    public boolean hasRole(Set<UserRole> roles) {
+        return principal != null && roles.contains(principal.getRole());
+    }
+
+    public void requireRole(Set<UserRole> roles) {
+        if (!hasRole(roles)) {
+            throw new ApiException(403, "Requires role " + roles);
+        }
+    }
+
+    // Lets users act on their own records and the given roles on anyone's
+    public void requireSelfOrRole(String userId, Set<UserRole> roles) {
+        if (principal == null || !(principal.getId().equals(userId) || roles.contains(principal.getRole()))) {
+            throw new ApiException(403, "Not allowed for another user");
+        }
+    }
+
+    public JsonNode readBody() throws IOException {
+        byte[] body = readBytes(exchange.getRequestBody());
+        if (body.length == 0) {
+            throw ApiException.badRequest("Request body required");
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw ApiException.badRequest("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    public <T> T convert(JsonNode node, Class<T> type) {
+        try {
+            return objectMapper.treeToValue(node, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw ApiException.badRequest("Invalid " + type.getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    public static String text(JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        if (value == null || value.isNull() || value.asText().isBlank()) {
+            throw ApiException.badRequest("Missing field: " + field);
+        }
+        return value.asText();
+    }
+
+    public static double number(JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        if (value == null || !value.isNumber()) {
+            throw ApiException.badRequest("Field " + field + " must be a number");
+        }
+        return value.asDouble();
+    }
+
+    public void sendJson(int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        responded = true;
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public void sendOk(Object body) throws IOException {
+        sendJson(200, body);
+    }
+
+    public void sendError(int status, String message) throws IOException {
+        sendJson(status, Map.of("status", status, "error", message == null ? "" : message));
+    }
+
+    // Sends {offset, limit, total, items} for one page of the list
+    public void sendPage(List<?> items) throws IOException {
+        int offset = Math.max(0, intParam("offset", 0));
+        int limit = Math.max(1, Math.min(maxPageSize, intParam("limit", defaultPageSize)));
+        int from = Math.min(offset, items.size());
+        int to = Math.min(items.size(), from + limit);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        responded = true;
+        exchange.sendResponseHeaders(200, 0);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(exchange.getResponseBody())) {
+            generator.writeStartObject();
+            generator.writeNumberField("offset", offset);
+            generator.writeNumberField("limit", limit);
+            generator.writeNumberField("total", items.size());
+            generator.writeArrayFieldStart("items");
+            for (Object item : items.subList(from, to)) {
+                objectMapper.writeValue(generator, item);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    boolean isResponded() {
+        return responded;
+    }
+
+    private byte[] readBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > maxBodyBytes) {
+                throw new ApiException(413, "Request body larger than " + maxBodyBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    // Segments after the /api prefix, URL-decoded, without empty ones
+    private static List<String> splitPath(String rawPath) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : rawPath.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(decode(segment));
+            }
+        }
+        if (!segments.isEmpty() && segments.get(0).equals("api")) {
+            segments.remove(0);
+        }
+        return Collections.unmodifiableList(segments);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.putIfAbsent(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            } else if (!pair.isEmpty()) {
+                params.putIfAbsent(decode(pair), "");
+            }
+        }
+        return params;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest("Malformed URL encoding: " + value);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.arms.server;
+
+import java.io.IOException;
+
+// Handles every request under /api/<name>; path segment 0 is the resource name
+@FunctionalInterface
+public interface ApiResource {
+
+    void handle(ApiExchange exchange) throws IOException;
+}
@@ -0,0 +1,214 @@
+package com.arms.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arms.config.AppConfig;
+import com.arms.domain.User;
+import com.arms.domain.enums.UserRole;
+import com.arms.service.AuthService;
+import com.arms.service.LoginRejectedException;
+import com.arms.service.LoginThrottle;
+import com.arms.service.PasswordHasher;
+import com.arms.service.SessionManager;
+import com.arms.util.Logger;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * JSON API over the service layer on the JDK HTTP server.
+ *
+ * The server's dispatcher thread only hands each exchange to a bounded pool of
+ * worker threads (app.server.threads, app.server.queue.capacity); when the queue
+ * is full the request is answered with 503 right away instead of piling up.
+ * Requests are routed by their first path segment below /api to an ApiResource.
+ * Apart from login and health checks, every request must carry the token of a
+ * session opened by POST /api/auth/login as a Bearer token; the password is
+ * only checked at login. Password hashes are never serialized.
+ */
+public class ApiServer {
+
+    // Resources reachable without a session token; auth checks its own paths
+    private static final Set<String> PUBLIC_RESOURCES = Set.of("auth", "health");
+    static final Set<UserRole> ADMINS = EnumSet.of(UserRole.ADMIN, UserRole.SUPER_ADMIN);
+    static final Set<UserRole> STAFF = EnumSet.of(UserRole.TEACHER, UserRole.ADMIN, UserRole.SUPER_ADMIN);
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+    private final ObjectMapper objectMapper = createObjectMapper();
+    private final Map<String, ApiResource> resources = new LinkedHashMap<>();
+    private final AuthService authService = AuthService.getInstance();
+
+    private final int defaultPageSize = AppConfig.getIntProperty("app.server.page.size", 50);
+    private final int maxPageSize = AppConfig.getIntProperty("app.server.page.max", 500);
+    private final int maxBodyBytes = AppConfig.getIntProperty("app.server.max.body.kb", 64) * 1024;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public ApiServer(int port) throws IOException {
+        // Loopback only unless app.server.bind.address opens it up, e.g. 0.0.0.0
+        String bindAddress = AppConfig.getProperty("app.server.bind.address", "127.0.0.1");
+        server = HttpServer.create(new InetSocketAddress(bindAddress, port),
+                AppConfig.getIntProperty("app.server.backlog", 128));
+        workers = createWorkers(AppConfig.getIntProperty("app.server.threads", 8),
+                AppConfig.getIntProperty("app.server.queue.capacity", 256));
+
+        resources.put("auth", new AuthResource());
+        resources.put("users", new UserResource());
+        resources.put("courses", new CourseResource());
+        resources.put("assignments", new AssignmentResource());
+        resources.put("grades", new GradeResource());
+        resources.put("enrollments", new EnrollmentResource());
+        resources.put("health", exchange -> exchange.sendOk(Map.of("status", "UP")));
+        resources.put("metrics", exchange -> {
+            exchange.requireRole(ADMINS);
+            exchange.sendOk(Map.of("server", getMetrics(),
+                    "sessions", SessionManager.getInstance().getMetrics(),
+                    "hashing", PasswordHasher.getInstance().getMetrics(),
+                    "logins", LoginThrottle.getInstance().getMetrics()));
+        });
+
+        server.createContext("/api", this::dispatch);
+    }
+
+    public void start() {
+        server.start();
+        Logger.info("API server listening on " + server.getAddress().getHostString() + ":" + getPort());
+    }
+
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        workers.shutdown();
+        try {
+            workers.awaitTermination(delaySeconds + 5L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Logger.info("API server stopped, " + getMetrics());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getMetrics() {
+        long count = requests.sum();
+        return String.format("requests=%d rejected=%d clientErrors=%d serverErrors=%d avgLatency=%.1fus "
+                + "active=%d queued=%d",
+                count, rejected.sum(), clientErrors.sum(), serverErrors.sum(),
+                count == 0 ? 0 : totalNanos.sum() / 1000.0 / count,
+                workers.getActiveCount(), workers.getQueue().size());
+    }
+
+    // Runs on the dispatcher thread; must not block
+    private void dispatch(HttpExchange exchange) {
+        try {
+            workers.execute(() -> handle(exchange));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            try {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(503, -1);
+            } catch (IOException ignored) {
+                // Client went away
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    private void handle(HttpExchange httpExchange) {
+        long start = System.nanoTime();
+        requests.increment();
+        ApiExchange exchange = null;
+        try {
+            exchange = new ApiExchange(httpExchange, objectMapper, defaultPageSize, maxPageSize, maxBodyBytes);
+            ApiResource resource = resources.get(exchange.segment(0));
+            if (resource == null) {
+                throw ApiException.notFound("No such resource: " + httpExchange.getRequestURI().getPath());
+            }
+            if (!PUBLIC_RESOURCES.contains(exchange.segment(0))) {
+                exchange.setPrincipal(authService.resolveSession(exchange.getBearerToken())
+                        .orElseThrow(() -> ApiException.unauthorized("Missing or expired session token")));
+            }
+            resource.handle(exchange);
+        } catch (ApiException e) {
+            clientErrors.increment();
+            if (e.getStatus() == 401) {
+                httpExchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            }
+            fail(exchange, httpExchange, e.getStatus(), e.getMessage());
+        } catch (LoginRejectedException e) {
+            clientErrors.increment();
+            httpExchange.getResponseHeaders().set("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            fail(exchange, httpExchange, e.getReason() == LoginRejectedException.Reason.THROTTLED ? 429 : 503,
+                    e.getMessage());
+        } catch (Exception e) {
+            serverErrors.increment();
+            Logger.error("API request failed: " + httpExchange.getRequestMethod() + " "
+                    + httpExchange.getRequestURI(), e);
+            fail(exchange, httpExchange, 500, "Internal server error");
+        } finally {
+            httpExchange.close();
+            totalNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void fail(ApiExchange exchange, HttpExchange httpExchange, int status, String message) {
+        try {
+            if (exchange == null) {
+                httpExchange.sendResponseHeaders(status, -1);
+            } else if (!exchange.isResponded()) {
+                exchange.sendError(status, message);
+            }
+            // Otherwise the response was already streaming; closing it truncates the body
+        } catch (IOException e) {
+            Logger.debug(() -> "Could not send error response: " + e.getMessage());
+        }
+    }
+
+    @JsonIgnoreProperties({"passwordHash"})
+    private abstract static class PublicUser {
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        // Items of a page are written one after another into one response
+        mapper.configure(SerializationFeature.FLUSH_AFTER_WRITE_VALUE, false);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.addMixIn(User.class, PublicUser.class);
+        return mapper;
+    }
+
+    private static ThreadPoolExecutor createWorkers(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "arms-api-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
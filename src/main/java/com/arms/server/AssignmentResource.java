@@ -0,0 +1,83 @@
+package com.arms.server;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.arms.domain.Assignment;
+import com.arms.service.AssignmentService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/*
+ * GET  /api/assignments?courseId=|teacherId=|studentId=
+ * GET  /api/assignments/upcoming?studentId=&days=   due within the next days
+ * GET  /api/assignments/{id}
+ * GET  /api/assignments/{id}/stats                  submission counts (staff)
+ * POST /api/assignments/{id}/submit {studentId, content}   (the student or admins)
+ *
+ * Lists for a student are limited to the student and staff.
+ */
+class AssignmentResource implements ApiResource {
+
+    private final AssignmentService assignmentService = AssignmentService.getInstance();
+
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        String id = exchange.segment(1);
+        String action = exchange.segment(2);
+
+        if (id == null) {
+            CourseResource.requireGet(exchange);
+            exchange.sendPage(list(exchange));
+        } else if (id.equals("upcoming") && action == null) {
+            CourseResource.requireGet(exchange);
+            String studentId = exchange.requireParam("studentId");
+            exchange.requireSelfOrRole(studentId, ApiServer.STAFF);
+            exchange.sendPage(assignmentService.getUpcomingAssignments(studentId, exchange.intParam("days", 7)));
+        } else {
+            Assignment assignment = assignmentService.getAssignmentById(id)
+                    .orElseThrow(() -> ApiException.notFound("No assignment " + id));
+            if (action == null) {
+                CourseResource.requireGet(exchange);
+                exchange.sendOk(assignment);
+            } else if (action.equals("stats")) {
+                CourseResource.requireGet(exchange);
+                exchange.requireRole(ApiServer.STAFF);
+                exchange.sendOk(assignmentService.getSubmissionStats(id));
+            } else if (action.equals("submit")) {
+                submit(exchange, id);
+            } else {
+                throw ApiException.notFound("Unknown assignment endpoint: " + action);
+            }
+        }
+    }
+
+    private List<Assignment> list(ApiExchange exchange) {
+        String courseId = exchange.param("courseId");
+        String teacherId = exchange.param("teacherId");
+        String studentId = exchange.param("studentId");
+        if (courseId != null) {
+            return assignmentService.getAssignmentsByCourse(courseId);
+        } else if (teacherId != null) {
+            return assignmentService.getAssignmentsByTeacher(teacherId);
+        } else if (studentId != null) {
+            exchange.requireSelfOrRole(studentId, ApiServer.STAFF);
+            return assignmentService.getAssignmentsForStudent(studentId);
+        }
+        return assignmentService.getAllAssignments();
+    }
+
+    private void submit(ApiExchange exchange, String id) throws IOException {
+        if (!exchange.isPost()) {
+            throw ApiException.methodNotAllowed(exchange.getMethod());
+        }
+        JsonNode body = exchange.readBody();
+        String studentId = ApiExchange.text(body, "studentId");
+        exchange.requireSelfOrRole(studentId, ApiServer.ADMINS);
+        String content = body.path("content").asText("");
+        // The score is set when the submission is graded, never by the submitter
+        if (!assignmentService.submitAssignment(id, studentId, 0, content)) {
+            throw ApiException.conflict("Assignment " + id + " does not accept a submission from " + studentId);
+        }
+        exchange.sendOk(assignmentService.getAssignmentById(id).orElse(null));
+    }
+}
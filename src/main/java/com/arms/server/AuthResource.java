@@ -0,0 +1,58 @@
+package com.arms.server;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.arms.service.AuthService;
+import com.arms.service.SessionManager;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/*
+ * POST /api/auth/login {username, password}   opens a session: {token, user}
+ * POST /api/auth/logout                       ends the caller's session
+ * GET  /api/auth/me                           the caller's user
+ */
+class AuthResource implements ApiResource {
+
+    private final AuthService authService = AuthService.getInstance();
+
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        String action = exchange.segment(1);
+        if (action == null || exchange.depth() != 2) {
+            throw ApiException.notFound("Unknown auth endpoint");
+        }
+
+        switch (action) {
+            case "login" -> {
+                requirePost(exchange);
+                JsonNode body = exchange.readBody();
+                SessionManager.Session session = authService
+                        .openSession(ApiExchange.text(body, "username"), ApiExchange.text(body, "password"),
+                                exchange.getClientAddress())
+                        .orElseThrow(() -> ApiException.unauthorized("Invalid username or password"));
+                exchange.sendOk(Map.of("token", session.getToken(),
+                        "user", authService.getUserById(session.getUserId()).orElseThrow()));
+            }
+            case "logout" -> {
+                requirePost(exchange);
+                if (!authService.closeSession(exchange.getBearerToken())) {
+                    throw ApiException.unauthorized("Missing or expired session token");
+                }
+                exchange.sendOk(Map.of("loggedOut", true));
+            }
+            case "me" -> {
+                CourseResource.requireGet(exchange);
+                exchange.sendOk(authService.resolveSession(exchange.getBearerToken())
+                        .orElseThrow(() -> ApiException.unauthorized("Missing or expired session token")));
+            }
+            default -> throw ApiException.notFound("Unknown auth endpoint: " + action);
+        }
+    }
+
+    private static void requirePost(ApiExchange exchange) {
+        if (!exchange.isPost()) {
+            throw ApiException.methodNotAllowed(exchange.getMethod());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.arms.server;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.arms.domain.Course;
+import com.arms.domain.User;
+import com.arms.service.AssignmentService;
+import com.arms.service.CourseService;
+import com.arms.service.GradeService;
+import com.arms.service.SeatAllocationService;
+
+/*
+ * GET    /api/courses?q=&department=&semester=&teacherId=&studentId=&active=
+ * GET    /api/courses/metrics                      seat allocation counters (admins)
+ * GET    /api/courses/{id}
+ * GET    /api/courses/{id}/assignments
+ * GET    /api/courses/{id}/students | /grades      (the course's teacher or admins)
+ * GET    /api/courses/{id}/seats                   free seats and waitlist length
+ * POST   /api/courses/{id}/enroll | /drop | /waitlist {studentId}   (the student or admins)
+ * GET    /api/courses/{id}/waitlist/{studentId}    waitlist position (the student or staff)
+ * DELETE /api/courses/{id}/waitlist/{studentId}    (the student or admins)
+ */
+class CourseResource implements ApiResource {
+
+    private final CourseService courseService = CourseService.getInstance();
+    private final AssignmentService assignmentService = AssignmentService.getInstance();
+    private final GradeService gradeService = GradeService.getInstance();
+    private final SeatAllocationService seatAllocation = SeatAllocationService.getInstance();
+
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        String id = exchange.segment(1);
+        String action = exchange.segment(2);
+
+        if (id == null) {
+            requireGet(exchange);
+            exchange.sendPage(list(exchange));
+            return;
+        }
+        if (id.equals("metrics") && action == null) {
+            requireGet(exchange);
+            exchange.requireRole(ApiServer.ADMINS);
+            exchange.sendOk(courseService.getSeatAllocationMetrics());
+            return;
+        }
+
+        Course course = courseService.getCourseById(id)
+                .orElseThrow(() -> ApiException.notFound("No course " + id));
+        if (action == null) {
+            requireGet(exchange);
+            exchange.sendOk(course);
+            return;
+        }
+
+        switch (action) {
+            case "students" -> {
+                requireGet(exchange);
+                requireCourseStaff(exchange, course);
+                exchange.sendPage(courseService.getEnrolledStudents(id));
+            }
+            case "assignments" -> {
+                requireGet(exchange);
+                exchange.sendPage(assignmentService.getAssignmentsByCourse(id));
+            }
+            case "grades" -> {
+                requireGet(exchange);
+                requireCourseStaff(exchange, course);
+                exchange.sendPage(gradeService.getGradesByCourse(id));
+            }
+            case "seats" -> {
+                requireGet(exchange);
+                exchange.sendOk(Map.of(
+                        "maxStudents", course.getMaxStudents(),
+                        "available", seatAllocation.getAvailableSeats(id),
+                        "waitlisted", seatAllocation.getWaitlist(id).size()));
+            }
+            case "enroll" -> registration(exchange, courseService.enrollStudent(studentId(exchange), id), "enroll");
+            case "drop" -> registration(exchange, courseService.dropStudent(studentId(exchange), id), "drop");
+            case "waitlist" -> waitlist(exchange, id);
+            default -> throw ApiException.notFound("Unknown course endpoint: " + action);
+        }
+    }
+
+    private List<Course> list(ApiExchange exchange) {
+        String department = exchange.param("department");
+        String semester = exchange.param("semester");
+        String teacherId = exchange.param("teacherId");
+        String studentId = exchange.param("studentId");
+        Boolean active = exchange.booleanParam("active");
+        Set<Course> studentCourses = studentId == null ? null : new HashSet<>(courseService.getCoursesByStudent(studentId));
+
+        return courseService.searchCourses(exchange.param("q")).stream()
+                .filter(course -> department == null || department.equalsIgnoreCase(course.getDepartment()))
+                .filter(course -> semester == null || semester.equalsIgnoreCase(course.getSemester()))
+                .filter(course -> teacherId == null || teacherId.equals(course.getTeacherId()))
+                .filter(course -> studentCourses == null || studentCourses.contains(course))
+                .filter(course -> active == null || course.isActive() == active)
+                .collect(Collectors.toList());
+    }
+
+    private void waitlist(ApiExchange exchange, String courseId) throws IOException {
+        String studentId = exchange.segment(3);
+        if (studentId == null) {
+            if (!exchange.isPost()) {
+                throw ApiException.methodNotAllowed(exchange.getMethod());
+            }
+            String joining = studentId(exchange);
+            if (!courseService.joinWaitlist(joining, courseId)) {
+                throw ApiException.conflict("Could not add " + joining + " to the waitlist of " + courseId);
+            }
+            exchange.sendOk(position(joining, courseId));
+        } else if (exchange.isGet()) {
+            exchange.requireSelfOrRole(studentId, ApiServer.STAFF);
+            exchange.sendOk(position(studentId, courseId));
+        } else if (exchange.isDelete()) {
+            exchange.requireSelfOrRole(studentId, ApiServer.ADMINS);
+            if (!courseService.leaveWaitlist(studentId, courseId)) {
+                throw ApiException.notFound(studentId + " is not on the waitlist of " + courseId);
+            }
+            exchange.sendOk(Map.of("studentId", studentId, "courseId", courseId, "left", true));
+        } else {
+            throw ApiException.methodNotAllowed(exchange.getMethod());
+        }
+    }
+
+    // Position -1 once the student has been promoted to a seat
+    private Map<String, Object> position(String studentId, String courseId) {
+        return Map.of("studentId", studentId, "courseId", courseId,
+                "position", courseService.getWaitlistPosition(studentId, courseId),
+                "enrolled", courseService.isEnrolled(studentId, courseId));
+    }
+
+    private void registration(ApiExchange exchange, boolean succeeded, String action) throws IOException {
+        if (!succeeded) {
+            throw ApiException.conflict("Could not " + action + " the student; check the course, seats and enrollment");
+        }
+        exchange.sendOk(courseService.getCourseById(exchange.segment(1)).orElse(null));
+    }
+
+    // The student a registration request is for; students may only register themselves
+    private static String studentId(ApiExchange exchange) throws IOException {
+        if (!exchange.isPost()) {
+            throw ApiException.methodNotAllowed(exchange.getMethod());
+        }
+        String studentId = ApiExchange.text(exchange.readBody(), "studentId");
+        exchange.requireSelfOrRole(studentId, ApiServer.ADMINS);
+        return studentId;
+    }
+
+    // A course's roster and grades are for its own teacher and admins; other teachers
+    // only see the courses they teach, as in the desktop client. A null course, e.g.
+    // one deleted since its grades were given, is left to admins
+    static void requireCourseStaff(ApiExchange exchange, Course course) {
+        if (exchange.hasRole(ApiServer.ADMINS)) {
+            return;
+        }
+        User principal = exchange.getPrincipal();
+        if (course == null || !exchange.hasRole(ApiServer.STAFF) || !principal.getId().equals(course.getTeacherId())) {
+            throw new ApiException(403, "Requires the course's teacher or an admin");
+        }
+    }
+
+    static void requireGet(ApiExchange exchange) {
+        if (!exchange.isGet()) {
+            throw ApiException.methodNotAllowed(exchange.getMethod());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.arms.server;
+
+import java.io.IOException;
+
+import com.arms.domain.Enrollment;
+import com.arms.persistence.DataManager;
+import com.arms.service.EnrollmentService;
+
+/*
+ * GET /api/enrollments?studentId=|courseId=   (the student or staff; by course staff only)
+ * GET /api/enrollments/{id}
+ *
+ * Read only: status changes go through the course enroll, drop and waitlist
+ * endpoints so seat counters stay in step.
+ */
+class EnrollmentResource implements ApiResource {
+
+    private final EnrollmentService enrollmentService = EnrollmentService.getInstance();
+    private final DataManager dataManager = DataManager.getInstance();
+
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        String id = exchange.segment(1);
+        if (exchange.depth() > 2) {
+            throw ApiException.notFound("Unknown enrollment endpoint");
+        }
+        CourseResource.requireGet(exchange);
+
+        if (id == null) {
+            String studentId = exchange.param("studentId");
+            if (studentId != null) {
+                exchange.requireSelfOrRole(studentId, ApiServer.STAFF);
+                exchange.sendPage(enrollmentService.getEnrollmentsByStudent(studentId));
+            } else {
+                exchange.requireRole(ApiServer.STAFF);
+                exchange.sendPage(enrollmentService.getEnrollmentsByCourse(exchange.requireParam("courseId")));
+            }
+        } else {
+            Enrollment enrollment = dataManager.getEnrollments().get(id);
+            if (enrollment == null) {
+                throw ApiException.notFound("No enrollment " + id);
+            }
+            exchange.requireSelfOrRole(enrollment.getStudentId(), ApiServer.STAFF);
+            exchange.sendOk(enrollment);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.arms.server;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.arms.domain.Grade;
+import com.arms.service.CourseService;
+import com.arms.service.GradeService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/*
+ * GET  /api/grades?studentId=|courseId=|assignmentId=&published=
+ * GET  /api/grades/summary?courseId=           class average, distribution, final grades
+ * GET  /api/grades/{id}
+ * POST /api/grades {studentId, courseId, assignmentId, score, maxScore}
+ * PUT  /api/grades/{id} {score, feedback, published}
+ *
+ * Summaries, new grades and edits are for the course's teacher and admins.
+ *
+ * Students only see their own published grades; a draft reads as not found.
+ */
+class GradeResource implements ApiResource {
+
+    private final GradeService gradeService = GradeService.getInstance();
+    private final CourseService courseService = CourseService.getInstance();
+
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        String id = exchange.segment(1);
+        if (exchange.depth() > 2) {
+            throw ApiException.notFound("Unknown grade endpoint");
+        }
+
+        if (id == null) {
+            if (exchange.isGet()) {
+                exchange.sendPage(list(exchange));
+            } else if (exchange.isPost()) {
+                create(exchange);
+            } else {
+                throw ApiException.methodNotAllowed(exchange.getMethod());
+            }
+        } else if (id.equals("summary")) {
+            CourseResource.requireGet(exchange);
+            String courseId = exchange.requireParam("courseId");
+            CourseResource.requireCourseStaff(exchange, courseService.getCourseById(courseId)
+                    .orElseThrow(() -> ApiException.notFound("No course " + courseId)));
+            exchange.sendOk(Map.of(
+                    "courseId", courseId,
+                    "classAverage", gradeService.calculateClassAverage(courseId),
+                    "distribution", gradeService.getGradeDistribution(courseId),
+                    "finalGrades", gradeService.calculateFinalGradesForCourse(courseId)));
+        } else if (exchange.isGet()) {
+            Grade grade = find(id);
+            exchange.requireSelfOrRole(grade.getStudentId(), ApiServer.STAFF);
+            if (!grade.isPublished() && !exchange.hasRole(ApiServer.STAFF)) {
+                throw ApiException.notFound("No grade " + id);
+            }
+            exchange.sendOk(grade);
+        } else if (exchange.isPut()) {
+            Grade grade = find(id);
+            CourseResource.requireCourseStaff(exchange, courseService.getCourseById(grade.getCourseId()).orElse(null));
+            JsonNode body = exchange.readBody();
+            double score = body.has("score") ? ApiExchange.number(body, "score") : grade.getScore();
+            String feedback = body.has("feedback") ? body.get("feedback").asText() : grade.getFeedback();
+            boolean published = body.has("published") ? body.get("published").asBoolean() : grade.isPublished();
+            gradeService.updateGrade(id, score, feedback, published);
+            exchange.sendOk(find(id));
+        } else {
+            throw ApiException.methodNotAllowed(exchange.getMethod());
+        }
+    }
+
+    private List<Grade> list(ApiExchange exchange) {
+        String studentId = exchange.param("studentId");
+        String courseId = exchange.param("courseId");
+        String assignmentId = exchange.param("assignmentId");
+        Boolean published = exchange.booleanParam("published");
+        if (studentId != null) {
+            exchange.requireSelfOrRole(studentId, ApiServer.STAFF);
+        } else {
+            exchange.requireRole(ApiServer.STAFF);
+        }
+
+        List<Grade> grades;
+        if (!exchange.hasRole(ApiServer.STAFF)) {
+            grades = gradeService.getPublishedGradesByStudent(studentId);
+        } else if (assignmentId != null) {
+            grades = gradeService.getGradesByAssignment(assignmentId);
+        } else if (studentId != null) {
+            grades = gradeService.getGradesByStudent(studentId);
+        } else if (courseId != null) {
+            grades = gradeService.getGradesByCourse(courseId);
+        } else {
+            grades = gradeService.getAllGrades();
+        }
+        return grades.stream()
+                .filter(grade -> studentId == null || studentId.equals(grade.getStudentId()))
+                .filter(grade -> courseId == null || courseId.equals(grade.getCourseId()))
+                .filter(grade -> published == null || grade.isPublished() == published)
+                .collect(Collectors.toList());
+    }
+
+    private void create(ApiExchange exchange) throws IOException {
+        exchange.requireRole(ApiServer.STAFF);
+        JsonNode body = exchange.readBody();
+        String courseId = ApiExchange.text(body, "courseId");
+        CourseResource.requireCourseStaff(exchange, courseService.getCourseById(courseId)
+                .orElseThrow(() -> ApiException.notFound("No course " + courseId)));
+        Grade grade = gradeService.createGrade(ApiExchange.text(body, "studentId"), courseId,
+                ApiExchange.text(body, "assignmentId"), ApiExchange.number(body, "score"),
+                ApiExchange.number(body, "maxScore"))
+                .orElseThrow(() -> ApiException.conflict("Could not create the grade"));
+        exchange.sendJson(201, grade);
+    }
+
+    private Grade find(String id) {
+        return gradeService.getGradeById(id).orElseThrow(() -> ApiException.notFound("No grade " + id));
+    }
+}
@@ -0,0 +1,101 @@
+package com.arms.server;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.arms.domain.User;
+import com.arms.domain.enums.UserRole;
+import com.arms.domain.enums.UserStatus;
+import com.arms.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/*
+ * GET  /api/users?q=&role=&status=      page of users (staff)
+ * GET  /api/users/stats                 user count per role (admins)
+ * GET  /api/users/{id}                  (the user or staff)
+ * POST /api/users {type, username, ..., password}            (admins)
+ * POST /api/users/{id}/activate | /deactivate                (admins)
+ */
+class UserResource implements ApiResource {
+
+    private final UserService userService = UserService.getInstance();
+
+    @Override
+    public void handle(ApiExchange exchange) throws IOException {
+        String id = exchange.segment(1);
+        String action = exchange.segment(2);
+
+        if (id == null) {
+            exchange.requireRole(exchange.isGet() ? ApiServer.STAFF : ApiServer.ADMINS);
+            if (exchange.isGet()) {
+                exchange.sendPage(list(exchange));
+            } else if (exchange.isPost()) {
+                create(exchange);
+            } else {
+                throw ApiException.methodNotAllowed(exchange.getMethod());
+            }
+        } else if (id.equals("stats") && exchange.isGet()) {
+            exchange.requireRole(ApiServer.ADMINS);
+            exchange.sendOk(userService.getUserStatistics());
+        } else if (action == null && exchange.isGet()) {
+            exchange.requireSelfOrRole(id, ApiServer.STAFF);
+            exchange.sendOk(find(id));
+        } else if (exchange.depth() == 3 && exchange.isPost()
+                && (action.equals("activate") || action.equals("deactivate"))) {
+            exchange.requireRole(ApiServer.ADMINS);
+            find(id);
+            boolean updated = action.equals("activate") ? userService.activateUser(id) : userService.deactivateUser(id);
+            if (!updated) {
+                throw ApiException.conflict("Could not " + action + " user " + id);
+            }
+            exchange.sendOk(find(id));
+        } else {
+            throw ApiException.notFound("Unknown user endpoint");
+        }
+    }
+
+    private List<User> list(ApiExchange exchange) {
+        UserRole role = enumParam(exchange, "role", UserRole.class);
+        UserStatus status = enumParam(exchange, "status", UserStatus.class);
+        List<User> users = userService.searchUsers(exchange.param("q"));
+        if (role == null && status == null) {
+            return users;
+        }
+        return users.stream()
+                .filter(user -> role == null || user.getRole() == role)
+                .filter(user -> status == null || user.getStatus() == status)
+                .collect(Collectors.toList());
+    }
+
+    private void create(ApiExchange exchange) throws IOException {
+        JsonNode body = exchange.readBody();
+        ApiExchange.text(body, "username");
+        ApiExchange.text(body, "email");
+        String password = ApiExchange.text(body, "password");
+        if (body instanceof ObjectNode object) {
+            object.remove("password");
+        }
+        User user = exchange.convert(body, User.class);
+        User created = userService.createUser(user, password)
+                .orElseThrow(() -> ApiException.conflict("Username or email already in use"));
+        exchange.sendJson(201, created);
+    }
+
+    private User find(String id) {
+        return userService.getUserById(id).orElseThrow(() -> ApiException.notFound("No user " + id));
+    }
+
+    static <E extends Enum<E>> E enumParam(ApiExchange exchange, String name, Class<E> type) {
+        String value = exchange.param(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest("Unknown " + name + ": " + value);
+        }
+    }
+}
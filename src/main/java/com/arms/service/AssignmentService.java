@@ -9,8 +9,6 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import com.arms.domain.Assignment;
-import com.arms.domain.Course;
-import com.arms.domain.Grade;
 import com.arms.domain.Student;
 import com.arms.domain.enums.AssignmentStatus;
 import com.arms.persistence.DataManager;
@@ -44,30 +42,21 @@ public class AssignmentService {
     public List<Assignment> getAssignmentsByTeacher(String teacherId) {
         // Get courses taught by teacher
         CourseService courseService = CourseService.getInstance();
-        List<String> courseIds = courseService.getCoursesByTeacher(teacherId).stream()
-                .map(Course::getId)
-                .collect(Collectors.toList());
-        
-        return dataManager.getAssignments().values().stream()
-                .filter(assignment -> courseIds.contains(assignment.getCourseId()))
+        return courseService.getCoursesByTeacher(teacherId).stream()
+                .flatMap(course -> dataManager.getAssignmentsByCourse(course.getId()).stream())
                 .collect(Collectors.toList());
     }
 
     public List<Assignment> getAssignmentsForStudent(String studentId) {
         // Get courses student is enrolled in
         CourseService courseService = CourseService.getInstance();
-        List<String> courseIds = courseService.getCoursesByStudent(studentId).stream()
-                .map(Course::getId)
-                .collect(Collectors.toList());
-        
-        return dataManager.getAssignments().values().stream()
-                .filter(assignment -> courseIds.contains(assignment.getCourseId()))
+        return courseService.getCoursesByStudent(studentId).stream()
+                .flatMap(course -> dataManager.getAssignmentsByCourse(course.getId()).stream())
                 .collect(Collectors.toList());
     }
 
     public List<Assignment> getAssignmentsByCourse(String courseId) {
-        return dataManager.getAssignments().values().stream()
-                .filter(assignment -> assignment.getCourseId().equals(courseId))
+        return dataManager.getAssignmentsByCourse(courseId).stream()
                 .sorted(Comparator.comparing(Assignment::getDueDate))
                 .collect(Collectors.toList());
     }
@@ -143,19 +132,8 @@ public class AssignmentService {
         // Add student to submission list
         assignment.getSubmissionStudentIds().add(studentId);
         
-        // Create or update grade
-        Optional<Grade> existingGrade = gradeService.getGradeByStudentAndAssignment(studentId, assignmentId);
-        
-        if (existingGrade.isPresent()) {
-            // Update existing grade
-            Grade grade = existingGrade.get();
-            grade.setScore(score);
-            grade.setMaxScore(assignment.getMaxScore());
-            grade.calculateLetterGrade();
-            grade.setGradedAt(LocalDateTime.now());
-            dataManager.saveGrade(grade);
-        } else {
-            // Create new grade
+        // Create a grade to be filled in when graded; one a teacher already gave is kept
+        if (gradeService.getGradeByStudentAndAssignment(studentId, assignmentId).isEmpty()) {
             gradeService.createGrade(studentId, assignment.getCourseId(), assignmentId, score, assignment.getMaxScore());
         }
         
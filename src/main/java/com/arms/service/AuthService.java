@@ -3,22 +3,28 @@ package com.arms.service;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
-import org.mindrot.jbcrypt.BCrypt;
-
 import com.arms.domain.User;
 import com.arms.domain.enums.UserRole;
 import com.arms.persistence.DataManager;
 import com.arms.persistence.IDGenerator;
 import com.arms.util.Logger;
+import com.arms.util.PasswordPolicy;
 import com.arms.util.ValidationHelper;
 
 public class AuthService {
     private static AuthService instance;
     private final DataManager dataManager;
+    private final SessionManager sessionManager;
+    private final PasswordHasher passwordHasher;
+    private final LoginThrottle loginThrottle;
     private User currentUser;
+    private String currentToken;
     
     private AuthService() {
         this.dataManager = DataManager.getInstance();
+        this.sessionManager = SessionManager.getInstance();
+        this.passwordHasher = PasswordHasher.getInstance();
+        this.loginThrottle = LoginThrottle.getInstance();
     }
     
     public static synchronized AuthService getInstance() {
@@ -29,21 +35,56 @@ public class AuthService {
     }
     
     public Optional<User> login(String username, String password) {
+        Optional<SessionManager.Session> session = openSession(username, password);
+        if (session.isEmpty()) {
+            return Optional.empty();
+        }
+        currentToken = session.get().getToken();
+        currentUser = dataManager.getUsers().get(session.get().getUserId());
+        return Optional.ofNullable(currentUser);
+    }
+    
+    // Checks the credentials once and opens a session; later requests present the
+    // session token instead of the password
+    public Optional<SessionManager.Session> openSession(String username, String password) {
+        return openSession(username, password, null);
+    }
+    
+    public Optional<SessionManager.Session> openSession(String username, String password, String clientId) {
+        return authenticate(username, password, clientId).map(sessionManager::createSession);
+    }
+    
+    // The user behind a session token, without hashing anything
+    public Optional<User> resolveSession(String token) {
+        return sessionManager.getPrincipal(token);
+    }
+    
+    public boolean closeSession(String token) {
+        return sessionManager.invalidate(token);
+    }
+    
+    public Optional<User> authenticate(String username, String password) {
+        return authenticate(username, password, null);
+    }
+    
+    // Checks the credentials without touching the desktop session or saving
+    // anything; lastLogin is recorded when a session is opened. Throws
+    // LoginRejectedException when the attempt is throttled or hashing is saturated.
+    public Optional<User> authenticate(String username, String password, String clientId) {
+        loginThrottle.acquire(username, clientId);
         Optional<User> userOpt = dataManager.findUserByUsername(username);
         
-        if (userOpt.isPresent()) {
+        if (userOpt.isPresent() && password != null) {
             User user = userOpt.get();
             
-            if (BCrypt.checkpw(password, user.getPasswordHash())) {
+            if (passwordHasher.verify(password, user.getPasswordHash())) {
                 if (!user.isActive()) {
                     Logger.warn("Login attempt for inactive user: " + username);
                     return Optional.empty();
                 }
                 
-                user.updateLastLogin();
-                dataManager.saveUser(user);
-                currentUser = user;
-                
+                loginThrottle.recordSuccess(username);
+                upgradeHashIfOutdated(user, password);
                 Logger.info("User logged in: " + username + " [" + user.getRole() + "]");
                 return Optional.of(user);
             }
@@ -53,6 +94,24 @@ public class AuthService {
         return Optional.empty();
     }
     
+    // Rehashes with the current policy's cost after a successful login; skipped
+    // while the hashing pool is busy and retried at a later login
+    private void upgradeHashIfOutdated(User user, String password) {
+        String oldHash = user.getPasswordHash();
+        if (!PasswordPolicy.getInstance().needsRehash(oldHash)) {
+            return;
+        }
+        passwordHasher.hashWhenIdle(password, newHash -> {
+            // Leave the hash alone if the password was changed meanwhile
+            if (oldHash.equals(user.getPasswordHash())) {
+                user.setPasswordHash(newHash);
+                dataManager.saveUser(user);
+                Logger.info("Upgraded password hash of " + user.getUsername() + " to cost "
+                        + PasswordPolicy.costOf(newHash));
+            }
+        });
+    }
+    
     public boolean registerUser(User user, String password) {
         if (!ValidationHelper.isValidEmail(user.getEmail())) {
             return false;
@@ -63,11 +122,13 @@ public class AuthService {
         }
         
         user.setId(IDGenerator.generateUserId());
-        user.setPasswordHash(BCrypt.hashpw(password, BCrypt.gensalt(12)));
+        user.setPasswordHash(passwordHasher.hash(password));
         user.setCreatedAt(LocalDateTime.now());
         user.setLastLogin(LocalDateTime.now());
         
-        dataManager.saveUser(user);
+        if (!dataManager.saveUser(user)) {
+            return false;
+        }
         Logger.info("New user registered: " + user.getUsername());
         return true;
     }
@@ -75,7 +136,9 @@ public class AuthService {
     public void logout() {
         if (currentUser != null) {
             Logger.info("User logged out: " + currentUser.getUsername());
+            sessionManager.invalidate(currentToken);
             currentUser = null;
+            currentToken = null;
         }
     }
     
@@ -96,12 +159,13 @@ public class AuthService {
             return false;
         }
         
-        if (!BCrypt.checkpw(oldPassword, currentUser.getPasswordHash())) {
+        if (!passwordHasher.verify(oldPassword, currentUser.getPasswordHash())) {
             return false;
         }
         
-        currentUser.setPasswordHash(BCrypt.hashpw(newPassword, BCrypt.gensalt(12)));
+        currentUser.setPasswordHash(passwordHasher.hash(newPassword));
         dataManager.saveUser(currentUser);
+        sessionManager.invalidateUser(currentUser.getId(), currentToken);
         Logger.info("Password changed for user: " + currentUser.getUsername());
         return true;
     }
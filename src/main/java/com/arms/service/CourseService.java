@@ -13,13 +13,17 @@ import com.arms.domain.Student;
 import com.arms.domain.enums.EnrollmentStatus;
 import com.arms.persistence.DataManager;
 import com.arms.persistence.IDGenerator;
+import com.arms.persistence.UnitOfWork;
+import com.arms.util.Logger;
 
 public class CourseService {
     private static CourseService instance;
     private final DataManager dataManager;
+    private final SeatAllocationService seatAllocation;
 
     private CourseService() {
         this.dataManager = DataManager.getInstance();
+        this.seatAllocation = SeatAllocationService.getInstance();
     }
 
     public static synchronized CourseService getInstance() {
@@ -44,9 +48,7 @@ public class CourseService {
     }
 
     public List<Course> getCoursesByTeacher(String teacherId) {
-        return dataManager.getCourses().values().stream()
-                .filter(course -> course.getTeacherId() != null && course.getTeacherId().equals(teacherId))
-                .collect(Collectors.toList());
+        return dataManager.getCoursesByTeacher(teacherId);
     }
 
     public List<Course> getCoursesByDepartment(String department) {
@@ -62,8 +64,7 @@ public class CourseService {
     }
 
     public List<Course> getCoursesByStudent(String studentId) {
-        List<String> enrolledCourseIds = dataManager.getEnrollments().values().stream()
-                .filter(enrollment -> enrollment.getStudentId().equals(studentId))
+        List<String> enrolledCourseIds = dataManager.getEnrollmentsByStudent(studentId).stream()
                 .filter(enrollment -> enrollment.getStatus() == EnrollmentStatus.ENROLLED)
                 .map(Enrollment::getCourseId)
                 .collect(Collectors.toList());
@@ -75,8 +76,7 @@ public class CourseService {
     }
 
     public List<Student> getEnrolledStudents(String courseId) {
-        List<String> studentIds = dataManager.getEnrollments().values().stream()
-                .filter(enrollment -> enrollment.getCourseId().equals(courseId))
+        List<String> studentIds = dataManager.getEnrollmentsByCourse(courseId).stream()
                 .filter(enrollment -> enrollment.getStatus() == EnrollmentStatus.ENROLLED)
                 .map(Enrollment::getStudentId)
                 .collect(Collectors.toList());
@@ -111,10 +111,18 @@ public class CourseService {
             return false;
         }
         
-        // Preserve enrollment count
-        course.setCurrentEnrollment(existing.getCurrentEnrollment());
-        
-        dataManager.saveCourse(course);
+        try (UnitOfWork tx = dataManager.beginTransaction(UnitOfWork.courseKey(course.getId()))) {
+            // Preserve enrollment count
+            course.setCurrentEnrollment(dataManager.getCourses().get(course.getId()).getCurrentEnrollment());
+            tx.save(course);
+            if (!tx.commit()) {
+                return false;
+            }
+        }
+
+        // A raised limit lets waitlisted students in
+        seatAllocation.updateCapacity(course);
+        promoteWhileSeatsFree(course.getId());
         return true;
     }
 
@@ -131,95 +139,249 @@ public class CourseService {
         }
         
         dataManager.deleteCourse(courseId);
+        seatAllocation.forget(courseId);
         return true;
     }
 
+    // Seats are claimed from the lock-free SeatAllocationService counter first, so a
+    // full course rejects without locking; only granted requests take the course and
+    // student locks to commit the enrollment and both counters together
     public boolean enrollStudent(String studentId, String courseId) {
-        Course course = dataManager.getCourses().get(courseId);
-        Student student = (Student) dataManager.getUsers().get(studentId);
-        
-        if (course == null || student == null || !course.canEnroll()) {
+        long started = System.nanoTime();
+        try {
+            return enroll(studentId, courseId);
+        } finally {
+            seatAllocation.recordLatency(System.nanoTime() - started);
+        }
+    }
+
+    private boolean enroll(String studentId, String courseId) {
+        if (!(dataManager.getUsers().get(studentId) instanceof Student) || isEnrolled(studentId, courseId)) {
             return false;
         }
-        
-        // Check if already enrolled
-        boolean alreadyEnrolled = dataManager.getEnrollments().values().stream()
-                .anyMatch(e -> e.getStudentId().equals(studentId) && 
-                               e.getCourseId().equals(courseId) && 
-                               e.getStatus() == EnrollmentStatus.ENROLLED);
-        
-        if (alreadyEnrolled) {
+
+        // Waitlisted students get freed seats first
+        if (seatAllocation.hasWaitlist(courseId) || !seatAllocation.tryAcquire(courseId)) {
             return false;
         }
-        
-        // Create enrollment
-        Enrollment enrollment = new Enrollment();
-        enrollment.setId(IDGenerator.generateEnrollmentId());
-        enrollment.setStudentId(studentId);
-        enrollment.setCourseId(courseId);
-        enrollment.setEnrolledAt(LocalDateTime.now());
-        enrollment.setStatus(EnrollmentStatus.ENROLLED);
-        
-        // Update course enrollment count
-        course.incrementEnrollment();
-        
-        // Update student's enrolled courses
-        student.enrollInCourse(courseId);
-        
-        // Save all changes
-        dataManager.saveEnrollment(enrollment);
-        dataManager.saveCourse(course);
-        dataManager.saveUser(student);
-        
-        return true;
+
+        try (UnitOfWork tx = dataManager.beginTransaction(
+                UnitOfWork.courseKey(courseId), UnitOfWork.userKey(studentId))) {
+            Course course = dataManager.getCourses().get(courseId);
+            Student student = (Student) dataManager.getUsers().get(studentId);
+
+            if (course == null || student == null || !course.isActive() || isEnrolled(studentId, courseId)) {
+                seatAllocation.release(courseId);
+                return false;
+            }
+
+            // Create enrollment
+            Enrollment enrollment = new Enrollment();
+            enrollment.setId(IDGenerator.generateEnrollmentId());
+            enrollment.setStudentId(studentId);
+            enrollment.setCourseId(courseId);
+            enrollment.setEnrolledAt(LocalDateTime.now());
+            enrollment.setStatus(EnrollmentStatus.ENROLLED);
+
+            if (!commitEnrollment(tx, enrollment, course, student)) {
+                seatAllocation.release(courseId);
+                return false;
+            }
+            return true;
+        }
     }
 
     public boolean dropStudent(String studentId, String courseId) {
-        Optional<Enrollment> enrollmentOpt = dataManager.getEnrollments().values().stream()
-                .filter(e -> e.getStudentId().equals(studentId) && 
-                             e.getCourseId().equals(courseId) && 
-                             e.getStatus() == EnrollmentStatus.ENROLLED)
-                .findFirst();
-        
-        if (enrollmentOpt.isEmpty()) {
-            return false;
+        try (UnitOfWork tx = dataManager.beginTransaction(
+                UnitOfWork.courseKey(courseId), UnitOfWork.userKey(studentId))) {
+            Optional<Enrollment> enrollmentOpt = dataManager.getEnrollmentsByStudentAndCourse(studentId, courseId).stream()
+                    .filter(e -> e.getStatus() == EnrollmentStatus.ENROLLED)
+                    .findFirst();
+
+            if (enrollmentOpt.isEmpty()) {
+                return false;
+            }
+
+            Enrollment enrollment = enrollmentOpt.get();
+            Course course = dataManager.getCourses().get(courseId);
+            Student student = (Student) dataManager.getUsers().get(studentId);
+
+            if (course == null || student == null) {
+                return false;
+            }
+
+            // Update enrollment status, course enrollment count and the student's enrolled courses
+            int previousEnrollment = course.getCurrentEnrollment();
+            enrollment.setStatus(EnrollmentStatus.DROPPED);
+            course.setCurrentEnrollment(Math.max(0, previousEnrollment - 1));
+            boolean wasListed = student.getEnrolledCourseIds() != null
+                    && student.getEnrolledCourseIds().remove(courseId);
+
+            tx.save(enrollment);
+            tx.save(course);
+            tx.save(student);
+            if (!tx.commit()) {
+                enrollment.setStatus(EnrollmentStatus.ENROLLED);
+                course.setCurrentEnrollment(previousEnrollment);
+                if (wasListed) {
+                    student.getEnrolledCourseIds().add(courseId);
+                }
+                return false;
+            }
         }
-        
-        Enrollment enrollment = enrollmentOpt.get();
-        Course course = dataManager.getCourses().get(courseId);
-        Student student = (Student) dataManager.getUsers().get(studentId);
-        
-        if (course == null || student == null) {
-            return false;
+
+        // The freed seat goes straight to the head of the waitlist, if any
+        if (!promoteNext(courseId)) {
+            seatAllocation.release(courseId);
         }
-        
-        // Update enrollment status
-        enrollment.setStatus(EnrollmentStatus.DROPPED);
-        
-        // Update course enrollment count
-        course.setCurrentEnrollment(Math.max(0, course.getCurrentEnrollment() - 1));
-        
-        // Update student's enrolled courses
-        if (student.getEnrolledCourseIds() != null) {
-            student.getEnrolledCourseIds().remove(courseId);
+        return true;
+    }
+
+    // Queues a student for a full course as a PENDING enrollment; promoted in request
+    // order as seats free up
+    public boolean joinWaitlist(String studentId, String courseId) {
+        try (UnitOfWork tx = dataManager.beginTransaction(
+                UnitOfWork.courseKey(courseId), UnitOfWork.userKey(studentId))) {
+            Course course = dataManager.getCourses().get(courseId);
+            if (course == null || !course.isActive() || !(dataManager.getUsers().get(studentId) instanceof Student)) {
+                return false;
+            }
+
+            boolean alreadyListed = dataManager.getEnrollmentsByStudentAndCourse(studentId, courseId).stream()
+                    .anyMatch(e -> e.getStatus() == EnrollmentStatus.ENROLLED
+                            || e.getStatus() == EnrollmentStatus.PENDING);
+            if (alreadyListed) {
+                return false;
+            }
+
+            Enrollment enrollment = new Enrollment();
+            enrollment.setId(IDGenerator.generateEnrollmentId());
+            enrollment.setStudentId(studentId);
+            enrollment.setCourseId(courseId);
+            enrollment.setEnrolledAt(LocalDateTime.now());
+            enrollment.setStatus(EnrollmentStatus.PENDING);
+
+            tx.save(enrollment);
+            if (!tx.commit()) {
+                return false;
+            }
+            seatAllocation.addToWaitlist(courseId, enrollment.getId());
+        }
+
+        // A seat may have freed up while the request was being queued
+        promoteWhileSeatsFree(courseId);
+        return true;
+    }
+
+    public boolean leaveWaitlist(String studentId, String courseId) {
+        try (UnitOfWork tx = dataManager.beginTransaction(
+                UnitOfWork.courseKey(courseId), UnitOfWork.userKey(studentId))) {
+            Optional<Enrollment> pending = dataManager.getEnrollmentsByStudentAndCourse(studentId, courseId).stream()
+                    .filter(e -> e.getStatus() == EnrollmentStatus.PENDING)
+                    .findFirst();
+            if (pending.isEmpty()) {
+                return false;
+            }
+
+            Enrollment enrollment = pending.get();
+            enrollment.setStatus(EnrollmentStatus.DROPPED);
+            tx.save(enrollment);
+            if (!tx.commit()) {
+                enrollment.setStatus(EnrollmentStatus.PENDING);
+                return false;
+            }
+            seatAllocation.removeFromWaitlist(courseId, enrollment.getId());
+            return true;
+        }
+    }
+
+    // 1-based place in the course's waitlist, or -1 if the student is not waiting
+    public int getWaitlistPosition(String studentId, String courseId) {
+        return dataManager.getEnrollmentsByStudentAndCourse(studentId, courseId).stream()
+                .filter(e -> e.getStatus() == EnrollmentStatus.PENDING)
+                .findFirst()
+                .map(e -> seatAllocation.getWaitlistPosition(courseId, e.getId()))
+                .orElse(-1);
+    }
+
+    public SeatAllocationService.Metrics getSeatAllocationMetrics() {
+        return seatAllocation.getMetrics();
+    }
+
+    // Hands a seat the caller already holds to the oldest valid waitlist entry;
+    // false if nobody is waiting, in which case the seat is still the caller's
+    private boolean promoteNext(String courseId) {
+        String enrollmentId;
+        while ((enrollmentId = seatAllocation.pollWaitlist(courseId)) != null) {
+            Enrollment queued = dataManager.getEnrollments().get(enrollmentId);
+            if (queued == null) {
+                continue;
+            }
+            String studentId = queued.getStudentId();
+            try (UnitOfWork tx = dataManager.beginTransaction(
+                    UnitOfWork.courseKey(courseId), UnitOfWork.userKey(studentId))) {
+                Enrollment enrollment = dataManager.getEnrollments().get(enrollmentId);
+                Course course = dataManager.getCourses().get(courseId);
+                if (enrollment == null || enrollment.getStatus() != EnrollmentStatus.PENDING || course == null
+                        || !(dataManager.getUsers().get(studentId) instanceof Student student)
+                        || isEnrolled(studentId, courseId)) {
+                    continue;
+                }
+
+                enrollment.setStatus(EnrollmentStatus.ENROLLED);
+                enrollment.setEnrolledAt(LocalDateTime.now());
+                if (commitEnrollment(tx, enrollment, course, student)) {
+                    seatAllocation.recordPromotion();
+                    Logger.info("Promoted " + studentId + " from the waitlist of " + courseId);
+                    return true;
+                }
+                enrollment.setStatus(EnrollmentStatus.PENDING);
+            }
+        }
+        return false;
+    }
+
+    private void promoteWhileSeatsFree(String courseId) {
+        while (seatAllocation.hasWaitlist(courseId) && seatAllocation.tryAcquire(courseId)) {
+            if (!promoteNext(courseId)) {
+                seatAllocation.release(courseId);
+                return;
+            }
+        }
+    }
+
+    // Saves an ENROLLED enrollment together with the incremented course count and the
+    // student's course list; undoes the in-memory changes if the commit fails
+    private boolean commitEnrollment(UnitOfWork tx, Enrollment enrollment, Course course, Student student) {
+        String courseId = course.getId();
+        int previousEnrollment = course.getCurrentEnrollment();
+        boolean newlyListed = student.getEnrolledCourseIds() == null
+                || !student.getEnrolledCourseIds().contains(courseId);
+        course.setCurrentEnrollment(previousEnrollment + 1);
+        student.enrollInCourse(courseId);
+
+        tx.save(enrollment);
+        tx.save(course);
+        tx.save(student);
+        if (!tx.commit()) {
+            course.setCurrentEnrollment(previousEnrollment);
+            if (newlyListed) {
+                student.getEnrolledCourseIds().remove(courseId);
+            }
+            return false;
         }
-        
-        // Save all changes
-        dataManager.saveEnrollment(enrollment);
-        dataManager.saveCourse(course);
-        dataManager.saveUser(student);
-        
         return true;
     }
 
+    public boolean isEnrolled(String studentId, String courseId) {
+        return dataManager.getEnrollmentsByStudentAndCourse(studentId, courseId).stream()
+                .anyMatch(e -> e.getStatus() == EnrollmentStatus.ENROLLED);
+    }
+
     public List<Course> searchCourses(String keyword) {
-        String lowerKeyword = keyword.toLowerCase();
-        return dataManager.getCourses().values().stream()
-                .filter(course -> 
-                    course.getCourseCode().toLowerCase().contains(lowerKeyword) ||
-                    course.getTitle().toLowerCase().contains(lowerKeyword) ||
-                    course.getDescription().toLowerCase().contains(lowerKeyword) ||
-                    (course.getDepartment() != null && course.getDepartment().toLowerCase().contains(lowerKeyword)))
-                .collect(Collectors.toList());
+        if (keyword == null || keyword.isBlank()) {
+            return getAllCourses();
+        }
+        return dataManager.searchCourses(keyword, Integer.MAX_VALUE);
     }
 }
@@ -3,7 +3,6 @@ package com.arms.service;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import com.arms.domain.Enrollment;
 import com.arms.domain.enums.EnrollmentStatus;
@@ -25,58 +24,19 @@ public class EnrollmentService {
         return instance;
     }
     
-    public boolean enrollStudentInCourse(String studentId, String courseId, LocalDateTime enrolledAt) {
-        try {
-            // Check if enrollment already exists
-            Optional<Enrollment> existingEnrollment = getEnrollment(studentId, courseId);
-            if (existingEnrollment.isPresent() && 
-                existingEnrollment.get().getStatus() == EnrollmentStatus.ENROLLED) {
-                return false;
-            }
-            
-            // Create new enrollment
-            Enrollment enrollment = new Enrollment();
-            enrollment.setId(java.util.UUID.randomUUID().toString());
-            enrollment.setStudentId(studentId);
-            enrollment.setCourseId(courseId);
-            enrollment.setEnrolledAt(enrolledAt);
-            enrollment.setStatus(EnrollmentStatus.ENROLLED);
-            
-            // Save through DataManager
-            dataManager.saveEnrollment(enrollment);
-            return true;
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+    // Enrollment and drops go through CourseService, which claims or releases the
+    // seat and commits the enrollment, course and student in one transaction
+    public boolean enrollStudentInCourse(String studentId, String courseId) {
+        return CourseService.getInstance().enrollStudent(studentId, courseId);
     }
     
     public boolean dropCourse(String studentId, String courseId) {
-        try {
-            Optional<Enrollment> enrollmentOpt = getEnrollment(studentId, courseId);
-            
-            if (enrollmentOpt.isPresent() && 
-                enrollmentOpt.get().getStatus() == EnrollmentStatus.ENROLLED) {
-                Enrollment enrollment = enrollmentOpt.get();
-                enrollment.setStatus(EnrollmentStatus.DROPPED);
-                dataManager.saveEnrollment(enrollment);
-                return true;
-            }
-            
-            return false;
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+        return CourseService.getInstance().dropStudent(studentId, courseId);
     }
     
     public Optional<Enrollment> getEnrollment(String studentId, String courseId) {
         try {
-            return dataManager.getEnrollments().values().stream()
-                    .filter(e -> e.getStudentId().equals(studentId) && 
-                                e.getCourseId().equals(courseId))
+            return dataManager.getEnrollmentsByStudentAndCourse(studentId, courseId).stream()
                     .findFirst();
         } catch (Exception e) {
             e.printStackTrace();
@@ -86,9 +46,7 @@ public class EnrollmentService {
     
     public List<Enrollment> getEnrollmentsByStudent(String studentId) {
         try {
-            return dataManager.getEnrollments().values().stream()
-                    .filter(e -> e.getStudentId().equals(studentId))
-                    .collect(Collectors.toList());
+            return dataManager.getEnrollmentsByStudent(studentId);
         } catch (Exception e) {
             e.printStackTrace();
             return List.of();
@@ -97,9 +55,7 @@ public class EnrollmentService {
     
     public List<Enrollment> getEnrollmentsByCourse(String courseId) {
         try {
-            return dataManager.getEnrollments().values().stream()
-                    .filter(e -> e.getCourseId().equals(courseId))
-                    .collect(Collectors.toList());
+            return dataManager.getEnrollmentsByCourse(courseId);
         } catch (Exception e) {
             e.printStackTrace();
             return List.of();
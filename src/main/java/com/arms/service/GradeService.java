@@ -2,7 +2,6 @@ package com.arms.service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -36,28 +35,19 @@ public class GradeService {
     }
 
     public List<Grade> getGradesByStudent(String studentId) {
-        return dataManager.getGrades().values().stream()
-                .filter(grade -> grade.getStudentId().equals(studentId))
-                .collect(Collectors.toList());
+        return dataManager.getGradesByStudent(studentId);
     }
 
     public List<Grade> getGradesByCourse(String courseId) {
-        return dataManager.getGrades().values().stream()
-                .filter(grade -> grade.getCourseId().equals(courseId))
-                .collect(Collectors.toList());
+        return dataManager.getGradesByCourse(courseId);
     }
 
     public List<Grade> getGradesByAssignment(String assignmentId) {
-        return dataManager.getGrades().values().stream()
-                .filter(grade -> grade.getAssignmentId().equals(assignmentId))
-                .collect(Collectors.toList());
+        return dataManager.getGradesByAssignment(assignmentId);
     }
 
     public Optional<Grade> getGradeByStudentAndAssignment(String studentId, String assignmentId) {
-        return dataManager.getGrades().values().stream()
-                .filter(grade -> grade.getStudentId().equals(studentId) && 
-                                 grade.getAssignmentId().equals(assignmentId))
-                .findFirst();
+        return dataManager.findGradeByStudentAndAssignment(studentId, assignmentId);
     }
 
     public List<Grade> getPublishedGradesByStudent(String studentId) {
@@ -110,93 +100,31 @@ public class GradeService {
     }
 
     public Optional<Double> calculateStudentAverage(String studentId) {
-        List<Grade> grades = getPublishedGradesByStudent(studentId);
-        
-        if (grades.isEmpty()) {
-            return Optional.empty();
-        }
-        
-        double total = grades.stream()
-                .mapToDouble(grade -> (grade.getScore() / grade.getMaxScore()) * 100)
-                .average()
-                .orElse(0.0);
-        
-        return Optional.of(total);
+        return dataManager.getGradeAggregates().getStudentAverage(studentId);
     }
 
     public Optional<Double> calculateCourseAverageForStudent(String studentId, String courseId) {
-        List<Grade> grades = getGradesByStudent(studentId).stream()
-                .filter(grade -> grade.getCourseId().equals(courseId))
-                .filter(Grade::isPublished)
-                .collect(Collectors.toList());
-        
-        if (grades.isEmpty()) {
-            return Optional.empty();
-        }
-        
-        double total = grades.stream()
-                .mapToDouble(grade -> (grade.getScore() / grade.getMaxScore()) * 100)
-                .average()
-                .orElse(0.0);
-        
-        return Optional.of(total);
+        return dataManager.getGradeAggregates().getStudentCourseAverage(studentId, courseId);
     }
 
     public Map<String, Double> calculateFinalGradesForCourse(String courseId) {
-        Map<String, Double> finalGrades = new HashMap<>();
-        
-        // Group grades by student
-        Map<String, List<Grade>> gradesByStudent = dataManager.getGrades().values().stream()
-                .filter(grade -> grade.getCourseId().equals(courseId))
-                .filter(Grade::isPublished)
-                .collect(Collectors.groupingBy(Grade::getStudentId));
-        
-        // Calculate average for each student
-        gradesByStudent.forEach((studentId, grades) -> {
-            double average = grades.stream()
-                    .mapToDouble(grade -> (grade.getScore() / grade.getMaxScore()) * 100)
-                    .average()
-                    .orElse(0.0);
-            finalGrades.put(studentId, average);
-        });
-        
-        return finalGrades;
+        return dataManager.getGradeAggregates().getStudentAveragesForCourse(courseId);
     }
 
     public void publishGradesForAssignment(String assignmentId) {
-        dataManager.getGrades().values().stream()
-                .filter(grade -> grade.getAssignmentId().equals(assignmentId))
-                .forEach(grade -> grade.setPublished(true));
+        List<Grade> grades = dataManager.getGradesByAssignment(assignmentId);
+        grades.forEach(grade -> grade.setPublished(true));
         
         // Save changes
-        dataManager.getGrades().values().stream()
-                .filter(grade -> grade.getAssignmentId().equals(assignmentId))
-                .forEach(dataManager::saveGrade);
+        grades.forEach(dataManager::saveGrade);
     }
 
     public Map<String, Long> getGradeDistribution(String courseId) {
-        return dataManager.getGrades().values().stream()
-                .filter(grade -> grade.getCourseId().equals(courseId))
-                .filter(Grade::isPublished)
-                .collect(Collectors.groupingBy(
-                    Grade::getLetterGrade,
-                    Collectors.counting()
-                ));
+        return dataManager.getGradeAggregates().getLetterDistribution(courseId);
     }
 
     public double calculateClassAverage(String courseId) {
-        List<Grade> grades = getGradesByCourse(courseId).stream()
-                .filter(Grade::isPublished)
-                .collect(Collectors.toList());
-        
-        if (grades.isEmpty()) {
-            return 0.0;
-        }
-        
-        return grades.stream()
-                .mapToDouble(grade -> (grade.getScore() / grade.getMaxScore()) * 100)
-                .average()
-                .orElse(0.0);
+        return dataManager.getGradeAggregates().getCourseAverage(courseId).orElse(0.0);
     }
 
     public Object createOrUpdateGrade(Grade newGrade) {
@@ -0,0 +1,33 @@
+package com.arms.service;
+
+// A login or password operation that was refused before checking the password
+public class LoginRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        // Too many recent attempts for the username or client
+        THROTTLED,
+        // The hashing pool is saturated
+        BUSY
+    }
+
+    private final Reason reason;
+    private final long retryAfterSeconds;
+
+    public LoginRejectedException(Reason reason, long retryAfterSeconds) {
+        super(reason == Reason.THROTTLED
+                ? "Too many login attempts, try again in " + retryAfterSeconds + " seconds"
+                : "Server busy, try again shortly");
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,142 @@
+package com.arms.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arms.config.AppConfig;
+
+/*
+ * Token buckets limiting login attempts per username and per client address.
+ *
+ * A username's bucket holds app.max.login.attempts tokens and a client's bucket
+ * app.security.login.client.attempts. Each attempt takes a token from both
+ * before any hashing happens; one token flows back into a bucket every
+ * app.security.login.refill.seconds, and a successful login refills the
+ * username's bucket. Full buckets carry no state and are dropped once more than
+ * app.security.login.tracked.max keys are tracked.
+ */
+public class LoginThrottle {
+
+    private static LoginThrottle instance;
+
+    private final int userCapacity = Math.max(1, AppConfig.getIntProperty("app.max.login.attempts", 3));
+    private final int clientCapacity = Math.max(1, AppConfig.getIntProperty("app.security.login.client.attempts", 20));
+    private final long refillNanos = TimeUnit.SECONDS.toNanos(
+            Math.max(1, AppConfig.getIntProperty("app.security.login.refill.seconds", 60)));
+    private final int maxTracked = AppConfig.getIntProperty("app.security.login.tracked.max", 10000);
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    private LoginThrottle() {
+    }
+
+    public static synchronized LoginThrottle getInstance() {
+        if (instance == null) {
+            instance = new LoginThrottle();
+        }
+        return instance;
+    }
+
+    private static class Bucket {
+        private final int capacity;
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(int capacity, long now) {
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+
+        synchronized boolean tryTake(long now, long refillNanos) {
+            refill(now, refillNanos);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        synchronized void giveBack() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        synchronized void fill() {
+            tokens = capacity;
+        }
+
+        synchronized boolean isFull(long now, long refillNanos) {
+            refill(now, refillNanos);
+            return tokens >= capacity;
+        }
+
+        synchronized long nanosUntilToken(long now, long refillNanos) {
+            refill(now, refillNanos);
+            return tokens >= 1 ? 0 : (long) ((1 - tokens) * refillNanos);
+        }
+
+        private void refill(long now, long refillNanos) {
+            tokens = Math.min(capacity, tokens + (double) (now - updatedAt) / refillNanos);
+            updatedAt = now;
+        }
+    }
+
+    // Takes one attempt for the username and the client, or throws THROTTLED with
+    // the time until the next attempt is allowed
+    public void acquire(String username, String clientId) {
+        long now = System.nanoTime();
+        if (buckets.size() > maxTracked) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now, refillNanos));
+        }
+
+        Bucket user = buckets.computeIfAbsent(userKey(username), key -> new Bucket(userCapacity, now));
+        Bucket client = buckets.computeIfAbsent(clientKey(clientId), key -> new Bucket(clientCapacity, now));
+        if (!user.tryTake(now, refillNanos)) {
+            reject(user, now);
+        }
+        if (!client.tryTake(now, refillNanos)) {
+            user.giveBack();
+            reject(client, now);
+        }
+        allowed.increment();
+    }
+
+    public void recordSuccess(String username) {
+        Bucket user = buckets.get(userKey(username));
+        if (user != null) {
+            user.fill();
+        }
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    public String getMetrics() {
+        return String.format("loginAttempts=%d throttled=%d tracked=%d", getAllowedCount(), getThrottledCount(),
+                buckets.size());
+    }
+
+    private void reject(Bucket bucket, long now) {
+        throttled.increment();
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilToken(now, refillNanos) + 999_999_999L));
+        throw new LoginRejectedException(LoginRejectedException.Reason.THROTTLED, seconds);
+    }
+
+    private static String userKey(String username) {
+        return "user:" + (username == null ? "" : username.toLowerCase(Locale.ROOT));
+    }
+
+    private static String clientKey(String clientId) {
+        return "client:" + (clientId == null ? "local" : clientId);
+    }
+}
@@ -0,0 +1,196 @@
+package com.arms.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import com.arms.config.AppConfig;
+import com.arms.util.Logger;
+import com.arms.util.PasswordPolicy;
+
+/*
+ * Runs every BCrypt hash and check on a small pool of its own, one thread per
+ * core by default (app.security.hash.threads), so a burst of logins uses at most
+ * those cores and everything else keeps running.
+ *
+ * At most threads + app.security.hash.queue.capacity jobs are admitted at once.
+ * Further callers wait up to app.security.hash.wait.ms for a slot and are then
+ * turned away with LoginRejectedException(BUSY) instead of queueing without end.
+ * Time spent waiting for a thread and time spent hashing are measured separately.
+ * New hashes use the cost of the PasswordPolicy.
+ */
+public class PasswordHasher {
+
+    private static PasswordHasher instance;
+
+    private final PasswordPolicy policy = PasswordPolicy.getInstance();
+    private final ThreadPoolExecutor pool;
+    private final Semaphore slots;
+    private final long admissionWaitMs = AppConfig.getIntProperty("app.security.hash.wait.ms", 2000);
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    private PasswordHasher() {
+        int threads = AppConfig.getIntProperty("app.security.hash.threads", Runtime.getRuntime().availableProcessors());
+        int queueCapacity = AppConfig.getIntProperty("app.security.hash.queue.capacity", 64);
+        slots = new Semaphore(threads + queueCapacity);
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "arms-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized PasswordHasher getInstance() {
+        if (instance == null) {
+            instance = new PasswordHasher();
+        }
+        return instance;
+    }
+
+    public String hash(String password) {
+        return run(() -> policy.hash(password));
+    }
+
+    // Hashes in the background if a slot is free right now, e.g. to upgrade the
+    // cost of a stored hash; returns false and does nothing otherwise
+    public boolean hashWhenIdle(String password, Consumer<String> onHashed) {
+        if (!slots.tryAcquire()) {
+            return false;
+        }
+        long submittedAt = System.nanoTime();
+        try {
+            pool.execute(() -> {
+                long startedAt = System.nanoTime();
+                String hash;
+                try {
+                    hash = policy.hash(password);
+                } finally {
+                    record(startedAt - submittedAt, System.nanoTime() - startedAt);
+                    slots.release();
+                }
+                try {
+                    onHashed.accept(hash);
+                } catch (RuntimeException e) {
+                    Logger.error("Failed to apply a background password hash", e);
+                }
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+        return true;
+    }
+
+    // False for a wrong password or a hash that is not BCrypt
+    public boolean verify(String password, String hash) {
+        if (password == null || hash == null) {
+            return false;
+        }
+        return run(() -> {
+            try {
+                return BCrypt.checkpw(password, hash);
+            } catch (IllegalArgumentException e) {
+                Logger.warn("Stored password hash is not a valid BCrypt hash");
+                return false;
+            }
+        });
+    }
+
+    private <T> T run(Callable<T> job) {
+        try {
+            if (!slots.tryAcquire(admissionWaitMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                Logger.warn("Password hashing saturated, " + getMetrics());
+                throw new LoginRejectedException(LoginRejectedException.Reason.BUSY, 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoginRejectedException(LoginRejectedException.Reason.BUSY, 1);
+        }
+
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = pool.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return job.call();
+                } finally {
+                    long finishedAt = System.nanoTime();
+                    record(startedAt - submittedAt, finishedAt - startedAt);
+                    slots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            // The hash still finishes and frees its slot; only the caller stops waiting
+            Thread.currentThread().interrupt();
+            throw new LoginRejectedException(LoginRejectedException.Reason.BUSY, 1);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void record(long waitNanos, long runNanos) {
+        completed.increment();
+        queueWaitNanos.add(waitNanos);
+        hashNanos.add(runNanos);
+        maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        maxHashNanos.accumulateAndGet(runNanos, Math::max);
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    public double getAverageQueueWaitMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : queueWaitNanos.sum() / 1e6 / count;
+    }
+
+    public double getAverageHashMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : hashNanos.sum() / 1e6 / count;
+    }
+
+    public String getMetrics() {
+        return String.format("hashes=%d rejected=%d queued=%d active=%d queueWait[avg=%.1fms max=%.1fms] "
+                + "hash[avg=%.1fms max=%.1fms]",
+                getCompletedCount(), getRejectedCount(), getQueueDepth(), pool.getActiveCount(),
+                getAverageQueueWaitMillis(), maxQueueWaitNanos.get() / 1e6,
+                getAverageHashMillis(), maxHashNanos.get() / 1e6);
+    }
+}
@@ -0,0 +1,306 @@
+package com.arms.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arms.domain.Course;
+import com.arms.domain.Enrollment;
+import com.arms.domain.enums.EnrollmentStatus;
+import com.arms.persistence.DataManager;
+
+/*
+ * Seat counters and waitlists for course registration. Each course has one
+ * AtomicInteger of taken seats claimed by CAS, so a full course rejects requests
+ * without taking any lock, and a FIFO queue of waitlisted (PENDING) enrollment
+ * IDs. Both are seeded from the course and its enrollments; the persisted
+ * Course.currentEnrollment is still written by CourseService.
+ */
+public class SeatAllocationService {
+
+    private static SeatAllocationService instance;
+    private final DataManager dataManager;
+    private final Map<String, CourseSeats> seatsByCourse = new ConcurrentHashMap<>();
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder casRetries = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder waitlisted = new LongAdder();
+    private final LongAdder promoted = new LongAdder();
+    private final LongAdder timedRequests = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile long metricsSince = System.nanoTime();
+
+    private SeatAllocationService() {
+        this.dataManager = DataManager.getInstance();
+        // Load existing courses up front so no counter is seeded from a course that an
+        // enroll or drop is changing at that moment; later courses start empty
+        dataManager.getCourses().values().forEach(course -> seatsByCourse.put(course.getId(), load(course)));
+        dataManager.addRestoreListener(this::reload);
+    }
+
+    public static synchronized SeatAllocationService getInstance() {
+        if (instance == null) {
+            instance = new SeatAllocationService();
+        }
+        return instance;
+    }
+
+    private static class CourseSeats {
+        final AtomicInteger taken;
+        final ConcurrentLinkedQueue<String> waitlist = new ConcurrentLinkedQueue<>();
+        volatile int capacity;
+
+        CourseSeats(int taken, int capacity) {
+            this.taken = new AtomicInteger(taken);
+            this.capacity = capacity;
+        }
+    }
+
+    // Claims one seat; false when the course is full or unknown
+    public boolean tryAcquire(String courseId) {
+        attempts.increment();
+        CourseSeats seats = seatsFor(courseId);
+        if (seats == null) {
+            rejected.increment();
+            return false;
+        }
+        while (true) {
+            int taken = seats.taken.get();
+            if (taken >= seats.capacity) {
+                rejected.increment();
+                return false;
+            }
+            if (seats.taken.compareAndSet(taken, taken + 1)) {
+                granted.increment();
+                return true;
+            }
+            casRetries.increment();
+        }
+    }
+
+    // Returns a seat claimed by tryAcquire, e.g. after a drop or a failed commit
+    public void release(String courseId) {
+        CourseSeats seats = seatsByCourse.get(courseId);
+        if (seats == null) {
+            return;
+        }
+        while (true) {
+            int taken = seats.taken.get();
+            if (taken == 0 || seats.taken.compareAndSet(taken, taken - 1)) {
+                released.increment();
+                return;
+            }
+            casRetries.increment();
+        }
+    }
+
+    public int getAvailableSeats(String courseId) {
+        CourseSeats seats = seatsFor(courseId);
+        return seats == null ? 0 : Math.max(0, seats.capacity - seats.taken.get());
+    }
+
+    public void addToWaitlist(String courseId, String enrollmentId) {
+        CourseSeats seats = seatsFor(courseId);
+        if (seats != null) {
+            seats.waitlist.add(enrollmentId);
+            waitlisted.increment();
+        }
+    }
+
+    // Next waitlisted enrollment ID in arrival order, or null
+    public String pollWaitlist(String courseId) {
+        CourseSeats seats = seatsFor(courseId);
+        return seats == null ? null : seats.waitlist.poll();
+    }
+
+    public boolean removeFromWaitlist(String courseId, String enrollmentId) {
+        CourseSeats seats = seatsByCourse.get(courseId);
+        return seats != null && seats.waitlist.remove(enrollmentId);
+    }
+
+    public boolean hasWaitlist(String courseId) {
+        CourseSeats seats = seatsFor(courseId);
+        return seats != null && !seats.waitlist.isEmpty();
+    }
+
+    public List<String> getWaitlist(String courseId) {
+        CourseSeats seats = seatsFor(courseId);
+        return seats == null ? List.of() : new ArrayList<>(seats.waitlist);
+    }
+
+    // 1-based position of a waitlisted enrollment, or -1
+    public int getWaitlistPosition(String courseId, String enrollmentId) {
+        int position = 1;
+        for (String id : getWaitlist(courseId)) {
+            if (id.equals(enrollmentId)) {
+                return position;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    void recordPromotion() {
+        promoted.increment();
+    }
+
+    // Picks up a changed maximum; the caller then promotes waitlisted students
+    public void updateCapacity(Course course) {
+        CourseSeats seats = seatsByCourse.get(course.getId());
+        if (seats != null) {
+            seats.capacity = course.isActive() ? course.getMaxStudents() : 0;
+        }
+    }
+
+    public void forget(String courseId) {
+        seatsByCourse.remove(courseId);
+    }
+
+    // Reseeds every counter and waitlist from the stored courses and enrollments,
+    // after a restore has replaced them
+    public void reload() {
+        seatsByCourse.keySet().retainAll(dataManager.getCourses().keySet());
+        dataManager.getCourses().values().forEach(course -> seatsByCourse.put(course.getId(), load(course)));
+    }
+
+    public void recordLatency(long nanos) {
+        timedRequests.increment();
+        totalLatencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Metrics getMetrics() {
+        long requests = timedRequests.sum();
+        double seconds = Math.max(1e-9, (System.nanoTime() - metricsSince) / 1e9);
+        return new Metrics(attempts.sum(), granted.sum(), rejected.sum(), casRetries.sum(),
+                released.sum(), waitlisted.sum(), promoted.sum(),
+                granted.sum() / seconds,
+                requests == 0 ? 0 : totalLatencyNanos.sum() / 1000.0 / requests,
+                maxLatencyNanos.get() / 1000.0);
+    }
+
+    public void resetMetrics() {
+        attempts.reset();
+        granted.reset();
+        rejected.reset();
+        casRetries.reset();
+        released.reset();
+        waitlisted.reset();
+        promoted.reset();
+        timedRequests.reset();
+        totalLatencyNanos.reset();
+        maxLatencyNanos.set(0);
+        metricsSince = System.nanoTime();
+    }
+
+    public static class Metrics {
+        private final long attempts;
+        private final long granted;
+        private final long rejected;
+        private final long casRetries;
+        private final long released;
+        private final long waitlisted;
+        private final long promoted;
+        private final double grantsPerSecond;
+        private final double averageLatencyMicros;
+        private final double maxLatencyMicros;
+
+        Metrics(long attempts, long granted, long rejected, long casRetries, long released,
+                long waitlisted, long promoted, double grantsPerSecond,
+                double averageLatencyMicros, double maxLatencyMicros) {
+            this.attempts = attempts;
+            this.granted = granted;
+            this.rejected = rejected;
+            this.casRetries = casRetries;
+            this.released = released;
+            this.waitlisted = waitlisted;
+            this.promoted = promoted;
+            this.grantsPerSecond = grantsPerSecond;
+            this.averageLatencyMicros = averageLatencyMicros;
+            this.maxLatencyMicros = maxLatencyMicros;
+        }
+
+        public long getAttempts() {
+            return attempts;
+        }
+
+        public long getGranted() {
+            return granted;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getCasRetries() {
+            return casRetries;
+        }
+
+        public long getReleased() {
+            return released;
+        }
+
+        public long getWaitlisted() {
+            return waitlisted;
+        }
+
+        public long getPromoted() {
+            return promoted;
+        }
+
+        public double getGrantsPerSecond() {
+            return grantsPerSecond;
+        }
+
+        public double getAverageLatencyMicros() {
+            return averageLatencyMicros;
+        }
+
+        public double getMaxLatencyMicros() {
+            return maxLatencyMicros;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("attempts=%d granted=%d rejected=%d casRetries=%d released=%d "
+                    + "waitlisted=%d promoted=%d grants/s=%.1f avgLatency=%.1fus maxLatency=%.1fus",
+                    attempts, granted, rejected, casRetries, released, waitlisted, promoted,
+                    grantsPerSecond, averageLatencyMicros, maxLatencyMicros);
+        }
+    }
+
+    private CourseSeats seatsFor(String courseId) {
+        CourseSeats seats = seatsByCourse.get(courseId);
+        if (seats != null) {
+            return seats;
+        }
+        Course course = dataManager.getCourses().get(courseId);
+        if (course == null) {
+            return null;
+        }
+        return seatsByCourse.computeIfAbsent(courseId, id -> load(course));
+    }
+
+    // Seeds the counter from the stored enrollment count and the queue from PENDING
+    // enrollments, oldest request first
+    private CourseSeats load(Course course) {
+        CourseSeats seats = new CourseSeats(course.getCurrentEnrollment(),
+                course.isActive() ? course.getMaxStudents() : 0);
+        dataManager.getEnrollmentsByCourse(course.getId()).stream()
+                .filter(enrollment -> enrollment.getStatus() == EnrollmentStatus.PENDING)
+                .sorted(Comparator.comparing(Enrollment::getEnrolledAt,
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .forEach(enrollment -> seats.waitlist.add(enrollment.getId()));
+        return seats;
+    }
+}
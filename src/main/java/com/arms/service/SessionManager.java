@@ -0,0 +1,240 @@
+package com.arms.service;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arms.config.AppConfig;
+import com.arms.domain.User;
+import com.arms.persistence.DataManager;
+import com.arms.persistence.IDGenerator;
+import com.arms.util.Logger;
+
+/*
+ * Login sessions identified by opaque random tokens, so only the initial login
+ * pays for BCrypt and later requests just look up their token.
+ *
+ * Sessions expire after app.session.timeout.minutes without use and the cache
+ * holds at most app.session.max.count of them, dropping the least recently used
+ * one when full. A session resolves to the current stored user on every lookup,
+ * so deactivating or deleting a user ends their sessions at once.
+ *
+ * lastLogin is not saved during the login itself: logins are collected and
+ * written in one batch every app.session.lastlogin.flush.seconds and on shutdown.
+ */
+public class SessionManager {
+
+    private static SessionManager instance;
+    private final DataManager dataManager;
+    private final long timeoutMillis = AppConfig.getIntProperty("app.session.timeout.minutes", 30) * 60_000L;
+    private final int maxSessions = AppConfig.getIntProperty("app.session.max.count", 10000);
+
+    // Access-ordered, so the eldest entry is the least recently used session
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, LocalDateTime> pendingLogins = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder loginsPersisted = new LongAdder();
+
+    private SessionManager() {
+        this.dataManager = DataManager.getInstance();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "arms-sessions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushSeconds = AppConfig.getIntProperty("app.session.lastlogin.flush.seconds", 30);
+        scheduler.scheduleWithFixedDelay(this::flushLogins, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::removeExpired, 1, 1, TimeUnit.MINUTES);
+        dataManager.addShutdownTask(this::flushLogins);
+    }
+
+    public static synchronized SessionManager getInstance() {
+        if (instance == null) {
+            instance = new SessionManager();
+        }
+        return instance;
+    }
+
+    public static class Session {
+        private final String token;
+        private final String userId;
+        private final LocalDateTime createdAt;
+        private volatile long lastAccessMillis;
+
+        private Session(String token, String userId) {
+            this.token = token;
+            this.userId = userId;
+            this.createdAt = LocalDateTime.now();
+            this.lastAccessMillis = System.currentTimeMillis();
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getLastAccessMillis() {
+            return lastAccessMillis;
+        }
+    }
+
+    // Opens a session for a user whose credentials were just checked and queues
+    // their lastLogin update
+    public Session createSession(User user) {
+        Session session = new Session(IDGenerator.generateSecureToken(), user.getId());
+        synchronized (sessions) {
+            sessions.put(session.token, session);
+            if (sessions.size() > maxSessions) {
+                removeExpiredLocked(System.currentTimeMillis());
+                Iterator<Session> eldest = sessions.values().iterator();
+                while (sessions.size() > maxSessions && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                    evicted.increment();
+                }
+            }
+        }
+        created.increment();
+        pendingLogins.merge(user.getId(), LocalDateTime.now(), (a, b) -> a.isAfter(b) ? a : b);
+        return session;
+    }
+
+    // The user behind a live session; also extends the session
+    public Optional<User> getPrincipal(String token) {
+        Session session = touch(token);
+        if (session == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        User user = dataManager.getUsers().get(session.userId);
+        if (user == null || !user.isActive()) {
+            invalidate(token);
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(user);
+    }
+
+    public boolean invalidate(String token) {
+        if (token == null) {
+            return false;
+        }
+        synchronized (sessions) {
+            return sessions.remove(token) != null;
+        }
+    }
+
+    // Ends every session of a user, e.g. after a password change
+    public int invalidateUser(String userId) {
+        return invalidateUser(userId, null);
+    }
+
+    // Same, but keeps the session the change was made from
+    public int invalidateUser(String userId, String keepToken) {
+        int removed = 0;
+        synchronized (sessions) {
+            Iterator<Session> iterator = sessions.values().iterator();
+            while (iterator.hasNext()) {
+                Session session = iterator.next();
+                if (session.userId.equals(userId) && !session.token.equals(keepToken)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public int getActiveSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    public String getMetrics() {
+        return String.format("sessions=%d created=%d hits=%d misses=%d expired=%d evicted=%d "
+                + "pendingLogins=%d loginsPersisted=%d",
+                getActiveSessionCount(), created.sum(), hits.sum(), misses.sum(), expired.sum(), evicted.sum(),
+                pendingLogins.size(), loginsPersisted.sum());
+    }
+
+    // Writes the queued lastLogin times, one save per user however often they logged in
+    public void flushLogins() {
+        for (String userId : pendingLogins.keySet()) {
+            LocalDateTime loginAt = pendingLogins.remove(userId);
+            User user = dataManager.getUsers().get(userId);
+            if (loginAt == null || user == null) {
+                continue;
+            }
+            try {
+                if (user.getLastLogin() == null || loginAt.isAfter(user.getLastLogin())) {
+                    user.setLastLogin(loginAt);
+                    dataManager.saveUser(user);
+                    loginsPersisted.increment();
+                }
+            } catch (Exception e) {
+                Logger.error("Failed to save last login of " + userId, e);
+            }
+        }
+    }
+
+    private Session touch(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (sessions) {
+            Session session = sessions.get(token);
+            if (session == null) {
+                return null;
+            }
+            if (now - session.lastAccessMillis > timeoutMillis) {
+                sessions.remove(token);
+                expired.increment();
+                return null;
+            }
+            session.lastAccessMillis = now;
+            return session;
+        }
+    }
+
+    private void removeExpired() {
+        synchronized (sessions) {
+            removeExpiredLocked(System.currentTimeMillis());
+        }
+    }
+
+    // Access order means expired sessions are at the head of the map
+    private void removeExpiredLocked(long now) {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            Session session = iterator.next();
+            if (now - session.lastAccessMillis <= timeoutMillis) {
+                break;
+            }
+            iterator.remove();
+            expired.increment();
+        }
+    }
+}
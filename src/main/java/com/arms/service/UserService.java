@@ -7,8 +7,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import org.mindrot.jbcrypt.BCrypt;
-
 import com.arms.domain.Admin;
 import com.arms.domain.Student;
 import com.arms.domain.Teacher;
@@ -39,15 +37,11 @@ public class UserService {
     }
 
     public Optional<User> getUserByUsername(String username) {
-        return dataManager.getUsers().values().stream()
-                .filter(user -> user.getUsername().equalsIgnoreCase(username))
-                .findFirst();
+        return dataManager.findUserByUsername(username);
     }
 
     public Optional<User> getUserByEmail(String email) {
-        return dataManager.getUsers().values().stream()
-                .filter(user -> user.getEmail().equalsIgnoreCase(email))
-                .findFirst();
+        return dataManager.findUserByEmail(email);
     }
 
     public List<User> getAllUsers() {
@@ -88,8 +82,10 @@ public class UserService {
             admin.setAdminId(IDGenerator.generateAdminId());
         }
 
-        // Save user
-        dataManager.saveUser(user);
+        // Save user; rejected if a concurrent signup claimed the username or email first
+        if (!dataManager.saveUser(user)) {
+            return Optional.empty();
+        }
         return Optional.of(user);
     }
 
@@ -108,8 +104,7 @@ public class UserService {
         user.setCreatedAt(existing.getCreatedAt());
         user.setLastLogin(existing.getLastLogin());
 
-        dataManager.saveUser(user);
-        return true;
+        return dataManager.saveUser(user);
     }
 
     public boolean deleteUser(String userId) {
@@ -121,23 +116,20 @@ public class UserService {
         // Check if user has dependencies
         if (user instanceof Student) {
             // Check enrollments
-            long enrollments = dataManager.getEnrollments().values().stream()
-                    .filter(e -> e.getStudentId().equals(userId))
-                    .count();
+            long enrollments = dataManager.getEnrollmentsByStudent(userId).size();
             if (enrollments > 0) {
                 return false;
             }
         } else if (user instanceof Teacher) {
             // Check courses assigned
-            long courses = dataManager.getCourses().values().stream()
-                    .filter(c -> c.getTeacherId().equals(userId))
-                    .count();
+            long courses = dataManager.getCoursesByTeacher(userId).size();
             if (courses > 0) {
                 return false;
             }
         }
 
         dataManager.deleteUser(userId);
+        SessionManager.getInstance().invalidateUser(userId);
         return true;
     }
 
@@ -149,6 +141,7 @@ public class UserService {
 
         user.setPasswordHash(hashPassword(newPassword));
         dataManager.saveUser(user);
+        SessionManager.getInstance().invalidateUser(userId);
         return true;
     }
 
@@ -159,11 +152,11 @@ public class UserService {
         }
 
         User user = userOpt.get();
-        return BCrypt.checkpw(password, user.getPasswordHash());
+        return PasswordHasher.getInstance().verify(password, user.getPasswordHash());
     }
 
     public String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt(12));
+        return PasswordHasher.getInstance().hash(password);
     }
 
     public boolean activateUser(String userId) {
@@ -185,6 +178,7 @@ public class UserService {
 
         user.setStatus(UserStatus.INACTIVE);
         dataManager.saveUser(user);
+        SessionManager.getInstance().invalidateUser(userId);
         return true;
     }
 
@@ -193,13 +187,9 @@ public class UserService {
                 .collect(Collectors.groupingBy(User::getRole, Collectors.counting()));
     }
     public List<User> searchUsers(String keyword) {
-        String lowerKeyword = keyword.toLowerCase();
-        return dataManager.getUsers().values().stream()
-                .filter(user
-                        -> user.getUsername().toLowerCase().contains(lowerKeyword)
-                || user.getEmail().toLowerCase().contains(lowerKeyword)
-                || user.getFirstName().toLowerCase().contains(lowerKeyword)
-                || user.getLastName().toLowerCase().contains(lowerKeyword))
-                .collect(Collectors.toList());
+        if (keyword == null || keyword.isBlank()) {
+            return getAllUsers();
+        }
+        return dataManager.searchUsers(keyword, Integer.MAX_VALUE);
     }
 }
@@ -0,0 +1,189 @@
+package com.arms.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.arms.domain.User;
+import com.arms.persistence.DataManager;
+import com.arms.service.SessionManager;
+
+/*
+ * Sets the passwords of many accounts at once, e.g. after an import, hashing on
+ * a fork-join pool across all cores (or the given parallelism) with the cost of
+ * the PasswordPolicy. Meant for offline use: unlike PasswordHasher it takes
+ * every core for as long as the batch runs.
+ *
+ * As a command: BulkPasswordHasher <file> [cost=N] [threads=N], where each line
+ * of the UTF-8 file is "username,password".
+ */
+public class BulkPasswordHasher {
+
+    public interface ProgressListener {
+        void onProgress(int hashed, int total);
+    }
+
+    // Passwords are hashed in tasks of at most this many; each hash takes a
+    // noticeable fraction of a second, so small tasks keep all cores busy to the end
+    private static final int THRESHOLD = 4;
+
+    private final int parallelism;
+    private final PasswordPolicy policy;
+
+    public BulkPasswordHasher(int parallelism, PasswordPolicy policy) {
+        this.parallelism = Math.max(1, parallelism);
+        this.policy = policy;
+    }
+
+    public BulkPasswordHasher() {
+        this(Runtime.getRuntime().availableProcessors(), PasswordPolicy.getInstance());
+    }
+
+    // Returns the hash for each key of the map, in the map's order
+    public Map<String, String> hashAll(Map<String, String> passwords, ProgressListener listener) {
+        List<String> keys = new ArrayList<>(passwords.keySet());
+        String[] plain = new String[keys.size()];
+        for (int i = 0; i < plain.length; i++) {
+            plain[i] = passwords.get(keys.get(i));
+        }
+        String[] hashes = new String[plain.length];
+        AtomicInteger done = new AtomicInteger();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new HashTask(plain, hashes, 0, plain.length, done, listener));
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            result.put(keys.get(i), hashes[i]);
+        }
+        return result;
+    }
+
+    // Sets the password of every listed username that exists and ends the sessions
+    // of those accounts; returns how many accounts were updated. Unknown usernames
+    // are skipped before hashing, so they cost no BCrypt round
+    public int setPasswords(DataManager dataManager, Map<String, String> passwordsByUsername,
+            ProgressListener listener) {
+        long start = System.nanoTime();
+        Map<String, User> users = new LinkedHashMap<>();
+        Map<String, String> passwords = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : passwordsByUsername.entrySet()) {
+            Optional<User> user = dataManager.findUserByUsername(entry.getKey());
+            if (user.isEmpty()) {
+                Logger.warn("Bulk password update: no user " + entry.getKey());
+                continue;
+            }
+            users.put(entry.getKey(), user.get());
+            passwords.put(entry.getKey(), entry.getValue());
+        }
+
+        Map<String, String> hashes = hashAll(passwords, listener);
+        SessionManager sessionManager = SessionManager.getInstance();
+        int updated = 0;
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            User user = users.get(entry.getKey());
+            user.setPasswordHash(entry.getValue());
+            if (dataManager.saveUser(user)) {
+                sessionManager.invalidateUser(user.getId());
+                updated++;
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        Logger.info("Bulk password update: " + updated + " of " + passwordsByUsername.size() + " accounts at cost "
+                + policy.getCost() + " in " + elapsedMs + " ms on " + parallelism + " threads");
+        return updated;
+    }
+
+    private class HashTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] plain;
+        private final String[] hashes;
+        private final int from;
+        private final int to;
+        private final AtomicInteger done;
+        private final ProgressListener listener;
+
+        HashTask(String[] plain, String[] hashes, int from, int to, AtomicInteger done, ProgressListener listener) {
+            this.plain = plain;
+            this.hashes = hashes;
+            this.from = from;
+            this.to = to;
+            this.done = done;
+            this.listener = listener;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    hashes[i] = policy.hash(plain[i]);
+                    int hashed = done.incrementAndGet();
+                    if (listener != null) {
+                        listener.onProgress(hashed, plain.length);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new HashTask(plain, hashes, from, middle, done, listener),
+                    new HashTask(plain, hashes, middle, to, done, listener));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: BulkPasswordHasher <username,password file> [cost=N] [threads=N]");
+            System.exit(2);
+        }
+        PasswordPolicy policy = PasswordPolicy.getInstance();
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            String[] parts = args[i].split("=", 2);
+            if (parts.length == 2 && parts[0].equals("cost")) {
+                policy.setCost(Integer.parseInt(parts[1]));
+            } else if (parts.length == 2 && parts[0].equals("threads")) {
+                threads = Integer.parseInt(parts[1]);
+            } else {
+                Logger.warn("Unknown option: " + args[i]);
+            }
+        }
+
+        Map<String, String> passwords = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma > 0 && comma < line.length() - 1) {
+                    passwords.put(line.substring(0, comma).trim(), line.substring(comma + 1));
+                }
+            }
+        }
+
+        DataManager dataManager = DataManager.getInstance();
+        int step = Math.max(1, passwords.size() / 20);
+        new BulkPasswordHasher(threads, policy).setPasswords(dataManager, passwords, (hashed, total) -> {
+            if (hashed % step == 0 || hashed == total) {
+                System.out.printf("Hashed %d/%d%n", hashed, total);
+            }
+        });
+        if (!dataManager.flush()) {
+            Logger.error("Some password updates could not be written");
+        }
+        System.exit(0);
+    }
+}
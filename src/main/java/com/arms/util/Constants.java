@@ -13,6 +13,7 @@ public class Constants {
     public static final String CONFIG_FILE = "config/application.properties";
     public static final String LOG_FILE = "logs/arms.log";
     public static final String BACKUP_DIRECTORY = "data/backups/";
+    public static final String EXPORT_DIRECTORY = "exports/";
     
     // Database Constants
     public static final int MAX_LOGIN_ATTEMPTS = 3;
@@ -0,0 +1,178 @@
+package com.arms.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import com.arms.domain.Assignment;
+import com.arms.domain.Course;
+import com.arms.domain.Enrollment;
+import com.arms.domain.Grade;
+import com.arms.domain.User;
+import com.arms.persistence.DataManager;
+
+/*
+ * Exports entities to CSV, one row per entity, through a CsvWriter (gzipped when
+ * the file name ends in .gz). Rows are read straight from the collection given,
+ * e.g. one of DataManager's maps, whose iterators tolerate concurrent saves, so
+ * nothing is copied first. Progress is reported every PROGRESS_INTERVAL rows and
+ * cancellation is checked before each row.
+ *
+ * The factories define the standard exports of each entity type.
+ */
+public class CsvExporter<T> {
+
+    public interface ProgressListener {
+        void onProgress(long rows, long total);
+    }
+
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern(Constants.DATETIME_FORMAT);
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern(Constants.DATE_FORMAT);
+
+    private final List<String> headers = new ArrayList<>();
+    private final List<Function<? super T, ?>> columns = new ArrayList<>();
+
+    public CsvExporter<T> column(String header, Function<? super T, ?> value) {
+        headers.add(header);
+        columns.add(value);
+        return this;
+    }
+
+    // Writes the header and one row per item and returns the number of rows. Once
+    // cancelled, throws CancellationException and leaves no file behind
+    public long export(Collection<? extends T> items, Path target, BooleanSupplier cancelled,
+            ProgressListener listener) throws IOException {
+        long start = System.nanoTime();
+        long total = items.size();
+        long rows = 0;
+        try (CsvWriter writer = CsvWriter.open(target)) {
+            writer.writeRow(headers.toArray());
+            Object[] row = new Object[columns.size()];
+            for (T item : items) {
+                if (cancelled != null && cancelled.getAsBoolean()) {
+                    throw new CancellationException("Export to " + target.getFileName() + " cancelled");
+                }
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = columns.get(i).apply(item);
+                }
+                writer.writeRow(row);
+                if (++rows % PROGRESS_INTERVAL == 0 && listener != null) {
+                    listener.onProgress(rows, Math.max(rows, total));
+                }
+            }
+            writer.commit();
+        }
+        if (listener != null) {
+            listener.onProgress(rows, rows);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        Logger.info("Exported " + rows + " rows to " + target + " in " + elapsedMs + " ms");
+        return rows;
+    }
+
+    static String dateTime(TemporalAccessor value) {
+        return value == null ? null : DATE_TIME.format(value);
+    }
+
+    static String date(TemporalAccessor value) {
+        return value == null ? null : DATE.format(value);
+    }
+
+    public static CsvExporter<User> users() {
+        return new CsvExporter<User>()
+                .column("ID", User::getId)
+                .column("Username", User::getUsername)
+                .column("First Name", User::getFirstName)
+                .column("Last Name", User::getLastName)
+                .column("Email", User::getEmail)
+                .column("Phone", User::getPhoneNumber)
+                .column("Role", User::getRole)
+                .column("Status", User::getStatus)
+                .column("Created", user -> dateTime(user.getCreatedAt()))
+                .column("Last Login", user -> dateTime(user.getLastLogin()));
+    }
+
+    public static CsvExporter<Course> courses(DataManager dataManager) {
+        return new CsvExporter<Course>()
+                .column("ID", Course::getId)
+                .column("Code", Course::getCourseCode)
+                .column("Title", Course::getTitle)
+                .column("Department", Course::getDepartment)
+                .column("Semester", Course::getSemester)
+                .column("Credits", Course::getCredits)
+                .column("Enrollment", Course::getCurrentEnrollment)
+                .column("Capacity", Course::getMaxStudents)
+                .column("Status", course -> course.isActive() ? "Active" : "Inactive")
+                .column("Instructor", course -> fullName(dataManager, course.getTeacherId()))
+                .column("Start", course -> date(course.getStartDate()))
+                .column("End", course -> date(course.getEndDate()))
+                .column("Schedule", Course::getSchedule)
+                .column("Classroom", Course::getClassroom);
+    }
+
+    public static CsvExporter<Assignment> assignments() {
+        return new CsvExporter<Assignment>()
+                .column("ID", Assignment::getId)
+                .column("Course ID", Assignment::getCourseId)
+                .column("Title", Assignment::getTitle)
+                .column("Type", Assignment::getType)
+                .column("Max Score", Assignment::getMaxScore)
+                .column("Weight", Assignment::getWeight)
+                .column("Due", assignment -> dateTime(assignment.getDueDate()))
+                .column("Status", Assignment::getStatus);
+    }
+
+    public static CsvExporter<Enrollment> enrollments() {
+        return new CsvExporter<Enrollment>()
+                .column("ID", Enrollment::getId)
+                .column("Student ID", Enrollment::getStudentId)
+                .column("Course ID", Enrollment::getCourseId)
+                .column("Status", Enrollment::getStatus)
+                .column("Enrolled", enrollment -> dateTime(enrollment.getEnrolledAt()))
+                .column("Grade", Enrollment::getGrade)
+                .column("Final Score", Enrollment::getFinalScore)
+                .column("Attendance %", Enrollment::getAttendancePercentage)
+                .column("Completed", enrollment -> dateTime(enrollment.getCompletedAt()));
+    }
+
+    public static CsvExporter<Grade> grades(DataManager dataManager) {
+        return new CsvExporter<Grade>()
+                .column("ID", Grade::getId)
+                .column("Student ID", Grade::getStudentId)
+                .column("Student", grade -> username(dataManager, grade.getStudentId()))
+                .column("Course ID", Grade::getCourseId)
+                .column("Course", grade -> courseCode(dataManager, grade.getCourseId()))
+                .column("Assignment ID", Grade::getAssignmentId)
+                .column("Score", Grade::getScore)
+                .column("Max Score", Grade::getMaxScore)
+                .column("Percentage", Grade::getPercentage)
+                .column("Letter", Grade::getLetterGrade)
+                .column("Published", Grade::isPublished)
+                .column("Graded By", Grade::getGradedBy)
+                .column("Graded", grade -> dateTime(grade.getGradedAt()))
+                .column("Feedback", Grade::getFeedback);
+    }
+
+    private static String fullName(DataManager dataManager, String userId) {
+        User user = userId == null ? null : dataManager.getUsers().get(userId);
+        return user == null ? null : user.getFullName();
+    }
+
+    private static String username(DataManager dataManager, String userId) {
+        User user = userId == null ? null : dataManager.getUsers().get(userId);
+        return user == null ? null : user.getUsername();
+    }
+
+    private static String courseCode(DataManager dataManager, String courseId) {
+        Course course = courseId == null ? null : dataManager.getCourses().get(courseId);
+        return course == null ? null : course.getCourseCode();
+    }
+}
@@ -0,0 +1,186 @@
+package com.arms.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Writes RFC 4180 CSV: fields separated by commas, records ended by CRLF, and
+ * fields containing a comma, quote, CR or LF enclosed in quotes with embedded
+ * quotes doubled. Null fields are written empty. Text fields starting with =, +,
+ * -, @, tab or CR get a leading apostrophe, so a spreadsheet shows them as text
+ * rather than evaluating them as formulas; numbers are written as they are.
+ *
+ * Records are encoded as UTF-8 into a direct buffer that is drained to a
+ * FileChannel, optionally through gzip, so memory use does not depend on the
+ * size of the export. With a byte order mark Excel opens the file as UTF-8.
+ * Output goes to a temporary file next to the target that commit() moves into
+ * place; closing without commit() deletes it, so a failed or cancelled export
+ * leaves no partial file behind.
+ */
+public class CsvWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+    private static final String FORMULA_START = "=+-@\t\r";
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final GZIPOutputStream gzip;
+    private final WritableByteChannel sink;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder record = new StringBuilder(256);
+    private long records;
+    private boolean committed;
+    private boolean closed;
+
+    public CsvWriter(Path target, boolean gzipped, boolean byteOrderMark) throws IOException {
+        this.target = target.toAbsolutePath();
+        Path parent = this.target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.temp = this.target.resolveSibling(this.target.getFileName() + ".part");
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (gzipped) {
+            OutputStream out = Channels.newOutputStream(channel);
+            this.gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+            this.sink = Channels.newChannel(gzip);
+        } else {
+            this.gzip = null;
+            this.sink = channel;
+        }
+        if (byteOrderMark) {
+            bytes.put(BOM);
+        }
+    }
+
+    // Gzip when the file name ends in .gz
+    public static CsvWriter open(Path target) throws IOException {
+        boolean gzipped = target.getFileName().toString().toLowerCase().endsWith(".gz");
+        return new CsvWriter(target, gzipped, !gzipped);
+    }
+
+    public void writeRow(Object... fields) throws IOException {
+        record.setLength(0);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                record.append(',');
+            }
+            appendField(record, fields[i]);
+        }
+        record.append("\r\n");
+        write(CharBuffer.wrap(record));
+        records++;
+    }
+
+    static void appendField(StringBuilder out, Object field) {
+        if (field == null) {
+            return;
+        }
+        String value = field.toString();
+        if (field instanceof CharSequence && !value.isEmpty() && FORMULA_START.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    public long getRecordCount() {
+        return records;
+    }
+
+    private void write(CharBuffer chars) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, false);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            sink.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    // Finishes the file and moves it to the target path
+    public void commit() throws IOException {
+        drain();
+        if (gzip != null) {
+            gzip.finish();
+        }
+        channel.force(false);
+        if (gzip != null) {
+            gzip.close();
+        }
+        channel.close();
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!committed) {
+            try {
+                if (gzip != null) {
+                    gzip.close();
+                }
+                channel.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -1,76 +1,380 @@
 package com.arms.util;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.arms.config.AppConfig;
+
+/*
+ * Asynchronous logger. Callers only timestamp the message and put it on a bounded
+ * lock-free ring; a single writer thread formats batches and appends them to
+ * logs/arms.log through one open FileChannel, echoing them to stdout. When the ring
+ * is full DEBUG/INFO follow app.log.overflow (BLOCK, DROP or SAMPLE); WARN and
+ * ERROR always block. The file is rotated by size and age.
+ */
 public class Logger {
-    private static final String LOG_FILE = "logs/arms.log";
-    private static final DateTimeFormatter formatter = 
+    private static final String LOG_DIRECTORY = "logs/";
+    private static final String LOG_FILE = LOG_DIRECTORY + "arms.log";
+    private static final DateTimeFormatter formatter =
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
-    private static LogLevel minLevel = LogLevel.INFO;
-    
+    private static final DateTimeFormatter archiveFormatter =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final int BATCH_SIZE = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static volatile LogLevel minLevel = parseLevel(AppConfig.getProperty("app.log.level", "INFO"));
+
     public enum LogLevel {
         DEBUG, INFO, WARN, ERROR
-    }  
+    }
+
+    public enum OverflowPolicy {
+        BLOCK, DROP, SAMPLE
+    }
+
+    private static final OverflowPolicy overflowPolicy = parseOverflow(AppConfig.getProperty("app.log.overflow", "BLOCK"));
+    private static final int sampleRate = Math.max(1, AppConfig.getIntProperty("app.log.sample.rate", 10));
+    private static final long maxFileBytes = AppConfig.getIntProperty("app.log.max.size.mb", 10) * 1024L * 1024L;
+    private static final long rotateIntervalMs = TimeUnit.HOURS.toMillis(AppConfig.getIntProperty("app.log.rotate.hours", 24));
+    private static final int maxArchives = AppConfig.getIntProperty("app.log.max.files", 5);
+    private static final boolean consoleEnabled = AppConfig.getBooleanProperty("app.log.console", true);
+
+    private static final LogRingBuffer<Entry> ring =
+        new LogRingBuffer<>(AppConfig.getIntProperty("app.log.buffer.size", 8192));
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong overflowCount = new AtomicLong();
+    private static final Thread writer;
+    private static volatile boolean writerParked;
+    private static volatile boolean closed;
+
+    // Owned by the writer thread
+    private static FileChannel channel;
+    private static long fileBytes;
+    private static long openedAt;
+    private static long reportedDrops;
+
     static {
         try {
-            java.nio.file.Files.createDirectories(java.nio.file.Paths.get("logs/"));
+            Files.createDirectories(Paths.get(LOG_DIRECTORY));
         } catch (IOException e) {
             System.err.println("Failed to create logs directory: " + e.getMessage());
         }
+        writer = new Thread(Logger::runWriter, "arms-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Logger::shutdown, "arms-log-shutdown"));
     }
+
+    private static class Entry {
+        final long timestamp;
+        final LogLevel level;
+        final String message;
+        final Throwable throwable;
+        final CountDownLatch flushed;
+
+        Entry(long timestamp, LogLevel level, String message, Throwable throwable, CountDownLatch flushed) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.message = message;
+            this.throwable = throwable;
+            this.flushed = flushed;
+        }
+    }
+
     public static void setMinLevel(LogLevel level) {
         minLevel = level;
     }
-    
+
+    public static boolean isEnabled(LogLevel level) {
+        return level.ordinal() >= minLevel.ordinal();
+    }
+
     public static void debug(String message) {
         log(LogLevel.DEBUG, message, null);
-    } 
+    }
+
+    // Supplier variants skip building the message when the level is disabled
+    public static void debug(Supplier<String> message) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, message.get(), null);
+        }
+    }
+
     public static void info(String message) {
         log(LogLevel.INFO, message, null);
     }
-    
+
+    public static void info(Supplier<String> message) {
+        if (isEnabled(LogLevel.INFO)) {
+            log(LogLevel.INFO, message.get(), null);
+        }
+    }
+
     public static void warn(String message) {
         log(LogLevel.WARN, message, null);
     }
-    
+
     public static void error(String message) {
         log(LogLevel.ERROR, message, null);
     }
-    
+
     public static void error(String message, Throwable throwable) {
         log(LogLevel.ERROR, message, throwable);
     }
-    
+
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Blocks until everything logged before this call has been written
+    public static void flush() {
+        if (closed || Thread.currentThread() == writer) {
+            return;
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        enqueue(new Entry(0, null, null, null, latch), true);
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private static void log(LogLevel level, String message, Throwable throwable) {
         if (level.ordinal() < minLevel.ordinal()) {
             return;
         }
-        
-        String timestamp = LocalDateTime.now().format(formatter);
-        String logMessage = String.format("[%s] [%s] %s", 
-            timestamp, level, message);   
-        System.out.println(logMessage);
-        if (throwable != null) {
-            throwable.printStackTrace();
-        }
-        try (PrintWriter out = new PrintWriter(
-            new BufferedWriter(new FileWriter(LOG_FILE, true)))) {
-            out.println(logMessage);
-            if (throwable != null) {
-                throwable.printStackTrace(out);
+        Entry entry = new Entry(System.currentTimeMillis(), level, message, throwable, null);
+        if (closed) {
+            writeDirect(entry);
+            return;
+        }
+        boolean mustDeliver = level.ordinal() >= LogLevel.WARN.ordinal()
+            || overflowPolicy == OverflowPolicy.BLOCK;
+        enqueue(entry, mustDeliver);
+    }
+
+    private static void enqueue(Entry entry, boolean mustDeliver) {
+        if (ring.offer(entry)) {
+            wakeWriter();
+            return;
+        }
+        long overflow = overflowCount.incrementAndGet();
+        if (!mustDeliver && (overflowPolicy == OverflowPolicy.DROP || overflow % sampleRate != 0)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        while (!ring.offer(entry)) {
+            if (closed) {
+                writeDirect(entry);
+                return;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(10_000);
+        }
+        wakeWriter();
+    }
+
+    private static void wakeWriter() {
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private static void runWriter() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        StringBuilder text = new StringBuilder(16 * 1024);
+        while (true) {
+            Entry entry;
+            while (batch.size() < BATCH_SIZE && (entry = ring.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                if (closed) {
+                    return;
+                }
+                writerParked = true;
+                if (ring.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+                continue;
+            }
+
+            long droppedTotal = dropped.get();
+            if (droppedTotal > reportedDrops) {
+                append(text, new Entry(System.currentTimeMillis(), LogLevel.WARN,
+                    "Logger dropped " + (droppedTotal - reportedDrops) + " messages (ring buffer full)", null, null));
+                reportedDrops = droppedTotal;
+            }
+            for (Entry item : batch) {
+                if (item.level != null) {
+                    append(text, item);
+                }
+            }
+            if (text.length() > 0) {
+                if (consoleEnabled) {
+                    System.out.print(text);
+                }
+                writeToFile(text);
+                text.setLength(0);
+            }
+            for (Entry item : batch) {
+                if (item.flushed != null) {
+                    item.flushed.countDown();
+                } else if (item.level == LogLevel.ERROR) {
+                    sendToMonitoringService(item.message, item.throwable);
+                }
             }
+            batch.clear();
+        }
+    }
+
+    private static void append(StringBuilder text, Entry entry) {
+        text.append('[')
+            .append(formatter.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timestamp), ZoneId.systemDefault())))
+            .append("] [").append(entry.level).append("] ")
+            .append(entry.message)
+            .append(System.lineSeparator());
+        if (entry.throwable != null) {
+            StringWriter trace = new StringWriter();
+            entry.throwable.printStackTrace(new PrintWriter(trace));
+            text.append(trace);
+        }
+    }
+
+    private static void writeToFile(CharSequence text) {
+        try {
+            if (channel == null) {
+                openLogFile();
+            } else if (fileBytes >= maxFileBytes || System.currentTimeMillis() - openedAt >= rotateIntervalMs) {
+                rotate();
+            }
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(text.toString());
+            fileBytes += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write to log file: " + e.getMessage());
+            closeChannel();
+        }
+    }
+
+    private static void openLogFile() throws IOException {
+        Path path = Paths.get(LOG_FILE);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+        fileBytes = channel.size();
+        openedAt = System.currentTimeMillis();
+    }
+
+    private static void rotate() throws IOException {
+        closeChannel();
+        Path current = Paths.get(LOG_FILE);
+        String stamp = LocalDateTime.now().format(archiveFormatter);
+        Path archive = Paths.get(LOG_DIRECTORY, "arms-" + stamp + ".log");
+        for (int i = 1; Files.exists(archive); i++) {
+            archive = Paths.get(LOG_DIRECTORY, "arms-" + stamp + "." + i + ".log");
+        }
+        Files.move(current, archive);
+        pruneArchives();
+        openLogFile();
+    }
+
+    private static void pruneArchives() throws IOException {
+        List<Path> archives;
+        try (Stream<Path> files = Files.list(Paths.get(LOG_DIRECTORY))) {
+            archives = files
+                .filter(path -> path.getFileName().toString().matches("arms-\\d{8}-\\d{6}-\\d{3}(\\.\\d+)?\\.log"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        for (int i = 0; i < archives.size() - maxArchives; i++) {
+            Files.deleteIfExists(archives.get(i));
+        }
+    }
+
+    private static void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close log file: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    // Used once the writer has stopped, e.g. by other shutdown hooks
+    private static synchronized void writeDirect(Entry entry) {
+        StringBuilder text = new StringBuilder();
+        append(text, entry);
+        if (consoleEnabled) {
+            System.out.print(text);
+        }
+        try {
+            Files.writeString(Paths.get(LOG_FILE), text, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
         } catch (IOException e) {
             System.err.println("Failed to write to log file: " + e.getMessage());
         }
-        if (level == LogLevel.ERROR) {
-            sendToMonitoringService(logMessage, throwable);
+    }
+
+    private static void shutdown() {
+        flush();
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeChannel();
+        Entry entry;
+        while ((entry = ring.poll()) != null) {
+            if (entry.level != null) {
+                writeDirect(entry);
+            }
+        }
+    }
+
+    private static LogLevel parseLevel(String value) {
+        try {
+            return LogLevel.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return LogLevel.INFO;
+        }
+    }
+
+    private static OverflowPolicy parseOverflow(String value) {
+        try {
+            return OverflowPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return OverflowPolicy.BLOCK;
         }
     }
-    
+
     private static void sendToMonitoringService(String message, Throwable throwable) {
-       
+
     }
 }
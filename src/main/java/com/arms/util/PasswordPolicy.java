@@ -0,0 +1,70 @@
+package com.arms.util;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import com.arms.config.AppConfig;
+
+/*
+ * The BCrypt cost new password hashes are made with (app.security.bcrypt.cost).
+ * Every BCrypt hash records its own cost ("$2a$12$..."), so hashes made under an
+ * older policy are recognised and replaced the next time the password is known,
+ * i.e. at login, without a migration.
+ */
+public class PasswordPolicy {
+
+    public static final int MIN_COST = 4;
+    public static final int MAX_COST = 30;
+
+    private static PasswordPolicy instance;
+    private volatile int cost;
+
+    private PasswordPolicy(int cost) {
+        setCost(cost);
+    }
+
+    public static synchronized PasswordPolicy getInstance() {
+        if (instance == null) {
+            instance = new PasswordPolicy(AppConfig.getIntProperty("app.security.bcrypt.cost", 12));
+        }
+        return instance;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    // Takes effect for new hashes; existing ones are upgraded as users log in
+    public void setCost(int cost) {
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException("BCrypt cost must be between " + MIN_COST + " and " + MAX_COST
+                    + ": " + cost);
+        }
+        this.cost = cost;
+    }
+
+    public String newSalt() {
+        return BCrypt.gensalt(cost);
+    }
+
+    public String hash(String password) {
+        return BCrypt.hashpw(password, newSalt());
+    }
+
+    // Cost stored in a BCrypt hash, or -1 if the value is not one
+    public static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$'
+                || hash.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = hash.charAt(4);
+        char ones = hash.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    public boolean needsRehash(String hash) {
+        return costOf(hash) != cost;
+    }
+}
@@ -233,6 +233,7 @@ public class SampleDataGenerator {
         
         dataManager.getGrades().put(grade1.getId(), grade1);
         dataManager.getGrades().put(grade2.getId(), grade2);
+        dataManager.rebuildIndexes();
         
         // Save to file
         
@@ -0,0 +1,396 @@
+package com.arms.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import com.arms.domain.Assignment;
+import com.arms.domain.Course;
+import com.arms.domain.Enrollment;
+import com.arms.domain.Grade;
+import com.arms.domain.Student;
+import com.arms.domain.Teacher;
+import com.arms.domain.User;
+import com.arms.domain.enums.AssignmentStatus;
+import com.arms.domain.enums.AssignmentType;
+import com.arms.domain.enums.EnrollmentStatus;
+import com.arms.domain.enums.UserRole;
+import com.arms.domain.enums.UserStatus;
+import com.arms.persistence.DataManager;
+
+/*
+ * Deterministic, parameterized dataset generator for load and benchmark runs.
+ *
+ * Entities are produced in batches and handed to a sink (normally
+ * DataManager.bulkInsert) instead of being collected first, so large datasets do
+ * not need to fit in memory twice. The same seed and settings always produce the
+ * same IDs and values. Every generated user shares one pre-computed BCrypt hash
+ * of FIXTURE_PASSWORD, so no hashing happens during generation.
+ */
+public class SyntheticDataGenerator {
+
+    public static final String FIXTURE_PASSWORD = "password123";
+    private static final String FIXTURE_PASSWORD_HASH = "$2a$12$ENDMp4JQJ1ZFvIfJ8O91M.V/pk.x2AOVuxo50XjC2Hf063Y39SMIW";
+
+    private static final LocalDateTime TERM_START = LocalDateTime.of(2024, 9, 2, 8, 0);
+    private static final String[] DEPARTMENTS = {
+        "Computer Science", "Mathematics", "Physics", "Chemistry",
+        "Biology", "Economics", "History", "Literature"
+    };
+    private static final String[] TOPICS = {
+        "Algorithms", "Databases", "Networks", "Compilers", "Graphics", "Security",
+        "Statistics", "Calculus", "Mechanics", "Genetics", "Macroeconomics", "Poetry"
+    };
+
+    private long seed;
+    private int students = 1000;
+    private int teachers = 50;
+    private int courses = 100;
+    private int assignmentsPerCourse = 8;
+    private int coursesPerStudent = 5;
+    private double gradeDensity = 0.8;
+    private double enrollmentSkew = 1.0;
+    private double publishedRatio = 0.8;
+    private int batchSize = 10_000;
+
+    public SyntheticDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public SyntheticDataGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public SyntheticDataGenerator setStudents(int students) {
+        this.students = students;
+        return this;
+    }
+
+    public SyntheticDataGenerator setTeachers(int teachers) {
+        this.teachers = Math.max(1, teachers);
+        return this;
+    }
+
+    public SyntheticDataGenerator setCourses(int courses) {
+        this.courses = Math.max(1, courses);
+        return this;
+    }
+
+    public SyntheticDataGenerator setAssignmentsPerCourse(int assignmentsPerCourse) {
+        this.assignmentsPerCourse = assignmentsPerCourse;
+        return this;
+    }
+
+    public SyntheticDataGenerator setCoursesPerStudent(int coursesPerStudent) {
+        this.coursesPerStudent = coursesPerStudent;
+        return this;
+    }
+
+    // Fraction of (enrollment, assignment) pairs that have a grade
+    public SyntheticDataGenerator setGradeDensity(double gradeDensity) {
+        this.gradeDensity = gradeDensity;
+        return this;
+    }
+
+    // Zipf exponent for course popularity; 0 spreads enrollments evenly
+    public SyntheticDataGenerator setEnrollmentSkew(double enrollmentSkew) {
+        this.enrollmentSkew = enrollmentSkew;
+        return this;
+    }
+
+    public SyntheticDataGenerator setPublishedRatio(double publishedRatio) {
+        this.publishedRatio = publishedRatio;
+        return this;
+    }
+
+    public SyntheticDataGenerator setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    public static String studentUserId(int index) {
+        return id("USR-S", index, 8);
+    }
+
+    public static String teacherUserId(int index) {
+        return id("USR-T", index, 6);
+    }
+
+    public static String courseId(int index) {
+        return id("CRS-", index, 6);
+    }
+
+    public static String assignmentId(int courseIndex, int index) {
+        return id("ASG-", courseIndex, 6) + "-" + pad(index, 3);
+    }
+
+    // Streams the dataset into the DataManager maps, optionally writing entity files
+    public long generate(DataManager dataManager, boolean persist) {
+        long start = System.nanoTime();
+        long total = generate(batch -> dataManager.bulkInsert(batch, persist));
+        Logger.info(String.format("Generated %d synthetic entities (%d students, %d teachers, %d courses) in %d ms",
+                total, students, teachers, courses, (System.nanoTime() - start) / 1_000_000));
+        return total;
+    }
+
+    // Emits every entity exactly once, in batches of at most batchSize; returns the count
+    public long generate(Consumer<List<Object>> sink) {
+        Random random = new Random(seed);
+        Batcher batcher = new Batcher(sink);
+
+        List<Teacher> teacherList = new ArrayList<>(teachers);
+        for (int i = 0; i < teachers; i++) {
+            Teacher teacher = new Teacher();
+            fillUser(teacher, teacherUserId(i), "syn.teacher" + i, UserRole.TEACHER);
+            teacher.setEmployeeId(id("TCH-", i, 6));
+            teacher.setDepartment(DEPARTMENTS[i % DEPARTMENTS.length]);
+            teacher.setQualification("Ph.D.");
+            teacher.setYearsOfExperience(1 + random.nextInt(30));
+            teacherList.add(teacher);
+        }
+
+        List<Course> courseList = new ArrayList<>(courses);
+        for (int i = 0; i < courses; i++) {
+            Course course = new Course();
+            String topic = TOPICS[i % TOPICS.length];
+            course.setId(courseId(i));
+            course.setCourseCode(id("SYN", i, 5));
+            course.setTitle(topic + " " + (100 + i % 400));
+            course.setDescription("Synthetic course on " + topic.toLowerCase());
+            course.setCredits(1 + random.nextInt(4));
+            course.setDepartment(DEPARTMENTS[i % DEPARTMENTS.length]);
+            course.setSemester("Fall 2024");
+            course.setStartDate(LocalDate.of(2024, 9, 2));
+            course.setEndDate(LocalDate.of(2024, 12, 20));
+            course.setActive(true);
+            Teacher teacher = teacherList.get(i % teachers);
+            course.setTeacherId(teacher.getId());
+            teacher.getAssignedCourseIds().add(course.getId());
+            courseList.add(course);
+
+            for (int a = 0; a < assignmentsPerCourse; a++) {
+                Assignment assignment = new Assignment();
+                assignment.setId(assignmentId(i, a));
+                assignment.setCourseId(course.getId());
+                assignment.setTitle(topic + " assignment " + (a + 1));
+                assignment.setType(AssignmentType.values()[a % AssignmentType.values().length]);
+                assignment.setMaxScore(100);
+                assignment.setWeight(1.0 / assignmentsPerCourse);
+                assignment.setCreatedAt(TERM_START);
+                assignment.setDueDate(TERM_START.plusWeeks(a + 1));
+                assignment.setStatus(AssignmentStatus.ACTIVE);
+                batcher.add(assignment);
+            }
+        }
+
+        double[] popularity = cumulativeZipf(courses, enrollmentSkew);
+        int[] enrollmentCounts = new int[courses];
+        int perStudent = Math.min(coursesPerStudent, courses);
+        long gradeSeq = 0;
+        for (int s = 0; s < students; s++) {
+            Student student = new Student();
+            fillUser(student, studentUserId(s), "syn.student" + s, UserRole.STUDENT);
+            student.setStudentId(id("STU-", s, 8));
+            student.setDepartment(DEPARTMENTS[s % DEPARTMENTS.length]);
+            student.setSemester(1 + random.nextInt(8));
+            double ability = 50 + random.nextDouble() * 45;
+
+            int[] picked = pickCourses(random, popularity, perStudent);
+            for (int e = 0; e < picked.length; e++) {
+                int courseIndex = picked[e];
+                String courseId = courseId(courseIndex);
+                enrollmentCounts[courseIndex]++;
+                student.enrollInCourse(courseId);
+
+                Enrollment enrollment = new Enrollment();
+                enrollment.setId(id("ENR-", s, 8) + "-" + pad(e, 2));
+                enrollment.setStudentId(student.getId());
+                enrollment.setCourseId(courseId);
+                enrollment.setEnrolledAt(TERM_START.minusDays(random.nextInt(14)));
+                enrollment.setStatus(EnrollmentStatus.ENROLLED);
+                batcher.add(enrollment);
+
+                for (int a = 0; a < assignmentsPerCourse; a++) {
+                    if (random.nextDouble() >= gradeDensity) {
+                        continue;
+                    }
+                    Grade grade = new Grade();
+                    grade.setId(id("GRD-", gradeSeq++, 10));
+                    grade.setStudentId(student.getId());
+                    grade.setCourseId(courseId);
+                    grade.setAssignmentId(assignmentId(courseIndex, a));
+                    grade.setMaxScore(100);
+                    grade.setScore(Math.round(Math.max(0, Math.min(100, ability + random.nextGaussian() * 10))));
+                    grade.calculateLetterGrade();
+                    grade.setGradedBy(courseList.get(courseIndex).getTeacherId());
+                    grade.setGradedAt(TERM_START.plusWeeks(a + 1).plusDays(2));
+                    grade.setPublished(random.nextDouble() < publishedRatio);
+                    batcher.add(grade);
+                }
+            }
+            batcher.add(student);
+        }
+
+        for (int i = 0; i < courses; i++) {
+            Course course = courseList.get(i);
+            course.setCurrentEnrollment(enrollmentCounts[i]);
+            course.setMaxStudents(Math.max(30, enrollmentCounts[i]));
+            batcher.add(course);
+        }
+        teacherList.forEach(batcher::add);
+        batcher.flush();
+        return batcher.total;
+    }
+
+    // Zero-padded IDs without String.format, which dominates generation time otherwise
+    private static String id(String prefix, long value, int width) {
+        return prefix + pad(value, width);
+    }
+
+    private static String pad(long value, int width) {
+        String digits = Long.toString(value);
+        if (digits.length() >= width) {
+            return digits;
+        }
+        StringBuilder sb = new StringBuilder(width);
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    private static void fillUser(User user, String id, String username, UserRole role) {
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(username + "@synthetic.edu");
+        user.setPasswordHash(FIXTURE_PASSWORD_HASH);
+        user.setFirstName(role == UserRole.STUDENT ? "Student" : "Teacher");
+        user.setLastName(id.substring(5));
+        user.setRole(role);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setCreatedAt(TERM_START.minusMonths(1));
+        user.setLastLogin(TERM_START);
+    }
+
+    private static double[] cumulativeZipf(int count, double exponent) {
+        double[] cumulative = new double[count];
+        double sum = 0;
+        for (int k = 0; k < count; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < count; k++) {
+            cumulative[k] /= sum;
+        }
+        return cumulative;
+    }
+
+    // Distinct course indexes drawn by popularity; falls back to a linear probe when
+    // a heavily skewed distribution keeps returning courses already picked
+    private static int[] pickCourses(Random random, double[] popularity, int count) {
+        int[] picked = new int[count];
+        for (int i = 0; i < count; i++) {
+            int candidate = -1;
+            for (int attempt = 0; attempt < 8 && candidate < 0; attempt++) {
+                int drawn = Arrays.binarySearch(popularity, random.nextDouble());
+                drawn = Math.min(drawn < 0 ? -drawn - 1 : drawn, popularity.length - 1);
+                if (!contains(picked, i, drawn)) {
+                    candidate = drawn;
+                }
+            }
+            if (candidate < 0) {
+                candidate = random.nextInt(popularity.length);
+                while (contains(picked, i, candidate)) {
+                    candidate = (candidate + 1) % popularity.length;
+                }
+            }
+            picked[i] = candidate;
+        }
+        return picked;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class Batcher {
+        private final Consumer<List<Object>> sink;
+        private List<Object> batch = new ArrayList<>(batchSize);
+        private long total;
+
+        Batcher(Consumer<List<Object>> sink) {
+            this.sink = sink;
+        }
+
+        void add(Object entity) {
+            batch.add(entity);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                total += batch.size();
+                sink.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    // Builds a dataset in the configured data directory, e.g. for soak tests:
+    // students=200000 teachers=2000 courses=4000 assignments=8 perStudent=5 density=0.8 skew=1.0 seed=42
+    public static void main(String[] args) {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(42);
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                continue;
+            }
+            switch (parts[0]) {
+                case "seed":
+                    generator.setSeed(Long.parseLong(parts[1]));
+                    break;
+                case "students":
+                    generator.setStudents(Integer.parseInt(parts[1]));
+                    break;
+                case "teachers":
+                    generator.setTeachers(Integer.parseInt(parts[1]));
+                    break;
+                case "courses":
+                    generator.setCourses(Integer.parseInt(parts[1]));
+                    break;
+                case "assignments":
+                    generator.setAssignmentsPerCourse(Integer.parseInt(parts[1]));
+                    break;
+                case "perStudent":
+                    generator.setCoursesPerStudent(Integer.parseInt(parts[1]));
+                    break;
+                case "density":
+                    generator.setGradeDensity(Double.parseDouble(parts[1]));
+                    break;
+                case "skew":
+                    generator.setEnrollmentSkew(Double.parseDouble(parts[1]));
+                    break;
+                default:
+                    Logger.warn("Unknown generator option: " + parts[0]);
+            }
+        }
+        DataManager dataManager = DataManager.getInstance();
+        generator.generate(dataManager, true);
+        if (!dataManager.flush()) {
+            Logger.error("Some generated entities could not be written");
+        }
+        System.exit(0);
+    }
+}